@@ -11,6 +11,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 
 import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.dao.PlaylistDao;
 import com.example.beat.data.entities.*;
 import org.junit.After;
 import org.junit.Before;
@@ -22,6 +23,7 @@ import java.util.List;
 public class AppDatabaseTest {
     private AppDatabase database;
     private MusicDao musicDao;
+    private PlaylistDao playlistDao;
 
     @Before
     public void createDb() {
@@ -32,6 +34,7 @@ public class AppDatabaseTest {
         ).allowMainThreadQueries() // Only for testing
         .build();
         musicDao = database.musicDao();
+        playlistDao = database.playlistDao();
     }
 
     @After
@@ -105,14 +108,12 @@ public class AppDatabaseTest {
         long albumId = musicDao.insertAlbum(album);
 
         // Create song
-        LocalSong song = new LocalSong();
-        song.title = "Test Song";
-        song.filePath = "/test/song.mp3";
-        song.userId = (int) userId;
-        song.artistId = (int) artistId;
-        song.albumId = (int) albumId;
+        LocalSong song = new LocalSong("Test Song", "/test/song.mp3");
+        song.setArtistId((int) artistId);
+        song.setAlbumId((int) albumId);
         long songId = musicDao.insertSong(song);
         assertTrue(songId > 0);
+        musicDao.insertUserSong(new UserSong((int) userId, (int) songId));
 
         // Verify song is associated with user
         List<LocalSong> userSongs = musicDao.getSongsByUser((int) userId);
@@ -137,21 +138,18 @@ public class AppDatabaseTest {
         assertTrue(playlistId > 0);
 
         // Create song
-        LocalSong song = new LocalSong();
-        song.title = "Playlist Song";
-        song.filePath = "/test/song.mp3";
-        song.userId = (int) userId;
+        LocalSong song = new LocalSong("Playlist Song", "/test/song.mp3");
         long songId = musicDao.insertSong(song);
         assertTrue(songId > 0);
 
         // Add song to playlist
-        PlaylistSongCrossRef crossRef = new PlaylistSongCrossRef();
-        crossRef.playlistId = (int) playlistId;
-        crossRef.songId = (int) songId;
-        musicDao.insertPlaylistSongCrossRef(crossRef);
+        PlaylistSong playlistSong = new PlaylistSong();
+        playlistSong.setPlaylistId((int) playlistId);
+        playlistSong.setSongId((int) songId);
+        playlistDao.insertPlaylistSong(playlistSong);
 
         // Verify relationship
-        List<PlaylistSongCrossRef> playlistSongs = musicDao.getPlaylistSongs((int) playlistId);
+        List<PlaylistSong> playlistSongs = playlistDao.getPlaylistSongs((int) playlistId);
         assertNotNull(playlistSongs);
         assertTrue(playlistSongs.size() > 0);
     }
@@ -172,17 +170,15 @@ public class AppDatabaseTest {
         long playlistId = musicDao.insertPlaylist(playlist);
 
         // Create song
-        LocalSong song = new LocalSong();
-        song.title = "Relationship Song";
-        song.filePath = "/test/song.mp3";
-        song.userId = (int) userId;
+        LocalSong song = new LocalSong("Relationship Song", "/test/song.mp3");
         long songId = musicDao.insertSong(song);
+        musicDao.insertUserSong(new UserSong((int) userId, (int) songId));
 
         // Add song to playlist
         PlaylistSong playlistSong = new PlaylistSong();
         playlistSong.setPlaylistId((int) playlistId);
         playlistSong.setSongId((int) songId);
-        musicDao.insertPlaylistSong(playlistSong);
+        playlistDao.insertPlaylistSong(playlistSong);
 
         // Test PlaylistWithSongs relationship
         PlaylistWithSongs playlistWithSongs = musicDao.getPlaylistWithSongs((int) playlistId);
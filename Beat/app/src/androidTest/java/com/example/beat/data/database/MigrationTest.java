@@ -0,0 +1,222 @@
+package com.example.beat.data.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.core.util.Consumer;
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+    // Oldest version with a migration; see AppDatabase.ALL_MIGRATIONS
+    private static final int FIRST_MIGRATED_VERSION = 3;
+    // exportSchema was turned on here; app/schemas has a file for this and every later version
+    private static final int FIRST_EXPORTED_VERSION = 8;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    private Context context;
+    private int latestVersion;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+
+        AppDatabase fresh = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        latestVersion = fresh.getOpenHelper().getWritableDatabase().getVersion();
+        fresh.close();
+    }
+
+    @Test
+    public void migrationsFormAnUnbrokenChain() {
+        int version = FIRST_MIGRATED_VERSION;
+        for (Migration migration : AppDatabase.ALL_MIGRATIONS) {
+            assertEquals("Missing migration from version " + version, version, migration.startVersion);
+            assertEquals(version + 1, migration.endVersion);
+            version = migration.endVersion;
+        }
+        assertEquals("No migration reaches the current schema version", latestVersion, version);
+    }
+
+    /**
+     * Versions exported since exportSchema was turned on: create each one from its schema
+     * file and migrate one step, validating against the next schema file. Older versions
+     * are covered by migrate3ToLatestKeepsLibrary.
+     */
+    @Test
+    public void everyExportedVersionMigratesOneStep() throws IOException {
+        for (int version = FIRST_EXPORTED_VERSION; version <= latestVersion; version++) {
+            assertTrue("No schema for version " + version + "; run scripts/export-room-schemas.sh"
+                    + " and commit app/schemas", hasSchema(version));
+        }
+        for (int version = FIRST_EXPORTED_VERSION; version < latestVersion; version++) {
+            String name = TEST_DB + "-" + version;
+            helper.createDatabase(name, version).close();
+            helper.runMigrationsAndValidate(name, version + 1, true, AppDatabase.ALL_MIGRATIONS).close();
+        }
+    }
+
+    @Test
+    public void migrate3ToLatestKeepsLibrary() throws IOException {
+        createVersion3Database();
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(
+                TEST_DB, latestVersion, true, AppDatabase.ALL_MIGRATIONS);
+
+        // Two users with the same file end up sharing one catalog row
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM local_song"));
+        assertEquals(3, count(db, "SELECT COUNT(*) FROM user_song"));
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM user_song WHERE songId = 1"));
+
+        // Playlists survive, and the one pointing at the duplicate now points at the kept row,
+        // only once
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM playlist"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM playlist_song WHERE playlistId = 2 AND songId = 1"));
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM playlist_song WHERE playlistId = 1 AND songId = 2"));
+
+        // Columns added along the way have their defaults
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM local_song WHERE mediaStoreId != 0 OR fileSize != 0"));
+
+        // The search index is filled from the existing library: the kept song, its artist and album
+        assertEquals(1, count(db, "SELECT COUNT(*) FROM library_fts WHERE library_fts MATCH 'sha*'"));
+        assertEquals(4, count(db, "SELECT COUNT(*) FROM library_fts"));
+
+        // Stats are counted from the existing library: user 1 has both songs, user 2 the
+        // shared one, and each playlist holds one song
+        assertEquals(2, count(db, "SELECT songCount FROM artist_stats WHERE userId = 1 AND artistId = 1"));
+        assertEquals(1, count(db, "SELECT songCount FROM album_stats WHERE userId = 2 AND albumId = 1"));
+        assertEquals(2, count(db, "SELECT SUM(songCount) FROM playlist_stats"));
+
+        // and kept by the triggers from then on
+        db.execSQL("DELETE FROM user_song WHERE userId = 1 AND songId = 2");
+        assertEquals(1, count(db, "SELECT songCount FROM artist_stats WHERE userId = 1 AND artistId = 1"));
+        db.execSQL("DELETE FROM local_song WHERE songId = 1");
+        assertEquals(0, count(db, "SELECT COUNT(*) FROM artist_stats"));
+        assertEquals(0, count(db, "SELECT songCount FROM playlist_stats WHERE playlistId = 2"));
+        db.close();
+    }
+
+    /**
+     * Versions 1 and 2 are rebuilt instead of migrated, which skips Room's onCreate; the
+     * rebuilt database still has to get the search index and stats triggers.
+     */
+    @Test
+    public void destructiveRebuildCreatesTriggers() {
+        createLegacyDatabase(2, db ->
+                db.execSQL("CREATE TABLE IF NOT EXISTS `user` (`userId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `username` TEXT NOT NULL, `email` TEXT NOT NULL, `password` TEXT NOT NULL)"));
+
+        AppDatabase database = AppDatabase.configure(
+                Room.databaseBuilder(context, AppDatabase.class, TEST_DB)).build();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        assertEquals(latestVersion, db.getVersion());
+
+        assertEquals(9, count(db, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name GLOB 'library_fts_*'"));
+        assertEquals(9, count(db, "SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name GLOB 'stats_*'"));
+
+        // and they fill the tables
+        db.execSQL("INSERT INTO user (userId, username, email, password) VALUES (1, 'a', 'a@example.com', 'x')");
+        db.execSQL("INSERT INTO artist (artistId, name, songCount) VALUES (1, 'Rebuilt', 0)");
+        db.execSQL("INSERT INTO local_song (songId, title, filePath, artistId, mediaStoreId, fileSize, duration, trackNumber, year, dateAdded) "
+                + "VALUES (1, 'Song', '/music/song.mp3', 1, 0, 0, 1000, 0, 0, 0)");
+        db.execSQL("INSERT INTO user_song (userId, songId) VALUES (1, 1)");
+        // The artist, and the song by its artist name
+        assertEquals(2, count(db, "SELECT COUNT(*) FROM library_fts WHERE library_fts MATCH 'rebuilt'"));
+        assertEquals(1, count(db, "SELECT songCount FROM artist_stats WHERE userId = 1 AND artistId = 1"));
+        database.close();
+    }
+
+    private boolean hasSchema(int version) {
+        try (InputStream ignored = InstrumentationRegistry.getInstrumentation().getContext().getAssets()
+                .open(AppDatabase.class.getCanonicalName() + "/" + version + ".json")) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Version 3 was never exported, so it is built from its CREATE statements here.
+     */
+    private void createVersion3Database() {
+        createLegacyDatabase(FIRST_MIGRATED_VERSION, db -> {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `user` (`userId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `username` TEXT NOT NULL, `email` TEXT NOT NULL, `password` TEXT NOT NULL)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `artist` (`artistId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT, `songCount` INTEGER NOT NULL, `artistArtUri` TEXT)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `album` (`albumId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL, `releaseYear` TEXT, `artistId` INTEGER NOT NULL, `albumArtUri` TEXT)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `local_song` (`songId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `title` TEXT, `filePath` TEXT, `userId` INTEGER NOT NULL, `artistId` INTEGER, `albumId` INTEGER, `albumArtUri` TEXT, "
+                    + "FOREIGN KEY(`userId`) REFERENCES `user`(`userId`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`artistId`) REFERENCES `artist`(`artistId`) ON UPDATE NO ACTION ON DELETE SET NULL , "
+                    + "FOREIGN KEY(`albumId`) REFERENCES `album`(`albumId`) ON UPDATE NO ACTION ON DELETE SET NULL )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_local_song_userId` ON `local_song` (`userId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_local_song_artistId` ON `local_song` (`artistId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_local_song_albumId` ON `local_song` (`albumId`)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_local_song_filePath_userId` ON `local_song` (`filePath`, `userId`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `playlist` (`playlistId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT, `userId` INTEGER NOT NULL, `songIds` TEXT)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `local_video` (`videoId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `title` TEXT, `filePath` TEXT, `userId` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`userId`) REFERENCES `user`(`userId`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_local_video_userId` ON `local_video` (`userId`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `playlist_song` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `playlistId` INTEGER NOT NULL, `songId` INTEGER NOT NULL)");
+
+            db.execSQL("INSERT INTO user (userId, username, email, password) VALUES (1, 'a', 'a@example.com', 'x'), (2, 'b', 'b@example.com', 'x')");
+            db.execSQL("INSERT INTO artist (artistId, name, songCount) VALUES (1, 'Artist', 0)");
+            db.execSQL("INSERT INTO album (albumId, name, artistId) VALUES (1, 'Album', 1)");
+            // Same file scanned by both users, plus one file only user 1 has
+            db.execSQL("INSERT INTO local_song (songId, title, filePath, userId, artistId, albumId) VALUES "
+                    + "(1, 'Shared', '/music/shared.mp3', 1, 1, 1), "
+                    + "(2, 'Own', '/music/own.mp3', 1, 1, 1), "
+                    + "(3, 'Shared', '/music/shared.mp3', 2, 1, 1)");
+            db.execSQL("INSERT INTO playlist (playlistId, name, userId) VALUES (1, 'Mine', 1), (2, 'Theirs', 2)");
+            // Playlist 2 has the shared song twice, once through each user's copy
+            db.execSQL("INSERT INTO playlist_song (playlistId, songId) VALUES (1, 2), (2, 3), (2, 1)");
+        });
+    }
+
+    // A database file at a version Room never exported, created by the given statements
+    private void createLegacyDatabase(int version, Consumer<SupportSQLiteDatabase> create) {
+        SupportSQLiteOpenHelper.Configuration configuration = SupportSQLiteOpenHelper.Configuration
+                .builder(context)
+                .name(TEST_DB)
+                .callback(new SupportSQLiteOpenHelper.Callback(version) {
+                    @Override
+                    public void onCreate(SupportSQLiteDatabase db) {
+                        create.accept(db);
+                    }
+
+                    @Override
+                    public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                    }
+                })
+                .build();
+        SupportSQLiteOpenHelper openHelper = new FrameworkSQLiteOpenHelperFactory().create(configuration);
+        openHelper.getWritableDatabase();
+        openHelper.close();
+    }
+
+    private static long count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            assertTrue(cursor.moveToFirst());
+            return cursor.getLong(0);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.beat.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * {@link EmbeddedPictureReader} against the MediaMetadataRetriever path it replaces, on
+ * MP3s written to the cache dir: answering whether a file has a cover, as
+ * AlbumArtExtractor.hasAlbumArt does, and reading the cover, as the Glide fetcher does. Both paths
+ * have to agree on every file. Times per call are logged under the test's tag:
+ *
+ *   ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.example.beat.utils.EmbeddedPictureBenchmark
+ */
+@RunWith(AndroidJUnit4.class)
+public class EmbeddedPictureBenchmark {
+    private static final String TAG = "EmbeddedPictureBench";
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+
+    private Context context;
+    private File directory;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        directory = new File(context.getCacheDir(), "picture-benchmark");
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void noCover() throws IOException {
+        run("no cover", null);
+    }
+
+    @Test
+    public void smallCover() throws IOException {
+        run("30 KB cover", picture(30 * 1024));
+    }
+
+    @Test
+    public void largeCover() throws IOException {
+        run("500 KB cover", picture(500 * 1024));
+    }
+
+    private void run(String name, byte[] cover) throws IOException {
+        File file = writeMp3(cover);
+        String path = file.getPath();
+
+        byte[] expected = AlbumArtExtractor.retrieveEmbeddedPicture(context, path);
+        assertArrayEquals(expected, readPicture(file));
+        if (cover != null) {
+            assertArrayEquals(cover, expected);
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            hasPicture(file);
+            AlbumArtExtractor.retrieveEmbeddedPicture(context, path);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(cover != null, hasPicture(file));
+        }
+        long findNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            readPicture(file);
+        }
+        long readNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            AlbumArtExtractor.retrieveEmbeddedPicture(context, path);
+        }
+        long retrieverNanos = System.nanoTime() - start;
+
+        Log.i(TAG, String.format(Locale.US,
+                "%-12s has cover %,8.1f us  read %,8.1f us  retriever %,8.1f us  (%.0fx / %.0fx)",
+                name,
+                findNanos / 1e3 / ITERATIONS,
+                readNanos / 1e3 / ITERATIONS,
+                retrieverNanos / 1e3 / ITERATIONS,
+                (double) retrieverNanos / findNanos,
+                (double) retrieverNanos / readNanos));
+    }
+
+    private static boolean hasPicture(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            return EmbeddedPictureReader.find(in.getChannel()) != null;
+        }
+    }
+
+    private static byte[] readPicture(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            FileChannel channel = in.getChannel();
+            EmbeddedPictureReader.Picture picture = EmbeddedPictureReader.find(channel);
+            return picture != null ? picture.read(channel) : null;
+        }
+    }
+
+    private static byte[] picture(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        return bytes;
+    }
+
+    // An ID3v2.3 tag with a title and, when given, an APIC front cover, then about ten
+    // seconds of silent 128 kbit/s MPEG audio the retriever can parse
+    private File writeMp3(byte[] cover) throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        writeFrame(frames, "TIT2", "\0Benchmark".getBytes(StandardCharsets.ISO_8859_1));
+        if (cover != null) {
+            ByteArrayOutputStream apic = new ByteArrayOutputStream();
+            apic.write(0);
+            apic.write("image/jpeg\0".getBytes(StandardCharsets.ISO_8859_1));
+            apic.write(EmbeddedPictureReader.FRONT_COVER);
+            apic.write(0); // empty description
+            apic.write(cover);
+            writeFrame(frames, "APIC", apic.toByteArray());
+        }
+        byte[] body = frames.toByteArray();
+
+        File file = new File(directory, (cover != null ? cover.length : 0) + ".mp3");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{'I', 'D', '3', 3, 0, 0});
+            int size = body.length;
+            out.write(new byte[]{(byte) (size >> 21 & 0x7F), (byte) (size >> 14 & 0x7F),
+                    (byte) (size >> 7 & 0x7F), (byte) (size & 0x7F)});
+            out.write(body);
+            byte[] frame = new byte[417];
+            frame[0] = (byte) 0xFF;
+            frame[1] = (byte) 0xFB;
+            frame[2] = (byte) 0x90;
+            frame[3] = (byte) 0x64;
+            for (int i = 0; i < 400; i++) {
+                out.write(frame);
+            }
+        }
+        return file;
+    }
+
+    private static void writeFrame(ByteArrayOutputStream out, String id, byte[] body) throws IOException {
+        out.write(id.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(new byte[]{(byte) (body.length >> 24), (byte) (body.length >> 16),
+                (byte) (body.length >> 8), (byte) body.length, 0, 0});
+        out.write(body);
+    }
+}
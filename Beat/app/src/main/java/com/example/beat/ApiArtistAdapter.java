@@ -50,6 +50,8 @@ public class ApiArtistAdapter extends RecyclerView.Adapter<ApiArtistAdapter.Arti
             Glide.with(holder.itemView.getContext())
                     .load(imageUrl)
                     .diskCacheStrategy(DiskCacheStrategy.ALL)
+                    // Grid tiles don't need the alpha channel; half the memory per tile
+                    .format(com.bumptech.glide.load.DecodeFormat.PREFER_RGB_565)
                     .placeholder(R.drawable.default_artist)
                     .error(R.drawable.default_artist)
                     .listener(new com.bumptech.glide.request.RequestListener<android.graphics.drawable.Drawable>() {
@@ -10,8 +10,7 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.example.beat.data.database.AppDatabase;
-import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.User;
 
 public class LoginActivity extends AppCompatActivity {
@@ -19,7 +18,7 @@ public class LoginActivity extends AppCompatActivity {
     private EditText passwordEditText;
     private Button loginButton;
     private Button signUpButton;
-    private MusicDao musicDao;
+    private MusicRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -27,8 +26,7 @@ public class LoginActivity extends AppCompatActivity {
         setContentView(R.layout.activity_login);
 
         // Initialize database
-        AppDatabase database = AppDatabase.getInstance(this);
-        musicDao = database.musicDao();
+        repository = MusicRepository.getInstance(this);
 
         // Initialize views
         emailEditText = findViewById(R.id.email_edit_text);
@@ -46,28 +44,23 @@ public class LoginActivity extends AppCompatActivity {
                 return;
             }
 
-            // Validate credentials on a background thread
-            new Thread(() -> {
-                User user = musicDao.getUserByEmailAndPassword(email, password);
+            // Validate credentials; the repository answers on the main thread
+            repository.getUserByCredentials(email, password, user -> {
                 if (user != null) {
-                    runOnUiThread(() -> {
-                        // Store user ID and email in shared preferences
-                        SharedPreferences prefs = getSharedPreferences("UserPrefs", MODE_PRIVATE);
-                        prefs.edit()
-                                .putInt("userId", user.userId)
-                                .putString("user_email", email)  // Store email
-                                .apply();
+                    // Store user ID and email in shared preferences
+                    SharedPreferences prefs = getSharedPreferences("UserPrefs", MODE_PRIVATE);
+                    prefs.edit()
+                            .putInt("userId", user.userId)
+                            .putString("user_email", email)  // Store email
+                            .apply();
 
-                        // Start MainActivity
-                        startActivity(new Intent(LoginActivity.this, MainActivity.class));
-                        finish();
-                    });
+                    // Start MainActivity
+                    startActivity(new Intent(LoginActivity.this, MainActivity.class));
+                    finish();
                 } else {
-                    runOnUiThread(() ->
-                            Toast.makeText(this, "Invalid email or password", Toast.LENGTH_SHORT).show()
-                    );
+                    Toast.makeText(this, "Invalid email or password", Toast.LENGTH_SHORT).show();
                 }
-            }).start();
+            });
         });
 
         // Set up sign up button click listener
@@ -10,9 +10,8 @@ import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
 import androidx.fragment.app.FragmentTransaction;
 
-import com.example.beat.data.database.AppDatabase;
 import com.example.beat.permissions.PermissionManager;
-import com.example.beat.scanner.MediaStoreScanner;
+import com.example.beat.scanner.MediaLibraryObserver;
 import com.example.beat.ui.AlbumFragment;
 import com.example.beat.ui.ArtistFragment;
 //import com.example.beat.ui.HomeFragment;
@@ -88,22 +87,9 @@ public class MainActivity extends AppCompatActivity {
         // Initialize mini player container
         miniPlayerContainer = findViewById(R.id.mini_player_container);
 
-        // Request storage permissions and initialize media scanning
+        // Request storage permissions and start following the media library
         if (PermissionManager.hasStoragePermissions(this)) {
-            new Thread(() -> {
-                AppDatabase database = AppDatabase.getInstance(this);
-                MediaStoreScanner scanner = new MediaStoreScanner(this, database.musicDao(), userId);
-                scanner.scanMusicFiles();
-                
-                // Update UI on main thread after scanning is complete
-                runOnUiThread(() -> {
-                    // Refresh the current fragment to show updated songs
-                    Fragment currentFragment = getSupportFragmentManager().findFragmentById(R.id.fragment_container);
-                    if (currentFragment instanceof LocalSongsFragment) {
-                        ((LocalSongsFragment) currentFragment).refreshSongs();
-                    }
-                });
-            }).start();
+            startLibrarySync();
         } else {
             PermissionManager.requestStoragePermissions(this);
         }
@@ -113,21 +99,27 @@ public class MainActivity extends AppCompatActivity {
     protected void onActivityResult(int requestCode, int resultCode, Intent data) {
         super.onActivityResult(requestCode, resultCode, data);
         if (requestCode == PermissionManager.STORAGE_PERMISSION_REQUEST_CODE && resultCode == RESULT_OK) {
-            // Storage permissions granted, start scanning
-            new Thread(() -> {
-                AppDatabase database = AppDatabase.getInstance(this);
-                MediaStoreScanner scanner = new MediaStoreScanner(this, database.musicDao(), userId);
-                scanner.scanMusicFiles();
-                
-                // Update UI on main thread after scanning is complete
-                runOnUiThread(() -> {
-                    // Refresh the current fragment to show updated songs
-                    Fragment currentFragment = getSupportFragmentManager().findFragmentById(R.id.fragment_container);
-                    if (currentFragment instanceof LocalSongsFragment) {
-                        ((LocalSongsFragment) currentFragment).refreshSongs();
-                    }
-                });
-            }).start();
+            // Storage permissions granted, start syncing
+            startLibrarySync();
+        }
+    }
+
+    /**
+     * Follow MediaStore until the app is closed. Registering does a cheap incremental
+     * catch-up; after that only changed rows are synced, and fragments pick them up
+     * through their LiveData queries. The observer is shared by the process, so this
+     * activity being recreated doesn't start a second sync.
+     */
+    private void startLibrarySync() {
+        MediaLibraryObserver.getInstance(this).start(userId);
+    }
+
+    public void rescanLibrary() {
+        if (PermissionManager.hasStoragePermissions(this)) {
+            startLibrarySync();
+            MediaLibraryObserver.getInstance(this).requestSync(true);
+        } else {
+            PermissionManager.requestStoragePermissions(this);
         }
     }
 
@@ -218,6 +210,10 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        // A configuration change recreates the activity; the sync carries on for the new one
+        if (isFinishing()) {
+            MediaLibraryObserver.getInstance(this).stop();
+        }
         // Clear static reference to prevent memory leaks
         if (currentInstance == this) {
             currentInstance = null;
@@ -229,11 +225,7 @@ public class MainActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == PermissionManager.STORAGE_PERMISSION_REQUEST_CODE) {
             if (PermissionManager.isPermissionGranted(permissions, grantResults)) {
-                new Thread(() -> {
-                    AppDatabase database = AppDatabase.getInstance(this);
-                    MediaStoreScanner scanner = new MediaStoreScanner(this, database.musicDao(), userId);
-                    scanner.scanMusicFiles();
-                }).start();
+                startLibrarySync();
             } else {
                 // Optionally, show a message that storage permission is required
             }
@@ -7,8 +7,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
-import com.example.beat.data.database.AppDatabase;
-import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.User;
 
 public class SignUpActivity extends AppCompatActivity {
@@ -18,7 +17,7 @@ public class SignUpActivity extends AppCompatActivity {
     private TextInputEditText confirmPasswordEditText;
     private MaterialButton signUpButton;
     private MaterialButton backButton;
-    private MusicDao musicDao;
+    private MusicRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -26,8 +25,7 @@ public class SignUpActivity extends AppCompatActivity {
         setContentView(R.layout.activity_sign_up);
 
         // Initialize database
-        AppDatabase database = AppDatabase.getInstance(this);
-        musicDao = database.musicDao();
+        repository = MusicRepository.getInstance(this);
 
         // Initialize views
         nameEditText = findViewById(R.id.name_edit_text);
@@ -54,42 +52,37 @@ public class SignUpActivity extends AppCompatActivity {
                 return;
             }
 
-            // Register user on a background thread
-            new Thread(() -> {
-                User existingUser = musicDao.getUserByEmail(email);
-                if (existingUser != null) {
-                    runOnUiThread(() -> 
-                        Toast.makeText(this, "Email already registered", Toast.LENGTH_SHORT).show()
-                    );
-                    return;
-                }
+            // Create new user
+            User newUser = new User();
+            newUser.username = name;
+            newUser.email = email;
+            newUser.password = password; // In a real app, you should hash the password
+
+            // Register user; the repository answers on the main thread
+            repository.registerUser(newUser, new MusicRepository.Callback<Long>() {
+                @Override
+                public void onResult(Long userId) {
+                    if (userId == -1) {
+                        Toast.makeText(SignUpActivity.this, "Email already registered", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
 
-                // Create new user
-                User newUser = new User();
-                newUser.username = name;
-                newUser.email = email;
-                newUser.password = password; // In a real app, you should hash the password
+                    // Store user ID in shared preferences
+                    getSharedPreferences("UserPrefs", MODE_PRIVATE)
+                            .edit()
+                            .putInt("userId", userId.intValue())
+                            .apply();
+
+                    // Start MainActivity
+                    startActivity(new Intent(SignUpActivity.this, MainActivity.class));
+                    finish();
+                }
 
-                // Insert user and get generated ID
-                long userId = musicDao.insertUser(newUser);
-                if (userId != -1) {
-                    runOnUiThread(() -> {
-                        // Store user ID in shared preferences
-                        getSharedPreferences("UserPrefs", MODE_PRIVATE)
-                                .edit()
-                                .putInt("userId", (int) userId)
-                                .apply();
-                        
-                        // Start MainActivity
-                        startActivity(new Intent(SignUpActivity.this, MainActivity.class));
-                        finish();
-                    });
-                } else {
-                    runOnUiThread(() -> 
-                        Toast.makeText(this, "Registration failed", Toast.LENGTH_SHORT).show()
-                    );
+                @Override
+                public void onError(Exception e) {
+                    Toast.makeText(SignUpActivity.this, "Registration failed", Toast.LENGTH_SHORT).show();
                 }
-            }).start();
+            });
         });
 
         // Set up back button click listener
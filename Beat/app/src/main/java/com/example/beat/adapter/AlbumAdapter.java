@@ -62,6 +62,13 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
         holder.bind(album);
     }
 
+    @Override
+    public void onViewRecycled(@NonNull AlbumViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Off screen for good; its art request would only be thrown away
+        com.bumptech.glide.Glide.with(holder.albumArt).clear(holder.albumArt);
+    }
+
     @Override
     public int getItemCount() {
         return albums != null ? albums.size() : 0;
@@ -139,46 +146,37 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
         }
 
         private void deleteAlbumFromDatabase(AlbumWithSongs album, int position, View view) {
-            new Thread(() -> {
-                try {
-                    // Get database instance
-                    com.example.beat.data.database.AppDatabase db =
-                        com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Get user ID from SharedPreferences
-                    android.content.SharedPreferences prefs = view.getContext()
-                        .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
-                    int userId = prefs.getInt("userId", -1);
-
-                    if (userId == -1) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("Error")
-                                .setMessage("User not logged in")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
-                        return;
-                    }
+            // Get user ID from SharedPreferences
+            android.content.SharedPreferences prefs = view.getContext()
+                .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
+            int userId = prefs.getInt("userId", -1);
 
-                    // Delete all songs in the album
-                    db.musicDao().deleteAlbumSongs(album.album.albumId, userId);
-
-                    // Delete the album itself
-                    db.musicDao().deleteAlbum(album.album);
+            if (userId == -1) {
+                new AlertDialog.Builder(view.getContext())
+                    .setTitle("Error")
+                    .setMessage("User not logged in")
+                    .setPositiveButton("OK", null)
+                    .show();
+                return;
+            }
 
-                    // Update UI on main thread
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
+            // Drops the album's songs from this user's library, then the album itself
+            com.example.beat.data.MusicRepository.getInstance(view.getContext())
+                .removeAlbumFromLibrary(album.album, userId, new com.example.beat.data.MusicRepository.Callback<Void>() {
+                    @Override
+                    public void onResult(Void result) {
                         // Remove from adapter list
                         albums.remove(position);
                         notifyItemRemoved(position);
                         notifyItemRangeChanged(position, albums.size());
-                    });
-                } catch (Exception e) {
-                    // Silent error handling - just log the error
-                    android.util.Log.e("AlbumAdapter", "Error deleting album: " + e.getMessage());
-                }
-            }).start();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Silent error handling - just log the error
+                        android.util.Log.e("AlbumAdapter", "Error deleting album: " + e.getMessage());
+                    }
+                });
         }
 
         private void showAlbumPlaylistSelectionDialog(AlbumWithSongs album, View view) {
@@ -191,55 +189,49 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
                 return;
             }
 
-            new Thread(() -> {
-                try {
-                    // Get database instance
-                    com.example.beat.data.database.AppDatabase db =
-                        com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Get user ID from SharedPreferences
-                    android.content.SharedPreferences prefs = view.getContext()
-                        .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
-                    int userId = prefs.getInt("userId", -1);
-
-                    if (userId == -1) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("Error")
-                                .setMessage("User not logged in")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
-                        return;
+            com.example.beat.data.MusicRepository repository =
+                com.example.beat.data.MusicRepository.getInstance(view.getContext());
+
+            // Get user ID from SharedPreferences
+            android.content.SharedPreferences prefs = view.getContext()
+                .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
+            int userId = prefs.getInt("userId", -1);
+
+            if (userId == -1) {
+                new AlertDialog.Builder(view.getContext())
+                    .setTitle("Error")
+                    .setMessage("User not logged in")
+                    .setPositiveButton("OK", null)
+                    .show();
+                return;
+            }
+
+            // Get user's playlists
+            repository.getPlaylists(userId, new com.example.beat.data.MusicRepository.Callback<java.util.List<com.example.beat.data.entities.Playlist>>() {
+                @Override
+                public void onResult(java.util.List<com.example.beat.data.entities.Playlist> playlists) {
+                    if (playlists.isEmpty()) {
+                        // No playlists exist, offer to create one
+                        showCreatePlaylistForAlbumDialog(album, view, repository, userId);
+                    } else {
+                        // Show playlist selection dialog
+                        showExistingPlaylistsForAlbumDialog(album, view, repository, playlists);
                     }
+                }
 
-                    // Get user's playlists
-                    java.util.List<com.example.beat.data.entities.Playlist> playlists =
-                        db.playlistDao().getPlaylistsByUser(userId);
-
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        if (playlists.isEmpty()) {
-                            // No playlists exist, offer to create one
-                            showCreatePlaylistForAlbumDialog(album, view, db, userId);
-                        } else {
-                            // Show playlist selection dialog
-                            showExistingPlaylistsForAlbumDialog(album, view, db, playlists);
-                        }
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to load playlists: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to load playlists: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+            });
         }
 
         private void showCreatePlaylistForAlbumDialog(AlbumWithSongs album, View view,
-                com.example.beat.data.database.AppDatabase db, int userId) {
+                com.example.beat.data.MusicRepository repository, int userId) {
             android.widget.EditText editText = new android.widget.EditText(view.getContext());
             editText.setHint("Enter playlist name");
 
@@ -250,7 +242,7 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
                 .setPositiveButton("Create", (dialog, which) -> {
                     String playlistName = editText.getText().toString().trim();
                     if (!playlistName.isEmpty()) {
-                        createPlaylistAndAddAlbumSongs(album, playlistName, view, db, userId);
+                        createPlaylistAndAddAlbumSongs(album, playlistName, view, repository, userId);
                     } else {
                         new AlertDialog.Builder(view.getContext())
                             .setTitle("Error")
@@ -264,7 +256,7 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
         }
 
         private void showExistingPlaylistsForAlbumDialog(AlbumWithSongs album, View view,
-                com.example.beat.data.database.AppDatabase db,
+                com.example.beat.data.MusicRepository repository,
                 java.util.List<com.example.beat.data.entities.Playlist> playlists) {
 
             String[] playlistNames = new String[playlists.size() + 1];
@@ -290,7 +282,7 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
                                     android.content.SharedPreferences prefs = view.getContext()
                                         .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
                                     int userId = prefs.getInt("userId", -1);
-                                    createPlaylistAndAddAlbumSongs(album, playlistName, view, db, userId);
+                                    createPlaylistAndAddAlbumSongs(album, playlistName, view, repository, userId);
                                 } else {
                                     new AlertDialog.Builder(view.getContext())
                                         .setTitle("Error")
@@ -304,91 +296,58 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
                     } else {
                         // Existing playlist selected
                         com.example.beat.data.entities.Playlist selectedPlaylist = playlists.get(which);
-                        addAlbumSongsToExistingPlaylist(album, selectedPlaylist, view, db);
+                        addAlbumSongsToExistingPlaylist(album, selectedPlaylist, view, repository);
                     }
                 })
                 .show();
         }
 
-
-
         private void createPlaylistAndAddAlbumSongs(AlbumWithSongs album, String playlistName, View view,
-                com.example.beat.data.database.AppDatabase db, int userId) {
-            new Thread(() -> {
-                try {
-                    // Create new playlist
-                    com.example.beat.data.entities.Playlist newPlaylist = new com.example.beat.data.entities.Playlist();
-                    newPlaylist.setName(playlistName);
-                    newPlaylist.setUserId(userId);
-
-                    long playlistId = db.playlistDao().insert(newPlaylist);
-
-                    // Add all album songs to playlist
-                    int addedCount = 0;
-                    for (com.example.beat.data.entities.LocalSong song : album.songs) {
-                        com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                        playlistSong.setPlaylistId((int) playlistId);
-                        playlistSong.setSongId(song.getSongId());
-
-                        db.playlistDao().insertPlaylistSong(playlistSong);
-                        addedCount++;
-                    }
-
+                com.example.beat.data.MusicRepository repository, int userId) {
+            repository.createPlaylistWithSongs(playlistName, userId, songIdsOf(album), new com.example.beat.data.MusicRepository.Callback<Long>() {
+                @Override
+                public void onResult(Long playlistId) {
                     // Success - no dialog needed
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to create playlist: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
                 }
-            }).start();
+
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to create playlist: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
+                }
+            });
         }
 
         private void addAlbumSongsToExistingPlaylist(AlbumWithSongs album,
                 com.example.beat.data.entities.Playlist playlist, View view,
-                com.example.beat.data.database.AppDatabase db) {
-            new Thread(() -> {
-                try {
-                    // Get existing songs in playlist
-                    java.util.List<com.example.beat.data.entities.PlaylistSong> existingSongs =
-                        db.playlistDao().getPlaylistSongs(playlist.getPlaylistId());
-
-                    // Create set of existing song IDs for quick lookup
-                    java.util.Set<Integer> existingSongIds = new java.util.HashSet<>();
-                    for (com.example.beat.data.entities.PlaylistSong ps : existingSongs) {
-                        existingSongIds.add(ps.getSongId());
-                    }
-
-                    // Add songs that aren't already in playlist
-                    int addedCount = 0;
-                    int skippedCount = 0;
-                    for (com.example.beat.data.entities.LocalSong song : album.songs) {
-                        if (!existingSongIds.contains(song.getSongId())) {
-                            com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                            playlistSong.setPlaylistId(playlist.getPlaylistId());
-                            playlistSong.setSongId(song.getSongId());
-
-                            db.playlistDao().insertPlaylistSong(playlistSong);
-                            addedCount++;
-                        } else {
-                            skippedCount++;
-                        }
-                    }
-
+                com.example.beat.data.MusicRepository repository) {
+            // Songs already in the playlist are skipped
+            repository.addSongsToPlaylist(playlist.getPlaylistId(), songIdsOf(album), new com.example.beat.data.MusicRepository.Callback<Integer>() {
+                @Override
+                public void onResult(Integer addedCount) {
                     // Success - no dialog needed
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to add album songs to playlist: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
                 }
-            }).start();
+
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to add album songs to playlist: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
+                }
+            });
+        }
+
+        private java.util.List<Integer> songIdsOf(AlbumWithSongs album) {
+            java.util.List<Integer> songIds = new java.util.ArrayList<>();
+            for (com.example.beat.data.entities.LocalSong song : album.songs) {
+                songIds.add(song.getSongId());
+            }
+            return songIds;
         }
 
         public void bind(AlbumWithSongs album) {
@@ -400,10 +359,14 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
             LocalSong firstSongWithArt = null;
 
             if (album.songs != null && !album.songs.isEmpty()) {
-                // First, try to find a song with MediaStore album art (non-file URI)
+                // First, try to find a song with MediaStore album art (non-file URI),
+                // skipping covers the resolver already knows are missing
+                com.example.beat.utils.AlbumArtResolver artResolver = com.example.beat.utils.AlbumArtResolver.getInstance();
                 for (LocalSong song : album.songs) {
+                    com.example.beat.utils.AlbumArtResolver.ArtState state = artResolver.peek(song.getAlbumArtUri());
                     if (song.getAlbumArtUri() != null && !song.getAlbumArtUri().isEmpty()
-                        && !song.getAlbumArtUri().startsWith("file://")) {
+                        && !song.getAlbumArtUri().startsWith("file://")
+                        && state != com.example.beat.utils.AlbumArtResolver.ArtState.EMBEDDED_ONLY) {
                         albumArtUri = song.getAlbumArtUri();
                         android.util.Log.d("AlbumAdapter", "✅ Found MediaStore album art for album '" + album.album.name + "': " + albumArtUri);
                         break;
@@ -419,72 +382,10 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.AlbumViewHol
                 }
             }
 
-            // Load album art with fallback methods
-            if (albumArtUri != null && !albumArtUri.isEmpty()) {
-                // Load MediaStore album art with fallback to embedded
-                loadAlbumArt(albumArtUri, firstSongWithArt, album.album.name);
-            } else if (firstSongWithArt != null) {
-                // No MediaStore album art, try embedded extraction
-                loadEmbeddedAlbumArtForAlbum(firstSongWithArt, album.album.name);
-            } else {
-                android.util.Log.d("AlbumAdapter", "❌ No songs found for album '" + album.album.name + "', using default");
-                com.bumptech.glide.Glide.with(itemView.getContext())
-                        .load(R.drawable.default_album_art)
-                        .into(albumArt);
-            }
-        }
-
-        private void loadAlbumArt(String albumArtUri, LocalSong fallbackSong, String albumName) {
-            com.bumptech.glide.Glide.with(itemView.getContext())
-                    .load(albumArtUri)
-                    .placeholder(R.drawable.default_album_art)
-                    .error(R.drawable.default_album_art)
-                    .listener(new com.bumptech.glide.request.RequestListener<android.graphics.drawable.Drawable>() {
-                        @Override
-                        public boolean onLoadFailed(com.bumptech.glide.load.engine.GlideException e, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, boolean isFirstResource) {
-                            android.util.Log.e("AlbumAdapter", "❌ MediaStore album art failed for album '" + albumName + "', trying embedded extraction");
-                            // Try embedded extraction as fallback
-                            if (fallbackSong != null) {
-                                loadEmbeddedAlbumArtForAlbum(fallbackSong, albumName);
-                            } else {
-                                albumArt.setImageResource(R.drawable.default_album_art);
-                            }
-                            return true; // We handle the error
-                        }
-
-                        @Override
-                        public boolean onResourceReady(android.graphics.drawable.Drawable resource, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, com.bumptech.glide.load.DataSource dataSource, boolean isFirstResource) {
-                            android.util.Log.d("AlbumAdapter", "✅ Successfully loaded MediaStore album art for album '" + albumName + "'");
-                            return false;
-                        }
-                    })
-                    .into(albumArt);
-        }
-
-        private void loadEmbeddedAlbumArtForAlbum(LocalSong song, String albumName) {
-            // Try to extract embedded album art in background thread
-            new Thread(() -> {
-                try {
-                    android.graphics.Bitmap albumArt = com.example.beat.utils.AlbumArtExtractor.extractAlbumArt(
-                        itemView.getContext(), song.getFilePath());
-
-                    // Update UI on main thread
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        if (albumArt != null) {
-                            android.util.Log.d("AlbumAdapter", "✅ Successfully extracted embedded album art for album '" + albumName + "'");
-                            this.albumArt.setImageBitmap(albumArt);
-                        } else {
-                            android.util.Log.d("AlbumAdapter", "❌ No embedded album art found for album '" + albumName + "', using default");
-                            this.albumArt.setImageResource(R.drawable.default_album_art);
-                        }
-                    });
-                } catch (Exception e) {
-                    android.util.Log.e("AlbumAdapter", "Error extracting embedded album art for album '" + albumName + "': " + e.getMessage());
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        this.albumArt.setImageResource(R.drawable.default_album_art);
-                    });
-                }
-            }).start();
+            // MediaStore art with the first song's embedded art as fallback, through Glide;
+            // rebinding replaces the row's previous request
+            com.example.beat.glide.AlbumArtRequests.loadThumbnail(albumArt, albumArtUri,
+                    firstSongWithArt != null ? firstSongWithArt.getFilePath() : null);
         }
     }
 }
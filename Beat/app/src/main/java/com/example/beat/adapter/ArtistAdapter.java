@@ -12,18 +12,18 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.beat.R;
 import com.example.beat.data.entities.Artist;
+import com.example.beat.data.entities.ArtistSummary;
 import com.google.android.material.imageview.ShapeableImageView;
 import android.net.Uri;
 import android.content.SharedPreferences;
 import android.content.Context;
 import android.app.Activity;
 import com.bumptech.glide.Glide;
-import com.example.beat.data.database.AppDatabase;
 import com.example.beat.data.entities.LocalSong;
 import java.util.List;
 
 public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistViewHolder> {
-    private final List<Artist> artists;
+    private List<ArtistSummary> artists;
     private final OnArtistClickListener listener;
     private OnArtistActionListener actionListener;
 
@@ -36,11 +36,16 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
         void onAddArtistToPlaylist(Artist artist);
     }
 
-    public ArtistAdapter(List<Artist> artists, OnArtistClickListener listener) {
+    public ArtistAdapter(List<ArtistSummary> artists, OnArtistClickListener listener) {
         this.artists = artists;
         this.listener = listener;
     }
 
+    public void updateArtists(List<ArtistSummary> artists) {
+        this.artists = artists;
+        notifyDataSetChanged();
+    }
+
     public void setOnArtistActionListener(OnArtistActionListener actionListener) {
         this.actionListener = actionListener;
     }
@@ -55,10 +60,17 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
 
     @Override
     public void onBindViewHolder(@NonNull ArtistViewHolder holder, int position) {
-        Artist artist = artists.get(position);
+        ArtistSummary artist = artists.get(position);
         holder.bind(artist);
     }
 
+    @Override
+    public void onViewRecycled(@NonNull ArtistViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Off screen for good; its art request would only be thrown away
+        com.bumptech.glide.Glide.with(holder.artistArt).clear(holder.artistArt);
+    }
+
     @Override
     public int getItemCount() {
         return artists.size();
@@ -79,7 +91,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION) {
-                    listener.onArtistClick(artists.get(position));
+                    listener.onArtistClick(artists.get(position).artist);
                 }
             });
 
@@ -92,7 +104,8 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
             });
         }
 
-        private void showOptionsMenu(View view, Artist artist, int position) {
+        private void showOptionsMenu(View view, ArtistSummary summary, int position) {
+            Artist artist = summary.artist;
             PopupMenu popup = new PopupMenu(view.getContext(), view);
             popup.getMenuInflater().inflate(R.menu.artist_options_menu, popup.getMenu());
 
@@ -102,7 +115,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
                         showDeleteConfirmation(artist, position);
                     } else {
                         // Show confirmation and actually delete the artist
-                        showActualDeleteConfirmation(artist, position, view);
+                        showActualDeleteConfirmation(summary, view);
                     }
                     return true;
                 } else if (item.getItemId() == R.id.action_add_artist_to_playlist) {
@@ -110,7 +123,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
                         actionListener.onAddArtistToPlaylist(artist);
                     } else {
                         // Show playlist selection dialog for all artist songs
-                        showArtistPlaylistSelectionDialog(artist, view);
+                        showArtistPlaylistSelectionDialog(summary, view);
                     }
                     return true;
                 }
@@ -127,131 +140,126 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
             }
         }
 
-        private void showActualDeleteConfirmation(Artist artist, int position, View view) {
-            // Delete directly without confirmation
-            deleteArtistFromDatabase(artist, position, view);
+        private void showActualDeleteConfirmation(ArtistSummary summary, View view) {
+            new AlertDialog.Builder(view.getContext())
+                .setTitle("Delete Artist")
+                .setMessage("Are you sure you want to delete artist \"" + summary.artist.name + "\" and all their " + summary.trackCount + " songs? This action cannot be undone.")
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    // Actually delete the artist and all their songs from database
+                    deleteArtistFromDatabase(summary, view);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
         }
 
-        private void deleteArtistFromDatabase(Artist artist, int position, View view) {
-            new Thread(() -> {
-                try {
-                    // Get database instance
-                    com.example.beat.data.database.AppDatabase db =
-                        com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Get user ID from SharedPreferences
-                    android.content.SharedPreferences prefs = view.getContext()
-                        .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
-                    int userId = prefs.getInt("userId", -1);
-
-                    if (userId == -1) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("Error")
-                                .setMessage("User not logged in")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
-                        return;
-                    }
-
-                    // Delete all songs by this artist
-                    db.musicDao().deleteArtistSongs(artist.artistId, userId);
+        private void deleteArtistFromDatabase(ArtistSummary summary, View view) {
+            Artist artist = summary.artist;
+            // Get user ID from SharedPreferences
+            android.content.SharedPreferences prefs = view.getContext()
+                .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
+            int userId = prefs.getInt("userId", -1);
 
-                    // Delete the artist itself
-                    db.musicDao().deleteArtist(artist);
+            if (userId == -1) {
+                new AlertDialog.Builder(view.getContext())
+                    .setTitle("Error")
+                    .setMessage("User not logged in")
+                    .setPositiveButton("OK", null)
+                    .show();
+                return;
+            }
 
-                    // Update UI on main thread
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        // Remove from adapter list
+            // Drops the artist's songs from this user's library, then the artist itself
+            com.example.beat.data.MusicRepository.getInstance(view.getContext())
+                .removeArtistFromLibrary(artist, userId, new com.example.beat.data.MusicRepository.Callback<Void>() {
+                    @Override
+                    public void onResult(Void result) {
+                        // Remove from adapter list; the row may have moved while the
+                        // dialog was open
+                        int position = artists.indexOf(summary);
+                        if (position < 0) {
+                            return;
+                        }
                         artists.remove(position);
                         notifyItemRemoved(position);
                         notifyItemRangeChanged(position, artists.size());
-                    });
-                } catch (Exception e) {
-                    // Silent error handling - just log the error
-                    android.util.Log.e("ArtistAdapter", "Error deleting artist: " + e.getMessage());
-                }
-            }).start();
-        }
+                    }
 
-        private void showArtistPlaylistSelectionDialog(Artist artist, View view) {
-            new Thread(() -> {
-                try {
-                    // Get database instance
-                    com.example.beat.data.database.AppDatabase db =
-                        com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Get user ID from SharedPreferences
-                    android.content.SharedPreferences prefs = view.getContext()
-                        .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
-                    int userId = prefs.getInt("userId", -1);
-
-                    if (userId == -1) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("Error")
-                                .setMessage("User not logged in")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
-                        return;
+                    @Override
+                    public void onError(Exception e) {
+                        // Silent error handling - just log the error
+                        android.util.Log.e("ArtistAdapter", "Error deleting artist: " + e.getMessage());
                     }
+                });
+        }
 
-                    // Get artist's songs
-                    java.util.List<com.example.beat.data.entities.LocalSong> artistSongs =
-                        db.musicDao().getSongsByArtistAndUser(artist.artistId, userId);
-
-                    if (artistSongs == null || artistSongs.isEmpty()) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("No Songs")
-                                .setMessage("This artist has no songs to add to playlist.")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
-                        return;
+        private void showArtistPlaylistSelectionDialog(ArtistSummary summary, View view) {
+            Artist artist = summary.artist;
+            com.example.beat.data.MusicRepository repository =
+                com.example.beat.data.MusicRepository.getInstance(view.getContext());
+
+            // Get user ID from SharedPreferences
+            android.content.SharedPreferences prefs = view.getContext()
+                .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
+            int userId = prefs.getInt("userId", -1);
+
+            if (userId == -1) {
+                new AlertDialog.Builder(view.getContext())
+                    .setTitle("Error")
+                    .setMessage("User not logged in")
+                    .setPositiveButton("OK", null)
+                    .show();
+                return;
+            }
+
+            // The row already carries the artist's song count; the songs themselves are
+            // copied by the database once a playlist is picked
+            int songCount = summary.trackCount;
+            if (songCount == 0) {
+                new AlertDialog.Builder(view.getContext())
+                    .setTitle("No Songs")
+                    .setMessage("This artist has no songs to add to playlist.")
+                    .setPositiveButton("OK", null)
+                    .show();
+                return;
+            }
+
+            repository.getPlaylists(userId, new com.example.beat.data.MusicRepository.Callback<java.util.List<com.example.beat.data.entities.Playlist>>() {
+                @Override
+                public void onResult(java.util.List<com.example.beat.data.entities.Playlist> playlists) {
+                    if (playlists.isEmpty()) {
+                        // No playlists exist, offer to create one
+                        showCreatePlaylistForArtistDialog(artist, songCount, view, repository, userId);
+                    } else {
+                        // Show playlist selection dialog
+                        showExistingPlaylistsForArtistDialog(artist, songCount, view, repository, playlists);
                     }
+                }
 
-                    // Get user's playlists
-                    java.util.List<com.example.beat.data.entities.Playlist> playlists =
-                        db.playlistDao().getPlaylistsByUser(userId);
-
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        if (playlists.isEmpty()) {
-                            // No playlists exist, offer to create one
-                            showCreatePlaylistForArtistDialog(artist, artistSongs, view, db, userId);
-                        } else {
-                            // Show playlist selection dialog
-                            showExistingPlaylistsForArtistDialog(artist, artistSongs, view, db, playlists);
-                        }
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to load playlists: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to load playlists: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+            });
         }
 
         private void showCreatePlaylistForArtistDialog(Artist artist,
-                java.util.List<com.example.beat.data.entities.LocalSong> artistSongs, View view,
-                com.example.beat.data.database.AppDatabase db, int userId) {
+                int songCount, View view,
+                com.example.beat.data.MusicRepository repository, int userId) {
             android.widget.EditText editText = new android.widget.EditText(view.getContext());
             editText.setHint("Enter playlist name");
 
             new AlertDialog.Builder(view.getContext())
                 .setTitle("Create New Playlist")
-                .setMessage("You don't have any playlists yet. Create one to add all " + artistSongs.size() + " songs from this artist.")
+                .setMessage("You don't have any playlists yet. Create one to add all " + songCount + " songs from this artist.")
                 .setView(editText)
                 .setPositiveButton("Create", (dialog, which) -> {
                     String playlistName = editText.getText().toString().trim();
                     if (!playlistName.isEmpty()) {
-                        createPlaylistAndAddArtistSongs(artist, artistSongs, playlistName, view, db, userId);
+                        createPlaylistAndAddArtistSongs(artist, songCount, playlistName, view, repository, userId);
                     } else {
                         new AlertDialog.Builder(view.getContext())
                             .setTitle("Error")
@@ -265,8 +273,8 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
         }
 
         private void showExistingPlaylistsForArtistDialog(Artist artist,
-                java.util.List<com.example.beat.data.entities.LocalSong> artistSongs, View view,
-                com.example.beat.data.database.AppDatabase db,
+                int songCount, View view,
+                com.example.beat.data.MusicRepository repository,
                 java.util.List<com.example.beat.data.entities.Playlist> playlists) {
 
             // Get user ID from SharedPreferences
@@ -282,7 +290,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
 
             new AlertDialog.Builder(view.getContext())
                 .setTitle("Add Artist to Playlist")
-                .setMessage("Add all " + artistSongs.size() + " songs from \"" + artist.name + "\" to:")
+                .setMessage("Add all " + songCount + " songs from \"" + artist.name + "\" to:")
                 .setItems(playlistNames, (dialog, which) -> {
                     if (which == playlists.size()) {
                         // Create new playlist option selected
@@ -295,7 +303,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
                             .setPositiveButton("Create", (d, w) -> {
                                 String playlistName = editText.getText().toString().trim();
                                 if (!playlistName.isEmpty()) {
-                                    createPlaylistAndAddArtistSongs(artist, artistSongs, playlistName, view, db, userId);
+                                    createPlaylistAndAddArtistSongs(artist, songCount, playlistName, view, repository, userId);
                                 } else {
                                     new AlertDialog.Builder(view.getContext())
                                         .setTitle("Error")
@@ -309,256 +317,86 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ArtistView
                     } else {
                         // Existing playlist selected
                         com.example.beat.data.entities.Playlist selectedPlaylist = playlists.get(which);
-                        addArtistSongsToExistingPlaylist(artist, artistSongs, selectedPlaylist, view, db);
+                        addArtistSongsToExistingPlaylist(artist, songCount, selectedPlaylist, view, repository, userId);
                     }
                 })
                 .show();
         }
 
         private void createPlaylistAndAddArtistSongs(Artist artist,
-                java.util.List<com.example.beat.data.entities.LocalSong> artistSongs, String playlistName, View view,
-                com.example.beat.data.database.AppDatabase db, int userId) {
-            new Thread(() -> {
-                try {
-                    // Create new playlist
-                    com.example.beat.data.entities.Playlist newPlaylist = new com.example.beat.data.entities.Playlist();
-                    newPlaylist.setName(playlistName);
-                    newPlaylist.setUserId(userId);
-
-                    long playlistId = db.playlistDao().insert(newPlaylist);
-
-                    // Add all artist songs to playlist
-                    int addedCount = 0;
-                    for (com.example.beat.data.entities.LocalSong song : artistSongs) {
-                        com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                        playlistSong.setPlaylistId((int) playlistId);
-                        playlistSong.setSongId(song.getSongId());
-
-                        db.playlistDao().insertPlaylistSong(playlistSong);
-                        addedCount++;
-                    }
-
+                int songCount, String playlistName, View view,
+                com.example.beat.data.MusicRepository repository, int userId) {
+            repository.createPlaylistWithArtist(playlistName, userId, artist.artistId, new com.example.beat.data.MusicRepository.Callback<Long>() {
+                @Override
+                public void onResult(Long playlistId) {
                     // Show success message
-                    final int finalAddedCount = addedCount;
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Success")
-                            .setMessage("Created playlist \"" + playlistName + "\" and added " + finalAddedCount + " songs from artist \"" + artist.name + "\"")
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to create playlist: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Success")
+                        .setMessage("Created playlist \"" + playlistName + "\" and added " + songCount + " songs from artist \"" + artist.name + "\"")
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to create playlist: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
+                }
+            });
         }
 
         private void addArtistSongsToExistingPlaylist(Artist artist,
-                java.util.List<com.example.beat.data.entities.LocalSong> artistSongs,
+                int songCount,
                 com.example.beat.data.entities.Playlist playlist, View view,
-                com.example.beat.data.database.AppDatabase db) {
-            new Thread(() -> {
-                try {
-                    // Get existing songs in playlist
-                    java.util.List<com.example.beat.data.entities.PlaylistSong> existingSongs =
-                        db.playlistDao().getPlaylistSongs(playlist.getPlaylistId());
-
-                    // Create set of existing song IDs for quick lookup
-                    java.util.Set<Integer> existingSongIds = new java.util.HashSet<>();
-                    for (com.example.beat.data.entities.PlaylistSong ps : existingSongs) {
-                        existingSongIds.add(ps.getSongId());
-                    }
-
-                    // Add songs that aren't already in playlist
-                    int addedCount = 0;
-                    int skippedCount = 0;
-                    for (com.example.beat.data.entities.LocalSong song : artistSongs) {
-                        if (!existingSongIds.contains(song.getSongId())) {
-                            com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                            playlistSong.setPlaylistId(playlist.getPlaylistId());
-                            playlistSong.setSongId(song.getSongId());
-
-                            db.playlistDao().insertPlaylistSong(playlistSong);
-                            addedCount++;
-                        } else {
-                            skippedCount++;
-                        }
+                com.example.beat.data.MusicRepository repository, int userId) {
+            // Songs already in the playlist are skipped
+            repository.addArtistToPlaylist(playlist.getPlaylistId(), artist.artistId, userId, new com.example.beat.data.MusicRepository.Callback<Integer>() {
+                @Override
+                public void onResult(Integer addedCount) {
+                    int skippedCount = Math.max(0, songCount - addedCount);
+                    String message;
+                    if (skippedCount == 0) {
+                        message = "Added all " + addedCount + " songs from artist \"" + artist.name + "\" to playlist \"" + playlist.getName() + "\"";
+                    } else if (addedCount == 0) {
+                        message = "All " + skippedCount + " songs from artist \"" + artist.name + "\" are already in playlist \"" + playlist.getName() + "\"";
+                    } else {
+                        message = "Added " + addedCount + " new songs from artist \"" + artist.name + "\" to playlist \"" + playlist.getName() + "\". " + skippedCount + " songs were already in the playlist.";
                     }
 
-                    // Show success message
-                    final int finalAddedCount = addedCount;
-                    final int finalSkippedCount = skippedCount;
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        String message;
-                        if (finalSkippedCount == 0) {
-                            message = "Added all " + finalAddedCount + " songs from artist \"" + artist.name + "\" to playlist \"" + playlist.getName() + "\"";
-                        } else if (finalAddedCount == 0) {
-                            message = "All " + finalSkippedCount + " songs from artist \"" + artist.name + "\" are already in playlist \"" + playlist.getName() + "\"";
-                        } else {
-                            message = "Added " + finalAddedCount + " new songs from artist \"" + artist.name + "\" to playlist \"" + playlist.getName() + "\". " + finalSkippedCount + " songs were already in the playlist.";
-                        }
-
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Success")
-                            .setMessage(message)
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to add artist songs to playlist: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Success")
+                        .setMessage(message)
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
-        }
-
-        public void bind(Artist artist) {
-            if (artist != null) {
-                artistName.setText(artist.name);
-                songCount.setText(String.format("%d songs", artist.songCount));
-            }
-
-            // Load album art from first song of this artist, or use default
-            loadArtistAlbumArt(artist);
-        }
 
-        private void loadArtistAlbumArt(Artist artist) {
-            if (artist == null) {
-                artistArt.setImageResource(R.drawable.default_artist);
-                return;
-            }
-
-            // Get album art from first song of this artist in background thread
-            new Thread(() -> {
-                try {
-                    com.example.beat.data.database.AppDatabase database =
-                        com.example.beat.data.database.AppDatabase.getInstance(itemView.getContext());
-
-                    // Get user ID from SharedPreferences
-                    android.content.SharedPreferences prefs = itemView.getContext()
-                        .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
-                    int userId = prefs.getInt("userId", -1);
-
-                    if (userId == -1) {
-                        // Fallback to default if no user ID
-                        ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                            artistArt.setImageResource(R.drawable.default_artist);
-                        });
-                        return;
-                    }
-
-                    // Get first song for this artist and try multiple album art methods
-                    java.util.List<com.example.beat.data.entities.LocalSong> artistSongs =
-                        database.musicDao().getSongsByArtistAndUser(artist.artistId, userId);
-
-                    String albumArtUri = null;
-                    com.example.beat.data.entities.LocalSong firstSongWithArt = null;
-
-                    if (artistSongs != null && !artistSongs.isEmpty()) {
-                        // First, try to find a song with MediaStore album art
-                        for (com.example.beat.data.entities.LocalSong song : artistSongs) {
-                            if (song.getAlbumArtUri() != null && !song.getAlbumArtUri().isEmpty()
-                                && !song.getAlbumArtUri().startsWith("file://")) {
-                                albumArtUri = song.getAlbumArtUri();
-                                android.util.Log.d("ArtistAdapter", "✅ Found MediaStore album art for artist '" + artist.name + "': " + albumArtUri);
-                                break;
-                            }
-                        }
-
-                        // If no MediaStore album art found, try embedded extraction from first song
-                        if (albumArtUri == null && !artistSongs.isEmpty()) {
-                            firstSongWithArt = artistSongs.get(0); // Use first song for embedded extraction
-                            android.util.Log.d("ArtistAdapter", "🔄 No MediaStore album art for artist '" + artist.name + "', trying embedded extraction from: " + firstSongWithArt.getTitle());
-                        }
-                    }
-
-                    // Update UI on main thread
-                    final String finalAlbumArtUri = albumArtUri;
-                    final com.example.beat.data.entities.LocalSong finalFirstSong = firstSongWithArt;
-
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        if (finalAlbumArtUri != null && !finalAlbumArtUri.isEmpty()) {
-                            // Load MediaStore album art
-                            loadArtistAlbumArt(finalAlbumArtUri, finalFirstSong, artist.name);
-                        } else if (finalFirstSong != null) {
-                            // No MediaStore album art, try embedded extraction
-                            loadEmbeddedAlbumArtForArtist(finalFirstSong, artist.name);
-                        } else {
-                            android.util.Log.d("ArtistAdapter", "❌ No songs found for artist '" + artist.name + "', using default");
-                            artistArt.setImageResource(R.drawable.default_album_art);
-                        }
-                    });
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    // Fallback to default on error
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        artistArt.setImageResource(R.drawable.default_album_art);
-                    });
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to add artist songs to playlist: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+            });
         }
 
-        private void loadArtistAlbumArt(String albumArtUri, com.example.beat.data.entities.LocalSong fallbackSong, String artistName) {
-            com.bumptech.glide.Glide.with(itemView.getContext())
-                    .load(albumArtUri)
-                    .placeholder(R.drawable.default_album_art)
-                    .error(R.drawable.default_album_art)
-                    .listener(new com.bumptech.glide.request.RequestListener<android.graphics.drawable.Drawable>() {
-                        @Override
-                        public boolean onLoadFailed(com.bumptech.glide.load.engine.GlideException e, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, boolean isFirstResource) {
-                            android.util.Log.e("ArtistAdapter", "❌ MediaStore album art failed for artist '" + artistName + "', trying embedded extraction");
-                            // Try embedded extraction as fallback
-                            if (fallbackSong != null) {
-                                loadEmbeddedAlbumArtForArtist(fallbackSong, artistName);
-                            } else {
-                                artistArt.setImageResource(R.drawable.default_album_art);
-                            }
-                            return true; // We handle the error
-                        }
+        public void bind(ArtistSummary artist) {
+            artistName.setText(artist.artist.name);
+            long minutes = artist.totalDuration / 60000;
+            songCount.setText(String.format("%d songs \u2022 %d min", artist.trackCount, minutes));
 
-                        @Override
-                        public boolean onResourceReady(android.graphics.drawable.Drawable resource, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, com.bumptech.glide.load.DataSource dataSource, boolean isFirstResource) {
-                            android.util.Log.d("ArtistAdapter", "✅ Successfully loaded MediaStore album art for artist '" + artistName + "'");
-                            return false;
-                        }
-                    })
-                    .into(artistArt);
+            // Cover comes with the row, so binding never touches the database
+            loadArtistAlbumArt(artist);
         }
 
-        private void loadEmbeddedAlbumArtForArtist(com.example.beat.data.entities.LocalSong song, String artistName) {
-            // Try to extract embedded album art in background thread
-            new Thread(() -> {
-                try {
-                    android.graphics.Bitmap albumArt = com.example.beat.utils.AlbumArtExtractor.extractAlbumArt(
-                        itemView.getContext(), song.getFilePath());
-
-                    // Update UI on main thread
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        if (albumArt != null) {
-                            android.util.Log.d("ArtistAdapter", "✅ Successfully extracted embedded album art for artist '" + artistName + "'");
-                            artistArt.setImageBitmap(albumArt);
-                        } else {
-                            android.util.Log.d("ArtistAdapter", "❌ No embedded album art found for artist '" + artistName + "', using default");
-                            artistArt.setImageResource(R.drawable.default_album_art);
-                        }
-                    });
-                } catch (Exception e) {
-                    android.util.Log.e("ArtistAdapter", "Error extracting embedded album art for artist '" + artistName + "': " + e.getMessage());
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        artistArt.setImageResource(R.drawable.default_album_art);
-                    });
-                }
-            }).start();
+        private void loadArtistAlbumArt(ArtistSummary artist) {
+            // MediaStore art with embedded art of one of the songs as fallback, through
+            // Glide; rebinding replaces the row's previous request
+            com.example.beat.glide.AlbumArtRequests.loadThumbnail(artistArt, artist.artUri, artist.artFilePath);
         }
     }
 }
@@ -109,28 +109,23 @@ public class PlaylistAdapter extends RecyclerView.Adapter<PlaylistAdapter.Playli
         }
 
         private void deletePlaylist(PlaylistWithSongs playlist, int position, View view) {
-            new Thread(() -> {
-                try {
-                    com.example.beat.data.database.AppDatabase db = com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Delete all playlist songs first (foreign key constraint)
-                    db.playlistDao().deletePlaylistSongs(playlist.playlist.getPlaylistId());
-
-                    // Delete the playlist
-                    db.playlistDao().delete(playlist.playlist);
-
-                    // Update UI on main thread
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
+            // Deletes the playlist's songs and the playlist in one transaction
+            com.example.beat.data.MusicRepository.getInstance(view.getContext())
+                .deletePlaylist(playlist.playlist, new com.example.beat.data.MusicRepository.Callback<Void>() {
+                    @Override
+                    public void onResult(Void result) {
                         // Remove from list and notify adapter
                         adapter.playlists.remove(position);
                         adapter.notifyItemRemoved(position);
                         adapter.notifyItemRangeChanged(position, adapter.playlists.size());
-                    });
-                } catch (Exception e) {
-                    // Silent error handling - just log the error
-                    android.util.Log.e("PlaylistAdapter", "Error deleting playlist: " + e.getMessage());
-                }
-            }).start();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Silent error handling - just log the error
+                        android.util.Log.e("PlaylistAdapter", "Error deleting playlist: " + e.getMessage());
+                    }
+                });
         }
     }
 }
@@ -11,6 +11,8 @@ import android.widget.PopupMenu;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
@@ -28,14 +30,33 @@ import com.example.beat.ui.LocalMusicPlayerActivity;
 import com.google.android.material.imageview.ShapeableImageView;
 import com.bumptech.glide.Glide;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
+
+/**
+ * Song rows fed from PagingData: a paged query for long lists, or PagingData.from(list)
+ * for lists already in memory such as a playlist.
+ */
+public class SongAdapter extends PagingDataAdapter<LocalSong, SongAdapter.SongViewHolder> {
+    private static final DiffUtil.ItemCallback<LocalSong> DIFF = new DiffUtil.ItemCallback<LocalSong>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull LocalSong oldSong, @NonNull LocalSong newSong) {
+            return oldSong.getSongId() == newSong.getSongId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull LocalSong oldSong, @NonNull LocalSong newSong) {
+            return Objects.equals(oldSong.getTitle(), newSong.getTitle())
+                    && Objects.equals(oldSong.getArtistId(), newSong.getArtistId())
+                    && Objects.equals(oldSong.getAlbumArtUri(), newSong.getAlbumArtUri())
+                    && Objects.equals(oldSong.getFilePath(), newSong.getFilePath());
+        }
+    };
 
-public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder> {
-    private List<LocalSong> songs;
     private String contextType = "LOCAL_SONGS"; // Default context
     private int contextId = -1; // For artist ID, playlist ID, etc.
     private OnSongActionListener actionListener;
+    // Lists not backed by a paged query don't reload on their own after a delete
+    private Runnable onSongRemovedListener;
 
     public interface OnSongActionListener {
         void onDeleteSong(LocalSong song, int position);
@@ -43,34 +64,23 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
     }
 
     public SongAdapter() {
-        this.songs = new ArrayList<>();
+        super(DIFF);
     }
 
-    public SongAdapter(List<LocalSong> songs) {
-        this.songs = songs != null ? new ArrayList<>(songs) : new ArrayList<>();
-    }
-
-    public SongAdapter(List<LocalSong> songs, String contextType) {
-        this.songs = songs != null ? new ArrayList<>(songs) : new ArrayList<>();
-        this.contextType = contextType;
-    }
-
-    public SongAdapter(List<LocalSong> songs, String contextType, int contextId) {
-        this.songs = songs != null ? new ArrayList<>(songs) : new ArrayList<>();
+    public SongAdapter(String contextType, int contextId) {
+        super(DIFF);
         this.contextType = contextType;
         this.contextId = contextId;
     }
 
-    public void updateSongs(List<LocalSong> newSongs) {
-        this.songs.clear();
-        this.songs.addAll(newSongs);
-        notifyDataSetChanged();
-    }
-
     public void setOnSongActionListener(OnSongActionListener actionListener) {
         this.actionListener = actionListener;
     }
 
+    public void setOnSongRemovedListener(Runnable onSongRemovedListener) {
+        this.onSongRemovedListener = onSongRemovedListener;
+    }
+
     @NonNull
     @Override
     public SongViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -81,13 +91,17 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull SongViewHolder holder, int position) {
-        LocalSong song = songs.get(position);
-        holder.bind(song);
+        LocalSong song = getItem(position);
+        if (song != null) {
+            holder.bind(song);
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return songs.size();
+    public void onViewRecycled(@NonNull SongViewHolder holder) {
+        super.onViewRecycled(holder);
+        // Off screen for good; its art request would only be thrown away
+        com.bumptech.glide.Glide.with(holder.songArt).clear(holder.songArt);
     }
 
     class SongViewHolder extends RecyclerView.ViewHolder {
@@ -104,8 +118,8 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
             btnOptions = itemView.findViewById(R.id.btn_options);
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION) {
-                    LocalSong clickedSong = songs.get(position);
+                LocalSong clickedSong = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+                if (clickedSong != null) {
                     // Use PlayerActivityWithService for background playback
                     Intent intent = new Intent(itemView.getContext(), com.example.beat.ui.PlayerActivityWithService.class);
                     intent.putExtra("title", clickedSong.getTitle());
@@ -113,9 +127,9 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
                     intent.putExtra("albumArtUrl", clickedSong.getAlbumArtUri() != null ? clickedSong.getAlbumArtUri() : "");
                     intent.putExtra("streamUrl", clickedSong.getFilePath()); // Use file path for local songs
 
-                    // Pass context information to load the correct playlist
-                    intent.putExtra("POSITION", position);
-                    intent.putExtra("TOTAL_SONGS", songs.size());
+                    // Pass context information to load the correct playlist. The adapter only
+                    // holds loaded pages, so the player finds the song's index by id.
+                    intent.putExtra("SONG_ID", clickedSong.getSongId());
                     intent.putExtra("CONTEXT_TYPE", contextType);
                     if (contextId != -1) {
                         intent.putExtra("CONTEXT_ID", contextId);
@@ -128,8 +142,9 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
             // Set up option menu click listener
             btnOptions.setOnClickListener(v -> {
                 int position = getAdapterPosition();
-                if (position != RecyclerView.NO_POSITION) {
-                    showOptionsMenu(v, songs.get(position), position);
+                LocalSong song = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+                if (song != null) {
+                    showOptionsMenu(v, song, position);
                 }
             });
         }
@@ -175,79 +190,72 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
         }
 
         private void deleteSongFromDatabase(LocalSong song, int position, View view) {
-            new Thread(() -> {
-                try {
-                    // Get database instance
-                    com.example.beat.data.database.AppDatabase db =
-                        com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Delete the song
-                    db.musicDao().deleteSong(song);
-
-                    // Update UI on main thread
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        // Remove from adapter list
-                        songs.remove(position);
-                        notifyItemRemoved(position);
-                        notifyItemRangeChanged(position, songs.size());
-                    });
-                } catch (Exception e) {
-                    // Silent error handling - just log the error
-                    android.util.Log.e("SongAdapter", "Error deleting song: " + e.getMessage());
-                }
-            }).start();
+            // Remove the song from this user's library; the catalog row is shared
+            int userId = view.getContext()
+                .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE)
+                .getInt("userId", -1);
+            com.example.beat.data.MusicRepository.getInstance(view.getContext())
+                .removeSongFromLibrary(song.getSongId(), userId, new com.example.beat.data.MusicRepository.Callback<Void>() {
+                    @Override
+                    public void onResult(Void result) {
+                        // Paged lists drop the row when the query reloads
+                        if (onSongRemovedListener != null) {
+                            onSongRemovedListener.run();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Silent error handling - just log the error
+                        android.util.Log.e("SongAdapter", "Error deleting song: " + e.getMessage());
+                    }
+                });
         }
 
         private void showPlaylistSelectionDialog(LocalSong song, View view) {
-            new Thread(() -> {
-                try {
-                    // Get database instance
-                    com.example.beat.data.database.AppDatabase db =
-                        com.example.beat.data.database.AppDatabase.getInstance(view.getContext());
-
-                    // Get user ID from SharedPreferences
-                    android.content.SharedPreferences prefs = view.getContext()
-                        .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
-                    int userId = prefs.getInt("userId", -1);
-
-                    if (userId == -1) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("Error")
-                                .setMessage("User not logged in")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
-                        return;
+            com.example.beat.data.MusicRepository repository =
+                com.example.beat.data.MusicRepository.getInstance(view.getContext());
+
+            // Get user ID from SharedPreferences
+            android.content.SharedPreferences prefs = view.getContext()
+                .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
+            int userId = prefs.getInt("userId", -1);
+
+            if (userId == -1) {
+                new AlertDialog.Builder(view.getContext())
+                    .setTitle("Error")
+                    .setMessage("User not logged in")
+                    .setPositiveButton("OK", null)
+                    .show();
+                return;
+            }
+
+            // Get user's playlists
+            repository.getPlaylists(userId, new com.example.beat.data.MusicRepository.Callback<java.util.List<com.example.beat.data.entities.Playlist>>() {
+                @Override
+                public void onResult(java.util.List<com.example.beat.data.entities.Playlist> playlists) {
+                    if (playlists.isEmpty()) {
+                        // No playlists exist, offer to create one
+                        showCreatePlaylistDialog(song, view, repository, userId);
+                    } else {
+                        // Show playlist selection dialog
+                        showExistingPlaylistsDialog(song, view, repository, playlists);
                     }
+                }
 
-                    // Get user's playlists
-                    java.util.List<com.example.beat.data.entities.Playlist> playlists =
-                        db.playlistDao().getPlaylistsByUser(userId);
-
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        if (playlists.isEmpty()) {
-                            // No playlists exist, offer to create one
-                            showCreatePlaylistDialog(song, view, db, userId);
-                        } else {
-                            // Show playlist selection dialog
-                            showExistingPlaylistsDialog(song, view, db, playlists);
-                        }
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to load playlists: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to load playlists: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+            });
         }
 
         private void showCreatePlaylistDialog(LocalSong song, View view,
-                com.example.beat.data.database.AppDatabase db, int userId) {
+                com.example.beat.data.MusicRepository repository, int userId) {
             android.widget.EditText editText = new android.widget.EditText(view.getContext());
             editText.setHint("Enter playlist name");
 
@@ -258,7 +266,7 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
                 .setPositiveButton("Create", (dialog, which) -> {
                     String playlistName = editText.getText().toString().trim();
                     if (!playlistName.isEmpty()) {
-                        createPlaylistAndAddSong(song, playlistName, view, db, userId);
+                        createPlaylistAndAddSong(song, playlistName, view, repository, userId);
                     } else {
                         new AlertDialog.Builder(view.getContext())
                             .setTitle("Error")
@@ -272,7 +280,7 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
         }
 
         private void showExistingPlaylistsDialog(LocalSong song, View view,
-                com.example.beat.data.database.AppDatabase db,
+                com.example.beat.data.MusicRepository repository,
                 java.util.List<com.example.beat.data.entities.Playlist> playlists) {
 
             String[] playlistNames = new String[playlists.size() + 1];
@@ -298,7 +306,7 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
                                     android.content.SharedPreferences prefs = view.getContext()
                                         .getSharedPreferences("UserPrefs", android.content.Context.MODE_PRIVATE);
                                     int userId = prefs.getInt("userId", -1);
-                                    createPlaylistAndAddSong(song, playlistName, view, db, userId);
+                                    createPlaylistAndAddSong(song, playlistName, view, repository, userId);
                                 } else {
                                     new AlertDialog.Builder(view.getContext())
                                         .setTitle("Error")
@@ -312,103 +320,70 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
                     } else {
                         // Existing playlist selected
                         com.example.beat.data.entities.Playlist selectedPlaylist = playlists.get(which);
-                        addSongToExistingPlaylist(song, selectedPlaylist, view, db);
+                        addSongToExistingPlaylist(song, selectedPlaylist, view, repository);
                     }
                 })
                 .show();
         }
 
         private void createPlaylistAndAddSong(LocalSong song, String playlistName, View view,
-                com.example.beat.data.database.AppDatabase db, int userId) {
-            new Thread(() -> {
-                try {
-                    // Create new playlist
-                    com.example.beat.data.entities.Playlist newPlaylist = new com.example.beat.data.entities.Playlist();
-                    newPlaylist.setName(playlistName);
-                    newPlaylist.setUserId(userId);
-
-                    long playlistId = db.playlistDao().insert(newPlaylist);
-
-                    // Add song to playlist
-                    com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                    playlistSong.setPlaylistId((int) playlistId);
-                    playlistSong.setSongId(song.getSongId());
-
-                    db.playlistDao().insertPlaylistSong(playlistSong);
-
+                com.example.beat.data.MusicRepository repository, int userId) {
+            java.util.List<Integer> songIds = java.util.Collections.singletonList(song.getSongId());
+            repository.createPlaylistWithSongs(playlistName, userId, songIds, new com.example.beat.data.MusicRepository.Callback<Long>() {
+                @Override
+                public void onResult(Long playlistId) {
                     // Show success message
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Success")
-                            .setMessage("Created playlist \"" + playlistName + "\" and added \"" + song.getTitle() + "\"")
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to create playlist: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Success")
+                        .setMessage("Created playlist \"" + playlistName + "\" and added \"" + song.getTitle() + "\"")
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to create playlist: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
+                }
+            });
         }
 
         private void addSongToExistingPlaylist(LocalSong song,
                 com.example.beat.data.entities.Playlist playlist, View view,
-                com.example.beat.data.database.AppDatabase db) {
-            new Thread(() -> {
-                try {
-                    // Check if song is already in playlist
-                    java.util.List<com.example.beat.data.entities.PlaylistSong> existingSongs =
-                        db.playlistDao().getPlaylistSongs(playlist.getPlaylistId());
-
-                    boolean songExists = false;
-                    for (com.example.beat.data.entities.PlaylistSong ps : existingSongs) {
-                        if (ps.getSongId() == song.getSongId()) {
-                            songExists = true;
-                            break;
-                        }
-                    }
-
-                    if (songExists) {
-                        ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                            new AlertDialog.Builder(view.getContext())
-                                .setTitle("Already Added")
-                                .setMessage("\"" + song.getTitle() + "\" is already in playlist \"" + playlist.getName() + "\"")
-                                .setPositiveButton("OK", null)
-                                .show();
-                        });
+                com.example.beat.data.MusicRepository repository) {
+            java.util.List<Integer> songIds = java.util.Collections.singletonList(song.getSongId());
+            repository.addSongsToPlaylist(playlist.getPlaylistId(), songIds, new com.example.beat.data.MusicRepository.Callback<Integer>() {
+                @Override
+                public void onResult(Integer added) {
+                    if (added == 0) {
+                        new AlertDialog.Builder(view.getContext())
+                            .setTitle("Already Added")
+                            .setMessage("\"" + song.getTitle() + "\" is already in playlist \"" + playlist.getName() + "\"")
+                            .setPositiveButton("OK", null)
+                            .show();
                         return;
                     }
 
-                    // Add song to playlist
-                    com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                    playlistSong.setPlaylistId(playlist.getPlaylistId());
-                    playlistSong.setSongId(song.getSongId());
-
-                    db.playlistDao().insertPlaylistSong(playlistSong);
-
                     // Show success message
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Success")
-                            .setMessage("Added \"" + song.getTitle() + "\" to playlist \"" + playlist.getName() + "\"")
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
-                } catch (Exception e) {
-                    ((android.app.Activity) view.getContext()).runOnUiThread(() -> {
-                        new AlertDialog.Builder(view.getContext())
-                            .setTitle("Error")
-                            .setMessage("Failed to add song to playlist: " + e.getMessage())
-                            .setPositiveButton("OK", null)
-                            .show();
-                    });
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Success")
+                        .setMessage("Added \"" + song.getTitle() + "\" to playlist \"" + playlist.getName() + "\"")
+                        .setPositiveButton("OK", null)
+                        .show();
                 }
-            }).start();
+
+                @Override
+                public void onError(Exception e) {
+                    new AlertDialog.Builder(view.getContext())
+                        .setTitle("Error")
+                        .setMessage("Failed to add song to playlist: " + e.getMessage())
+                        .setPositiveButton("OK", null)
+                        .show();
+                }
+            });
         }
 
         public void bind(LocalSong song) {
@@ -419,92 +394,9 @@ public class SongAdapter extends RecyclerView.Adapter<SongAdapter.SongViewHolder
                 songArtist.setText("No Artist");
             }
             
-            // Load album art with fallback logic (like AlbumAdapter)
-            String albumArtUri = song.getAlbumArtUri();
-            android.util.Log.d("SongAdapter", "🔍 Song: '" + song.getTitle() + "', AlbumArtUri: '" + albumArtUri + "'");
-
-            // Test URI accessibility for debugging
-            if (albumArtUri != null && !albumArtUri.isEmpty() && !albumArtUri.startsWith("file://")) {
-                testUriAccessibility(albumArtUri, song.getTitle());
-            }
-
-            if (albumArtUri != null && !albumArtUri.isEmpty()) {
-                if (albumArtUri.startsWith("file://")) {
-                    // File-based URI - try embedded art extraction
-                    android.util.Log.d("SongAdapter", "🔄 Extracting embedded album art for: " + song.getTitle());
-                    loadEmbeddedAlbumArt(song, songArt);
-                } else {
-                    // MediaStore URI - use Glide with fallback to embedded extraction
-                    android.util.Log.d("SongAdapter", "✅ Loading MediaStore album art for: " + song.getTitle());
-                    com.bumptech.glide.Glide.with(itemView.getContext())
-                            .load(albumArtUri)
-                            .placeholder(R.drawable.default_album_art)
-                            .error(R.drawable.default_album_art)
-                            .listener(new com.bumptech.glide.request.RequestListener<android.graphics.drawable.Drawable>() {
-                                @Override
-                                public boolean onLoadFailed(com.bumptech.glide.load.engine.GlideException e, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, boolean isFirstResource) {
-                                    android.util.Log.e("SongAdapter", "❌ MediaStore album art failed for '" + song.getTitle() + "', trying embedded extraction");
-                                    // Try embedded extraction as fallback
-                                    loadEmbeddedAlbumArt(song, songArt);
-                                    return true; // We handle the error
-                                }
-
-                                @Override
-                                public boolean onResourceReady(android.graphics.drawable.Drawable resource, Object model, com.bumptech.glide.request.target.Target<android.graphics.drawable.Drawable> target, com.bumptech.glide.load.DataSource dataSource, boolean isFirstResource) {
-                                    android.util.Log.d("SongAdapter", "✅ Successfully loaded MediaStore album art for '" + song.getTitle() + "'");
-                                    return false;
-                                }
-                            })
-                            .into(songArt);
-                }
-            } else {
-                android.util.Log.d("SongAdapter", "❌ No album art URI for '" + song.getTitle() + "', trying embedded extraction");
-                // No URI available, try embedded extraction as last resort
-                loadEmbeddedAlbumArt(song, songArt);
-            }
+            // MediaStore, file:// or embedded art, through Glide; rebinding replaces the
+            // row's previous request
+            com.example.beat.glide.AlbumArtRequests.loadThumbnail(songArt, song.getAlbumArtUri(), song.getFilePath());
         }
-
-        private void loadEmbeddedAlbumArt(LocalSong song, android.widget.ImageView songArt) {
-            // Try to extract embedded album art in background thread
-            new Thread(() -> {
-                try {
-                    android.graphics.Bitmap albumArt = com.example.beat.utils.AlbumArtExtractor.extractAlbumArt(
-                        itemView.getContext(), song.getFilePath());
-
-                    // Update UI on main thread
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        if (albumArt != null) {
-                            android.util.Log.d("SongAdapter", "✅ Successfully extracted embedded album art for '" + song.getTitle() + "'");
-                            songArt.setImageBitmap(albumArt);
-                        } else {
-                            android.util.Log.d("SongAdapter", "❌ No embedded album art found for '" + song.getTitle() + "', using default");
-                            songArt.setImageResource(R.drawable.default_album_art);
-                        }
-                    });
-                } catch (Exception e) {
-                    android.util.Log.e("SongAdapter", "Error extracting embedded album art for '" + song.getTitle() + "': " + e.getMessage());
-                    ((android.app.Activity) itemView.getContext()).runOnUiThread(() -> {
-                        songArt.setImageResource(R.drawable.default_album_art);
-                    });
-                }
-            }).start();
-        }
-
-        private void testUriAccessibility(String uri, String songTitle) {
-            new Thread(() -> {
-                try {
-                    java.io.InputStream inputStream = itemView.getContext().getContentResolver().openInputStream(android.net.Uri.parse(uri));
-                    if (inputStream != null) {
-                        inputStream.close();
-                        android.util.Log.d("SongAdapter", "✅ URI accessible for '" + songTitle + "': " + uri);
-                    } else {
-                        android.util.Log.e("SongAdapter", "❌ URI not accessible (null stream) for '" + songTitle + "': " + uri);
-                    }
-                } catch (Exception e) {
-                    android.util.Log.e("SongAdapter", "❌ URI test failed for '" + songTitle + "': " + uri + " - " + e.getMessage());
-                }
-            }).start();
-        }
-
     }
 }
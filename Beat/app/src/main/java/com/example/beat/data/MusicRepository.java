@@ -0,0 +1,362 @@
+package com.example.beat.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.dao.PlaylistDao;
+import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.entities.Album;
+import com.example.beat.data.entities.AlbumWithSongs;
+import com.example.beat.data.entities.Artist;
+import com.example.beat.data.entities.ArtistSummary;
+import com.example.beat.data.entities.LocalSong;
+import com.example.beat.data.entities.Playlist;
+import com.example.beat.data.entities.PlaylistWithSongs;
+import com.example.beat.data.entities.SearchResult;
+import com.example.beat.data.entities.SongTotals;
+import com.example.beat.data.entities.User;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The way UI code reaches the database. Nothing here runs on the calling thread: reads go
+ * to a small pool so a slow query doesn't hold up the others, writes go through a single
+ * thread so they never interleave, and results come back on the main thread.
+ *
+ * The library scanner is not routed through here; it writes from the library sync
+ * executor in {@link com.example.beat.scanner.MediaLibraryObserver}.
+ */
+public class MusicRepository {
+    private static final String TAG = "MusicRepository";
+    private static final int READ_THREADS = 3;
+    // Enough hits to fill the filtered lists; nobody scrolls past that in a search
+    private static final int SEARCH_LIMIT = 500;
+    // Song lists load this many rows at a time, and three times as many on first show
+    private static final int PAGE_SIZE = 50;
+
+    private static volatile MusicRepository instance;
+
+    public interface Callback<T> {
+        void onResult(T result);
+
+        default void onError(Exception e) {
+            Log.e(TAG, "Database operation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private final AppDatabase database;
+    private final MusicDao musicDao;
+    private final PlaylistDao playlistDao;
+    private final ExecutorService readExecutor = Executors.newFixedThreadPool(READ_THREADS);
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private MusicRepository(Context context) {
+        database = AppDatabase.getInstance(context);
+        musicDao = database.musicDao();
+        playlistDao = database.playlistDao();
+    }
+
+    public static MusicRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (MusicRepository.class) {
+                if (instance == null) {
+                    instance = new MusicRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Users
+
+    public void getUserByCredentials(String email, String password, Callback<User> callback) {
+        read(() -> musicDao.getUserByEmailAndPassword(email, password), callback);
+    }
+
+    /**
+     * @return the new user's id through the callback, or -1 if the email is already taken
+     */
+    public void registerUser(User user, Callback<Long> callback) {
+        write(() -> {
+            // Check and insert on the write thread so two sign-ups can't both pass the check
+            if (musicDao.getUserByEmail(user.email) != null) {
+                return -1L;
+            }
+            return musicDao.insertUser(user);
+        }, callback);
+    }
+
+    // Library
+
+    /**
+     * The user's songs by title, loaded a page at a time as the list scrolls. Reloads
+     * around the visible rows when the library changes.
+     */
+    public LiveData<PagingData<LocalSong>> pageSongsByUser(int userId) {
+        return pageSongs(new SongPagingSource.PageQuery() {
+            @Override
+            public List<LocalSong> after(String title, int songId, int limit) {
+                return musicDao.getUserSongsAfter(userId, title, songId, limit);
+            }
+
+            @Override
+            public List<LocalSong> before(String title, int songId, int limit) {
+                return musicDao.getUserSongsBefore(userId, title, songId, limit);
+            }
+        });
+    }
+
+    public LiveData<PagingData<LocalSong>> pageSongsByArtist(int artistId, int userId) {
+        return pageSongs(new SongPagingSource.PageQuery() {
+            @Override
+            public List<LocalSong> after(String title, int songId, int limit) {
+                return musicDao.getArtistSongsAfter(artistId, userId, title, songId, limit);
+            }
+
+            @Override
+            public List<LocalSong> before(String title, int songId, int limit) {
+                return musicDao.getArtistSongsBefore(artistId, userId, title, songId, limit);
+            }
+        });
+    }
+
+    /**
+     * Songs of the album and of every album sharing its name, as the album list shows them.
+     */
+    public LiveData<PagingData<LocalSong>> pageSongsByAlbum(int albumId, int userId) {
+        return pageSongs(new SongPagingSource.PageQuery() {
+            @Override
+            public List<LocalSong> after(String title, int songId, int limit) {
+                return musicDao.getAlbumSongsAfter(albumId, userId, title, songId, limit);
+            }
+
+            @Override
+            public List<LocalSong> before(String title, int songId, int limit) {
+                return musicDao.getAlbumSongsBefore(albumId, userId, title, songId, limit);
+            }
+        });
+    }
+
+    private LiveData<PagingData<LocalSong>> pageSongs(SongPagingSource.PageQuery query) {
+        PagingConfig config = new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 3);
+        return PagingLiveData.getLiveData(new Pager<>(config,
+                () -> new SongPagingSource(database, readExecutor, query)));
+    }
+
+    public void getSongsByUser(int userId, Callback<List<LocalSong>> callback) {
+        read(() -> musicDao.getSongsByUser(userId), callback);
+    }
+
+    public void getAlbumsWithSongs(int userId, Callback<List<AlbumWithSongs>> callback) {
+        read(() -> musicDao.getAlbumsWithSongsForUser(userId), callback);
+    }
+
+    public void getSongsByAlbum(int albumId, int userId, Callback<List<LocalSong>> callback) {
+        read(() -> musicDao.getSongsByAlbumAndUser(albumId, userId), callback);
+    }
+
+    /**
+     * Song count and play time of the album and every album sharing its name.
+     */
+    public void getAlbumTotals(int albumId, int userId, Callback<SongTotals> callback) {
+        read(() -> musicDao.getAlbumTotals(albumId, userId), callback);
+    }
+
+    public void getArtistSummaries(int userId, Callback<List<ArtistSummary>> callback) {
+        read(() -> musicDao.getArtistSummariesForUser(userId), callback);
+    }
+
+    public void getSongsByArtist(int artistId, int userId, Callback<List<LocalSong>> callback) {
+        read(() -> musicDao.getSongsByArtistAndUser(artistId, userId), callback);
+    }
+
+    public void getArtistTotals(int artistId, int userId, Callback<SongTotals> callback) {
+        read(() -> musicDao.getArtistTotals(artistId, userId), callback);
+    }
+
+    public void getSongByFilePath(String filePath, Callback<LocalSong> callback) {
+        read(() -> musicDao.getSongByFilePath(filePath), callback);
+    }
+
+    /**
+     * Full-text search of the user's library; words match as prefixes.
+     *
+     * @param kind one of the SearchResult KIND_ constants, or -1 for songs, artists and albums
+     */
+    public void search(String text, int userId, int kind, Callback<List<SearchResult>> callback) {
+        read(() -> musicDao.searchLibrary(text, userId, kind, SEARCH_LIMIT), callback);
+    }
+
+    public void searchSongs(String text, int userId, Callback<List<LocalSong>> callback) {
+        read(() -> musicDao.searchSongs(text, userId, SEARCH_LIMIT), callback);
+    }
+
+    public void removeSongFromLibrary(int songId, int userId, Callback<Void> callback) {
+        write(() -> {
+            musicDao.deleteSongByIdAndUser(songId, userId);
+            return null;
+        }, callback);
+    }
+
+    public void removeAlbumFromLibrary(Album album, int userId, Callback<Void> callback) {
+        write(() -> {
+            database.runInTransaction(() -> {
+                musicDao.deleteAlbumSongs(album.albumId, userId);
+                musicDao.deleteAlbum(album);
+            });
+            return null;
+        }, callback);
+    }
+
+    public void removeArtistFromLibrary(Artist artist, int userId, Callback<Void> callback) {
+        write(() -> {
+            database.runInTransaction(() -> {
+                musicDao.deleteArtistSongs(artist.artistId, userId);
+                musicDao.deleteArtist(artist);
+            });
+            return null;
+        }, callback);
+    }
+
+    // Playlists
+
+    public void getPlaylists(int userId, Callback<List<Playlist>> callback) {
+        read(() -> playlistDao.getPlaylistsByUser(userId), callback);
+    }
+
+    public void getPlaylistsWithSongs(int userId, Callback<List<PlaylistWithSongs>> callback) {
+        read(() -> playlistDao.getUserPlaylistsWithSongs(userId), callback);
+    }
+
+    public void getPlaylistWithSongs(int playlistId, Callback<PlaylistWithSongs> callback) {
+        read(() -> playlistDao.getPlaylistWithSongs(playlistId), callback);
+    }
+
+    public void getPlaylistTotals(int playlistId, Callback<SongTotals> callback) {
+        read(() -> playlistDao.getPlaylistTotals(playlistId), callback);
+    }
+
+    public void createPlaylist(String name, int userId, Callback<Long> callback) {
+        write(() -> playlistDao.insert(newPlaylist(name, userId)), callback);
+    }
+
+    /**
+     * Create a playlist already holding the given songs.
+     *
+     * @return the new playlist's id through the callback
+     */
+    public void createPlaylistWithSongs(String name, int userId, List<Integer> songIds, Callback<Long> callback) {
+        write(() -> database.runInTransaction(() -> {
+            long playlistId = playlistDao.insert(newPlaylist(name, userId));
+            playlistDao.addSongs((int) playlistId, songIds);
+            return playlistId;
+        }), callback);
+    }
+
+    /**
+     * Add songs to a playlist, skipping the ones it already has.
+     *
+     * @return how many songs were added through the callback
+     */
+    public void addSongsToPlaylist(int playlistId, List<Integer> songIds, Callback<Integer> callback) {
+        write(() -> playlistDao.addSongs(playlistId, songIds), callback);
+    }
+
+    /**
+     * Add every song of an artist in the user's library to a playlist, skipping the ones it
+     * already has.
+     *
+     * @return how many songs were added through the callback
+     */
+    public void addArtistToPlaylist(int playlistId, int artistId, int userId, Callback<Integer> callback) {
+        write(() -> playlistDao.addArtistSongs(playlistId, artistId, userId), callback);
+    }
+
+    /**
+     * Create a playlist holding every song of an artist in the user's library.
+     *
+     * @return the new playlist's id through the callback
+     */
+    public void createPlaylistWithArtist(String name, int userId, int artistId, Callback<Long> callback) {
+        write(() -> database.runInTransaction(() -> {
+            long playlistId = playlistDao.insert(newPlaylist(name, userId));
+            playlistDao.addArtistSongs((int) playlistId, artistId, userId);
+            return playlistId;
+        }), callback);
+    }
+
+    /**
+     * Add the library song at filePath to a playlist.
+     *
+     * @return false through the callback if no song has that path
+     */
+    public void addSongToPlaylistByPath(int playlistId, String filePath, Callback<Boolean> callback) {
+        write(() -> database.runInTransaction(() -> {
+            LocalSong song = musicDao.getSongByFilePath(filePath);
+            if (song == null) {
+                return false;
+            }
+            playlistDao.addSongs(playlistId, Collections.singletonList(song.getSongId()));
+            return true;
+        }), callback);
+    }
+
+    public void deletePlaylist(Playlist playlist, Callback<Void> callback) {
+        write(() -> {
+            database.runInTransaction(() -> {
+                // playlist_song has no foreign key to cascade from
+                playlistDao.deletePlaylistSongs(playlist.getPlaylistId());
+                playlistDao.delete(playlist);
+            });
+            return null;
+        }, callback);
+    }
+
+    private static Playlist newPlaylist(String name, int userId) {
+        Playlist playlist = new Playlist();
+        playlist.setName(name);
+        playlist.setUserId(userId);
+        return playlist;
+    }
+
+    // Threading
+
+    private <T> void read(Callable<T> query, Callback<T> callback) {
+        run(readExecutor, query, callback);
+    }
+
+    private <T> void write(Callable<T> update, Callback<T> callback) {
+        run(writeExecutor, update, callback);
+    }
+
+    private <T> void run(ExecutorService executor, Callable<T> task, Callback<T> callback) {
+        executor.execute(() -> {
+            try {
+                T result = task.call();
+                if (callback != null) {
+                    mainHandler.post(() -> callback.onResult(result));
+                }
+            } catch (Exception e) {
+                if (callback != null) {
+                    mainHandler.post(() -> callback.onError(e));
+                } else {
+                    Log.e(TAG, "Database operation failed: " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
@@ -8,6 +8,7 @@ import com.example.beat.data.entities.Album;
 import com.example.beat.data.entities.Artist;
 import com.example.beat.data.entities.LocalSong;
 import com.example.beat.data.entities.User;
+import com.example.beat.data.entities.UserSong;
 import com.example.beat.data.database.AppDatabase;
 
 import java.util.List;
@@ -36,16 +37,20 @@ public class SongManager {
                 return -1;
             }
 
-            // Set the user ID for the song
-            song.setUserId(defaultUser.userId);
-            Log.d(TAG, "Setting user ID: " + defaultUser.userId + " for song: " + song.getTitle());
-
             // Check if song already exists for this user
-            if (musicDao.countSongsForUser(song.getFilePath(), song.getUserId()) > 0) {
+            if (musicDao.countSongsForUser(song.getFilePath(), defaultUser.userId) > 0) {
                 Log.i(TAG, "Song already exists for user: " + song.getFilePath());
                 return -1;
             }
 
+            // Already in the shared catalog, only the membership is missing
+            LocalSong catalogSong = musicDao.getSongByFilePath(song.getFilePath());
+            if (catalogSong != null) {
+                musicDao.insertUserSong(new UserSong(defaultUser.userId, catalogSong.getSongId()));
+                Log.d(TAG, "Added catalog song: " + song.getTitle() + " for user: " + defaultUser.userId);
+                return catalogSong.getSongId();
+            }
+
             // Extract metadata from song title
             String[] metadata = extractSongMetadata(song.getTitle(), song);
             String artistName = metadata[0];
@@ -98,6 +103,7 @@ public class SongManager {
                 return -1;
             }
             
+            musicDao.insertUserSong(new UserSong(defaultUser.userId, (int) songId));
             Log.d(TAG, "Successfully inserted song: " + song.getTitle() + " with ID: " + songId);
             return songId;
             
@@ -0,0 +1,152 @@
+package com.example.beat.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+import androidx.room.RoomDatabase;
+
+import com.example.beat.data.entities.LocalSong;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pages a song list in (title, songId) order by seeking to the last song shown rather than
+ * counting an offset, so every page costs the same however far down the list it is.
+ *
+ * The page key is the song a page starts after (appends) or ends before (prepends).
+ * A refresh restarts at the first song that was on screen, inclusive. Any change to
+ * local_song or user_song invalidates the source and the list reloads from there. The
+ * table observer is registered by the first load, on the read executor, as Room's own
+ * paging sources do: registering touches the database, and Pager creates sources on the
+ * main thread.
+ */
+class SongPagingSource extends ListenableFuturePagingSource<SongPagingSource.Key, LocalSong> {
+
+    /**
+     * One side of a page query over a song list.
+     */
+    interface PageQuery {
+        // Songs strictly after (title, songId), ascending
+        List<LocalSong> after(String title, int songId, int limit);
+
+        // Songs strictly before (title, songId), descending
+        List<LocalSong> before(String title, int songId, int limit);
+    }
+
+    static final class Key {
+        final String title;
+        final int songId;
+
+        Key(String title, int songId) {
+            this.title = title;
+            this.songId = songId;
+        }
+
+        static Key of(LocalSong song) {
+            return new Key(song.getTitle() != null ? song.getTitle() : "", song.getSongId());
+        }
+    }
+
+    // Sorts before every title, songIds start at 1
+    private static final Key START = new Key("", 0);
+
+    private final PageQuery query;
+    private final Executor executor;
+    private final InvalidationTracker invalidationTracker;
+    private final InvalidationTracker.Observer observer =
+            new InvalidationTracker.Observer("local_song", "user_song") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    invalidate();
+                }
+            };
+    private final AtomicBoolean observerRegistered = new AtomicBoolean(false);
+
+    SongPagingSource(RoomDatabase database, Executor executor, PageQuery query) {
+        this.query = query;
+        this.executor = executor;
+        this.invalidationTracker = database.getInvalidationTracker();
+        registerInvalidatedCallback(() -> {
+            invalidationTracker.removeObserver(observer);
+            return kotlin.Unit.INSTANCE;
+        });
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Key, LocalSong>> loadFuture(@NonNull LoadParams<Key> params) {
+        ListenableFutureTask<LoadResult<Key, LocalSong>> task = ListenableFutureTask.create(() -> {
+            registerObserverIfNecessary();
+            if (getInvalid()) {
+                return new LoadResult.Invalid<>();
+            }
+            return load(params);
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    private void registerObserverIfNecessary() {
+        if (observerRegistered.compareAndSet(false, true)) {
+            invalidationTracker.addObserver(observer);
+            // Invalidated before the observer was in, so the callback had nothing to remove
+            if (getInvalid()) {
+                invalidationTracker.removeObserver(observer);
+            }
+        }
+    }
+
+    private LoadResult<Key, LocalSong> load(LoadParams<Key> params) {
+        Key key = params.getKey();
+        int limit = params.getLoadSize();
+        try {
+            if (params instanceof LoadParams.Prepend) {
+                List<LocalSong> songs = query.before(key.title, key.songId, limit);
+                Collections.reverse(songs);
+                return page(songs, songs.size() == limit, true);
+            }
+            if (params instanceof LoadParams.Append) {
+                List<LocalSong> songs = query.after(key.title, key.songId, limit);
+                return page(songs, true, songs.size() == limit);
+            }
+            // Refresh: from the top, or from the anchor song itself
+            Key from = key != null ? key : START;
+            List<LocalSong> songs = query.after(from.title, from.songId - 1, limit);
+            if (songs.isEmpty() && key != null) {
+                // Everything from the anchor on is gone; earlier songs can still prepend
+                return new LoadResult.Page<>(songs, key, null);
+            }
+            return page(songs, key != null, songs.size() == limit);
+        } catch (RuntimeException e) {
+            return new LoadResult.Error<>(e);
+        }
+    }
+
+    private LoadResult<Key, LocalSong> page(List<LocalSong> songs, boolean hasBefore, boolean hasAfter) {
+        if (songs.isEmpty()) {
+            return new LoadResult.Page<>(songs, null, null);
+        }
+        Key prevKey = hasBefore ? Key.of(songs.get(0)) : null;
+        Key nextKey = hasAfter ? Key.of(songs.get(songs.size() - 1)) : null;
+        return new LoadResult.Page<>(songs, prevKey, nextKey);
+    }
+
+    @Nullable
+    @Override
+    public Key getRefreshKey(@NonNull PagingState<Key, LocalSong> state) {
+        Integer anchorPosition = state.getAnchorPosition();
+        if (anchorPosition == null) {
+            return null;
+        }
+        LocalSong song = state.closestItemToPosition(anchorPosition);
+        return song != null ? Key.of(song) : null;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.beat.data.dao;
 import androidx.room.*;
 import androidx.room.Dao;
 
+import com.example.beat.data.database.LibrarySearchIndex;
 import com.example.beat.data.entities.*;
 import java.util.List;
 
@@ -25,6 +26,9 @@ public interface MusicDao {
     @Insert
     long insertArtist(Artist artist);
 
+    @Insert
+    List<Long> insertArtists(List<Artist> artists);
+
     @Query("SELECT * FROM artist")
     List<Artist> getAllArtists();
 
@@ -33,10 +37,30 @@ public interface MusicDao {
 
     @Query("SELECT DISTINCT artist.* FROM artist " +
             "JOIN local_song ON artist.artistId = local_song.artistId " +
-            "WHERE local_song.userId = :userId " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE user_song.userId = :userId " +
             "ORDER BY artist.name ASC")
     List<Artist> getArtistsForUser(int userId);
 
+    // One row per artist of the user's library with its totals and a cover to show.
+    // Totals come from artist_stats; the cover is from any catalog song of the artist.
+    @Query("SELECT artist.*, artist_stats.songCount AS trackCount, " +
+            "artist_stats.totalDuration AS totalDuration, " +
+            "(SELECT albumArtUri FROM local_song WHERE local_song.artistId = artist.artistId " +
+            "AND albumArtUri != '' AND albumArtUri NOT LIKE 'file://%' LIMIT 1) AS artUri, " +
+            "(SELECT filePath FROM local_song WHERE local_song.artistId = artist.artistId " +
+            "LIMIT 1) AS artFilePath " +
+            "FROM artist_stats " +
+            "JOIN artist ON artist.artistId = artist_stats.artistId " +
+            "WHERE artist_stats.userId = :userId " +
+            "ORDER BY artist.name ASC")
+    List<ArtistSummary> getArtistSummariesForUser(int userId);
+
+    @Query("SELECT IFNULL(SUM(songCount), 0) AS songCount, " +
+            "IFNULL(SUM(totalDuration), 0) AS totalDuration FROM artist_stats " +
+            "WHERE userId = :userId AND artistId = :artistId")
+    SongTotals getArtistTotals(int artistId, int userId);
+
     @Query("SELECT * FROM artist WHERE name = :name")
     Artist getArtistByName(String name);
 
@@ -44,6 +68,9 @@ public interface MusicDao {
     @Insert
     long insertAlbum(Album album);
 
+    @Insert
+    List<Long> insertAlbums(List<Album> albums);
+
     @Query("SELECT * FROM album")
     List<Album> getAllAlbums();
 
@@ -54,30 +81,267 @@ public interface MusicDao {
     @Insert
     long insertSong(LocalSong song);
 
-    @Query("SELECT * FROM local_song WHERE userId = :userId")
+    // Rows whose filePath is already in the catalog come back as -1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertSongs(List<LocalSong> songs);
+
+    // User membership of catalog songs
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertUserSong(UserSong userSong);
+
+    // New catalog songs join every library on the device, as if each user had scanned them
+    @Query("INSERT OR IGNORE INTO user_song (userId, songId) " +
+            "SELECT user.userId, local_song.songId FROM user, local_song " +
+            "WHERE local_song.songId IN (:songIds)")
+    void addSongsToAllUsers(List<Integer> songIds);
+
+    @Query("INSERT OR IGNORE INTO user_song (userId, songId) " +
+            "SELECT :userId, songId FROM local_song WHERE filePath IN (:filePaths)")
+    void addSongsToUserByPath(int userId, List<String> filePaths);
+
+    // First sync of a user who signed up after the catalog was scanned
+    @Query("INSERT OR IGNORE INTO user_song (userId, songId) SELECT :userId, songId FROM local_song")
+    void addCatalogToUser(int userId);
+
+    @Query("SELECT EXISTS (SELECT 1 FROM user_song WHERE userId = :userId)")
+    boolean hasUserSongs(int userId);
+
+    // Same order as the paged song list, so positions in it line up with this list
+    @Query("SELECT local_song.* FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE user_song.userId = :userId " +
+            "ORDER BY local_song.title ASC, local_song.songId ASC")
     List<LocalSong> getSongsByUser(int userId);
 
-    @Query("SELECT COUNT(*) FROM local_song WHERE filePath = :filePath AND userId = :userId")
+    @Query("SELECT COUNT(*) FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE local_song.filePath = :filePath AND user_song.userId = :userId")
     int countSongsForUser(String filePath, int userId);
 
     @Query("SELECT * FROM album WHERE albumId IN " +
-            "(SELECT DISTINCT albumId FROM local_song WHERE userId = :userId) " +
+            "(SELECT DISTINCT local_song.albumId FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE user_song.userId = :userId) " +
             "ORDER BY name ASC")
     List<Album> getAlbumsForUser(int userId);
 
+    // Songs of every album sharing the name of :albumId, as the album list groups them
     @Query("SELECT local_song.* FROM local_song " +
-            "WHERE local_song.albumId = :albumId AND local_song.userId = :userId " +
-            "ORDER BY local_song.title ASC")
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE local_song.albumId IN (SELECT albumId FROM album " +
+            "WHERE name = (SELECT name FROM album WHERE albumId = :albumId)) " +
+            "AND user_song.userId = :userId " +
+            "ORDER BY local_song.title ASC, local_song.songId ASC")
     List<LocalSong> getSongsByAlbumAndUser(int albumId, int userId);
 
-    @Query("SELECT * FROM local_song WHERE artistId = :artistId AND userId = :userId")
+    // Totals of every album sharing the name of :albumId, as the album list groups them
+    @Query("SELECT IFNULL(SUM(songCount), 0) AS songCount, " +
+            "IFNULL(SUM(totalDuration), 0) AS totalDuration FROM album_stats " +
+            "WHERE userId = :userId AND albumId IN (SELECT albumId FROM album " +
+            "WHERE name = (SELECT name FROM album WHERE albumId = :albumId))")
+    SongTotals getAlbumTotals(int albumId, int userId);
+
+    // Albums with the same name are listed once, under the lowest albumId of the name.
+    // Rows come out grouped by that album so they can be folded in a single pass.
+    @Query("WITH album_group AS (SELECT name, MIN(albumId) AS groupId FROM album GROUP BY name) " +
+            "SELECT local_song.*, " +
+            "grouped.albumId AS album_albumId, grouped.name AS album_name, " +
+            "grouped.releaseYear AS album_releaseYear, grouped.artistId AS album_artistId, " +
+            "grouped.albumArtUri AS album_albumArtUri " +
+            "FROM user_song " +
+            "JOIN local_song ON local_song.songId = user_song.songId " +
+            "JOIN album AS own ON own.albumId = local_song.albumId " +
+            "JOIN album_group ON album_group.name = own.name " +
+            "JOIN album AS grouped ON grouped.albumId = album_group.groupId " +
+            "WHERE user_song.userId = :userId " +
+            "ORDER BY grouped.name COLLATE NOCASE ASC, grouped.albumId ASC, local_song.title ASC")
+    List<AlbumSongRow> getAlbumSongRowsForUser(int userId);
+
+    /**
+     * The user's albums with their songs, from one query instead of one per album.
+     */
+    default List<AlbumWithSongs> getAlbumsWithSongsForUser(int userId) {
+        List<AlbumWithSongs> albums = new java.util.ArrayList<>();
+        AlbumWithSongs current = null;
+        for (AlbumSongRow row : getAlbumSongRowsForUser(userId)) {
+            if (current == null || current.album.albumId != row.album.albumId) {
+                current = new AlbumWithSongs();
+                current.album = row.album;
+                current.songs = new java.util.ArrayList<>();
+                albums.add(current);
+            }
+            current.songs.add(row.song);
+        }
+        return albums;
+    }
+
+    @Query("SELECT local_song.* FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE local_song.artistId = :artistId AND user_song.userId = :userId " +
+            "ORDER BY local_song.title ASC, local_song.songId ASC")
     List<LocalSong> getSongsByArtistAndUser(int artistId, int userId);
 
-    @Query("SELECT * FROM local_song WHERE filePath = :filePath LIMIT 1")
-    LocalSong getSongByFilePath(String filePath);
+    // Keyset pages of song lists, ordered by (title, songId). "After" pages start past the
+    // given song, "before" pages end just ahead of it and come back in reverse order.
+    // CROSS JOIN keeps local_song as the outer loop so the title index gives the order and
+    // a page stops after :limit rows instead of sorting the whole library.
+    @Query("SELECT local_song.* FROM local_song " +
+            "CROSS JOIN user_song ON user_song.songId = local_song.songId AND user_song.userId = :userId " +
+            "WHERE local_song.title >= :title " +
+            "AND (local_song.title > :title OR local_song.songId > :songId) " +
+            "ORDER BY local_song.title ASC, local_song.songId ASC LIMIT :limit")
+    List<LocalSong> getUserSongsAfter(int userId, String title, int songId, int limit);
+
+    @Query("SELECT local_song.* FROM local_song " +
+            "CROSS JOIN user_song ON user_song.songId = local_song.songId AND user_song.userId = :userId " +
+            "WHERE local_song.title <= :title " +
+            "AND (local_song.title < :title OR local_song.songId < :songId) " +
+            "ORDER BY local_song.title DESC, local_song.songId DESC LIMIT :limit")
+    List<LocalSong> getUserSongsBefore(int userId, String title, int songId, int limit);
+
+    @Query("SELECT local_song.* FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId AND user_song.userId = :userId " +
+            "WHERE local_song.artistId = :artistId AND local_song.title >= :title " +
+            "AND (local_song.title > :title OR local_song.songId > :songId) " +
+            "ORDER BY local_song.title ASC, local_song.songId ASC LIMIT :limit")
+    List<LocalSong> getArtistSongsAfter(int artistId, int userId, String title, int songId, int limit);
 
+    @Query("SELECT local_song.* FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId AND user_song.userId = :userId " +
+            "WHERE local_song.artistId = :artistId AND local_song.title <= :title " +
+            "AND (local_song.title < :title OR local_song.songId < :songId) " +
+            "ORDER BY local_song.title DESC, local_song.songId DESC LIMIT :limit")
+    List<LocalSong> getArtistSongsBefore(int artistId, int userId, String title, int songId, int limit);
 
+    @Query("SELECT local_song.* FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId AND user_song.userId = :userId " +
+            "WHERE local_song.albumId IN (SELECT albumId FROM album " +
+            "WHERE name = (SELECT name FROM album WHERE albumId = :albumId)) " +
+            "AND local_song.title >= :title " +
+            "AND (local_song.title > :title OR local_song.songId > :songId) " +
+            "ORDER BY local_song.title ASC, local_song.songId ASC LIMIT :limit")
+    List<LocalSong> getAlbumSongsAfter(int albumId, int userId, String title, int songId, int limit);
+
+    @Query("SELECT local_song.* FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId AND user_song.userId = :userId " +
+            "WHERE local_song.albumId IN (SELECT albumId FROM album " +
+            "WHERE name = (SELECT name FROM album WHERE albumId = :albumId)) " +
+            "AND local_song.title <= :title " +
+            "AND (local_song.title < :title OR local_song.songId < :songId) " +
+            "ORDER BY local_song.title DESC, local_song.songId DESC LIMIT :limit")
+    List<LocalSong> getAlbumSongsBefore(int albumId, int userId, String title, int songId, int limit);
+
+    @Query("SELECT * FROM local_song WHERE songId IN (:songIds)")
+    List<LocalSong> getSongsByIds(List<Integer> songIds);
+
+    @Query("SELECT * FROM local_song WHERE filePath = :filePath LIMIT 1")
+    LocalSong getSongByFilePath(String filePath);
 
+    // Backfills MediaStore fields of rows scanned before those columns existed
+    @Query("UPDATE local_song SET mediaStoreId = :mediaStoreId, fileSize = :fileSize, " +
+            "duration = :duration, contentHash = :contentHash, " +
+            "trackNumber = :trackNumber, year = :year, dateAdded = :dateAdded " +
+            "WHERE filePath = :filePath " +
+            "AND (mediaStoreId != :mediaStoreId OR contentHash IS NOT :contentHash " +
+            "OR trackNumber != :trackNumber OR year != :year OR dateAdded != :dateAdded)")
+    int backfillScanFields(String filePath, long mediaStoreId,
+                           long fileSize, long duration, String contentHash,
+                           int trackNumber, int year, long dateAdded);
+
+    // Year of an album is the latest year of its songs, unless it already has one
+    @Query("UPDATE album SET releaseYear = " +
+            "(SELECT CAST(MAX(year) AS TEXT) FROM local_song WHERE local_song.albumId = album.albumId) " +
+            "WHERE albumId IN (:albumIds) AND (releaseYear IS NULL OR releaseYear = '')")
+    void fillAlbumYears(List<Integer> albumIds);
+
+    // Move detection: candidates for a batch of freshly scanned fingerprints
+    @Query("SELECT * FROM local_song WHERE contentHash IN (:contentHashes)")
+    List<LocalSong> getSongsByContentHash(List<String> contentHashes);
+
+    // Returns 0 when another catalog row already has the new path
+    @Query("UPDATE OR IGNORE local_song SET filePath = :filePath, mediaStoreId = :mediaStoreId, " +
+            "albumArtUri = :albumArtUri WHERE songId = :songId")
+    int repointSong(int songId, String filePath, long mediaStoreId, String albumArtUri);
+
+    // Library reconciliation: streamed and sorted so it can be merged with MediaStore
+    @Query("SELECT songId, mediaStoreId, filePath FROM local_song ORDER BY mediaStoreId ASC")
+    android.database.Cursor getSongStoreRefsSortedByMediaStoreId();
+
+    // Returns 0 when another catalog row already has the new path
+    @Query("UPDATE OR IGNORE local_song SET filePath = :filePath WHERE songId = :songId")
+    int updateSongFilePath(int songId, String filePath);
+
+    @Query("DELETE FROM local_song WHERE songId IN (:songIds)")
+    int deleteSongsByIds(List<Integer> songIds);
+
+    // Search. library_fts rowids are id * 4 + kind (see LibrarySearchEntry); hits are kept
+    // to the user's library and ranked names-starting-with-the-text first, then shortest name.
+    @Query("SELECT rowid % 4 AS kind, rowid / 4 AS refId, name FROM library_fts " +
+            "WHERE library_fts MATCH :match " +
+            "AND (:kind < 0 OR rowid % 4 = :kind) " +
+            "AND CASE rowid % 4 " +
+            "WHEN " + SearchResult.KIND_SONG + " THEN EXISTS (SELECT 1 FROM user_song " +
+            "WHERE user_song.userId = :userId AND user_song.songId = library_fts.rowid / 4) " +
+            "WHEN " + SearchResult.KIND_ARTIST + " THEN EXISTS (SELECT 1 FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE local_song.artistId = library_fts.rowid / 4 AND user_song.userId = :userId) " +
+            "ELSE EXISTS (SELECT 1 FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE local_song.albumId = library_fts.rowid / 4 AND user_song.userId = :userId) END " +
+            "ORDER BY CASE WHEN name LIKE :namePrefix ESCAPE '\\' THEN 0 ELSE 1 END, " +
+            "length(name) ASC, name COLLATE NOCASE ASC " +
+            "LIMIT :limit")
+    List<SearchResult> searchLibrary(String match, String namePrefix, int userId, int kind, int limit);
+
+    /**
+     * Songs, artists and albums of the user's library matching every word of text as a
+     * prefix, best matches first.
+     *
+     * @param kind one of the SearchResult KIND_ constants, or -1 for all of them
+     */
+    default List<SearchResult> searchLibrary(String text, int userId, int kind, int limit) {
+        String match = LibrarySearchIndex.toMatchQuery(text);
+        if (match == null) {
+            return new java.util.ArrayList<>();
+        }
+        return searchLibrary(match, LibrarySearchIndex.toNamePrefix(text), userId, kind, limit);
+    }
+
+    /**
+     * Songs of the user's library matching text, best matches first.
+     */
+    default List<LocalSong> searchSongs(String text, int userId, int limit) {
+        List<SearchResult> results = searchLibrary(text, userId, SearchResult.KIND_SONG, limit);
+        List<Integer> songIds = new java.util.ArrayList<>();
+        for (SearchResult result : results) {
+            songIds.add(result.refId);
+        }
+        if (songIds.isEmpty()) {
+            return new java.util.ArrayList<>();
+        }
+        java.util.Map<Integer, LocalSong> songsById = new java.util.HashMap<>();
+        for (LocalSong song : getSongsByIds(songIds)) {
+            songsById.put(song.getSongId(), song);
+        }
+        List<LocalSong> songs = new java.util.ArrayList<>();
+        for (Integer songId : songIds) {
+            LocalSong song = songsById.get(songId);
+            if (song != null) {
+                songs.add(song);
+            }
+        }
+        return songs;
+    }
+
+    // Scan checkpoints
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveScanCheckpoint(ScanCheckpoint checkpoint);
+
+    @Query("SELECT * FROM scan_checkpoint WHERE id = " + ScanCheckpoint.CATALOG)
+    ScanCheckpoint getScanCheckpoint();
+
+    @Query("DELETE FROM scan_checkpoint")
+    void deleteScanCheckpoint();
 
     // Playlist operations
     @Insert
@@ -109,13 +373,16 @@ public interface MusicDao {
     @Query("DELETE FROM local_song WHERE songId = :songId")
     void deleteSongById(int songId);
 
-    @Query("DELETE FROM local_song WHERE songId = :songId AND userId = :userId")
+    // Per-user deletes only drop membership; the catalog row stays for other users
+    @Query("DELETE FROM user_song WHERE songId = :songId AND userId = :userId")
     void deleteSongByIdAndUser(int songId, int userId);
 
-    @Query("DELETE FROM local_song WHERE albumId = :albumId AND userId = :userId")
+    @Query("DELETE FROM user_song WHERE userId = :userId AND songId IN " +
+            "(SELECT songId FROM local_song WHERE albumId = :albumId)")
     void deleteAlbumSongs(int albumId, int userId);
 
-    @Query("DELETE FROM local_song WHERE artistId = :artistId AND userId = :userId")
+    @Query("DELETE FROM user_song WHERE userId = :userId AND songId IN " +
+            "(SELECT songId FROM local_song WHERE artistId = :artistId)")
     void deleteArtistSongs(int artistId, int userId);
 
     @Delete
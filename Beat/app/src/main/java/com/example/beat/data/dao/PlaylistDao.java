@@ -6,6 +6,7 @@ import com.example.beat.data.entities.LocalSong;
 import com.example.beat.data.entities.Playlist;
 import com.example.beat.data.entities.PlaylistSong;
 import com.example.beat.data.entities.PlaylistWithSongs;
+import com.example.beat.data.entities.SongTotals;
 
 import java.util.List;
 
@@ -17,12 +18,66 @@ public interface PlaylistDao {
     @Insert
     void insertPlaylistSong(PlaylistSong playlistSong);
 
+    // One transaction for the whole list; songs already in their playlist come back as -1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertAll(List<PlaylistSong> playlistSongs);
+
+    /**
+     * Add songs to a playlist, skipping the ones it already has.
+     *
+     * @return how many songs were added
+     */
+    default int addSongs(int playlistId, List<Integer> songIds) {
+        List<PlaylistSong> playlistSongs = new java.util.ArrayList<>(songIds.size());
+        for (Integer songId : songIds) {
+            PlaylistSong playlistSong = new PlaylistSong();
+            playlistSong.setPlaylistId(playlistId);
+            playlistSong.setSongId(songId);
+            playlistSongs.add(playlistSong);
+        }
+        int added = 0;
+        for (Long rowId : insertAll(playlistSongs)) {
+            if (rowId != -1) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // The artist's songs in the user's library, copied in one statement
+    @Query("INSERT OR IGNORE INTO playlist_song (playlistId, songId) " +
+            "SELECT :playlistId, local_song.songId FROM local_song " +
+            "JOIN user_song ON user_song.songId = local_song.songId " +
+            "WHERE local_song.artistId = :artistId AND user_song.userId = :userId")
+    void insertArtistSongs(int playlistId, int artistId, int userId);
+
+    @Query("SELECT COUNT(*) FROM playlist_song WHERE playlistId = :playlistId")
+    int countPlaylistSongs(int playlistId);
+
+    /**
+     * Add every song of an artist in the user's library to a playlist, skipping the ones it
+     * already has.
+     *
+     * @return how many songs were added
+     */
+    @Transaction
+    default int addArtistSongs(int playlistId, int artistId, int userId) {
+        int before = countPlaylistSongs(playlistId);
+        insertArtistSongs(playlistId, artistId, userId);
+        return countPlaylistSongs(playlistId) - before;
+    }
+
     @Query("SELECT * FROM playlist WHERE userId = :userId")
     List<Playlist> getPlaylistsByUser(int userId);
 
     @Query("SELECT * FROM playlist WHERE playlistId = :playlistId")
     Playlist getPlaylistById(int playlistId);
 
+    @Query("SELECT IFNULL(SUM(songCount), 0) AS songCount, " +
+            "IFNULL(SUM(totalDuration), 0) AS totalDuration FROM playlist_stats " +
+            "WHERE playlistId = :playlistId")
+    SongTotals getPlaylistTotals(int playlistId);
+
     @Delete
     void delete(Playlist playlist);
 
@@ -48,4 +103,7 @@ public interface PlaylistDao {
 
     @Query("DELETE FROM playlist_song WHERE playlistId = :playlistId")
     void deletePlaylistSongs(int playlistId);
+
+    @Query("DELETE FROM playlist_song WHERE songId IN (:songIds)")
+    int deletePlaylistSongsForSongs(List<Integer> songIds);
 }
@@ -20,10 +20,16 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
         LocalSong.class,
         Playlist.class,
         LocalVideo.class,
-        PlaylistSong.class
+        PlaylistSong.class,
+        ScanCheckpoint.class,
+        UserSong.class,
+        LibrarySearchEntry.class,
+        ArtistStats.class,
+        AlbumStats.class,
+        PlaylistStats.class
     },
-    version = 4,
-    exportSchema = false
+    version = 14,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
     private static AppDatabase instance;
@@ -35,33 +41,234 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
 
-    private static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+    private static final Migration MIGRATION_4_5 = new Migration(4, 5) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
-            // Add userId column to playlist table
-            database.execSQL("ALTER TABLE playlist ADD COLUMN user_id INTEGER NOT NULL DEFAULT 0");
-            // Create playlist_song table
-            database.execSQL("CREATE TABLE IF NOT EXISTS playlist_song " +
-                    "(id INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                    "playlist_id INTEGER NOT NULL, " +
-                    "song_id INTEGER NOT NULL, " +
-                    "FOREIGN KEY(playlist_id) REFERENCES playlist(playlist_id), " +
-                    "FOREIGN KEY(song_id) REFERENCES local_song(song_id))");
+            // MediaStore id, used to reconcile the library against MediaStore
+            database.execSQL("ALTER TABLE local_song ADD COLUMN mediaStoreId INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_userId_mediaStoreId ON local_song (userId, mediaStoreId)");
         }
     };
 
+    private static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // File fingerprint, used to follow moved and renamed files
+            database.execSQL("ALTER TABLE local_song ADD COLUMN fileSize INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE local_song ADD COLUMN duration INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE local_song ADD COLUMN contentHash TEXT");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_userId_contentHash ON local_song (userId, contentHash)");
+        }
+    };
+
+    private static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // Progress of an interrupted library scan
+            database.execSQL("CREATE TABLE IF NOT EXISTS scan_checkpoint " +
+                    "(userId INTEGER NOT NULL, " +
+                    "lastMediaStoreId INTEGER NOT NULL, " +
+                    "batchNumber INTEGER NOT NULL, " +
+                    "processedCount INTEGER NOT NULL, " +
+                    "PRIMARY KEY(userId))");
+        }
+    };
+
+    private static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // local_song becomes one catalog row per file; the lowest songId of each path
+            // is kept and user membership moves to user_song
+            database.execSQL("CREATE TEMP TABLE song_keep AS " +
+                    "SELECT filePath, MIN(songId) AS keepId FROM local_song GROUP BY filePath");
+            database.execSQL("CREATE TEMP TABLE song_owner AS " +
+                    "SELECT DISTINCT local_song.userId AS userId, song_keep.keepId AS songId " +
+                    "FROM local_song JOIN song_keep ON song_keep.filePath = local_song.filePath");
+
+            // Playlists pointing at a duplicate now point at the kept row
+            database.execSQL("UPDATE playlist_song SET songId = " +
+                    "(SELECT song_keep.keepId FROM local_song " +
+                    "JOIN song_keep ON song_keep.filePath = local_song.filePath " +
+                    "WHERE local_song.songId = playlist_song.songId) " +
+                    "WHERE songId IN (SELECT songId FROM local_song)");
+
+            database.execSQL("CREATE TABLE IF NOT EXISTS local_song_new " +
+                    "(songId INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "title TEXT, " +
+                    "filePath TEXT, " +
+                    "artistId INTEGER, " +
+                    "albumId INTEGER, " +
+                    "albumArtUri TEXT, " +
+                    "mediaStoreId INTEGER NOT NULL, " +
+                    "fileSize INTEGER NOT NULL, " +
+                    "duration INTEGER NOT NULL, " +
+                    "contentHash TEXT, " +
+                    "FOREIGN KEY(artistId) REFERENCES artist(artistId) ON UPDATE NO ACTION ON DELETE SET NULL, " +
+                    "FOREIGN KEY(albumId) REFERENCES album(albumId) ON UPDATE NO ACTION ON DELETE SET NULL)");
+            database.execSQL("INSERT INTO local_song_new (songId, title, filePath, artistId, albumId, " +
+                    "albumArtUri, mediaStoreId, fileSize, duration, contentHash) " +
+                    "SELECT songId, title, filePath, artistId, albumId, " +
+                    "albumArtUri, mediaStoreId, fileSize, duration, contentHash " +
+                    "FROM local_song WHERE songId IN (SELECT keepId FROM song_keep)");
+            database.execSQL("DROP TABLE local_song");
+            database.execSQL("ALTER TABLE local_song_new RENAME TO local_song");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_artistId ON local_song (artistId)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_albumId ON local_song (albumId)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_local_song_filePath ON local_song (filePath)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_mediaStoreId ON local_song (mediaStoreId)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_contentHash ON local_song (contentHash)");
+
+            // Created after the catalog swap so dropping the old table can't cascade into it
+            database.execSQL("CREATE TABLE IF NOT EXISTS user_song " +
+                    "(userId INTEGER NOT NULL, " +
+                    "songId INTEGER NOT NULL, " +
+                    "PRIMARY KEY(userId, songId), " +
+                    "FOREIGN KEY(userId) REFERENCES user(userId) ON UPDATE NO ACTION ON DELETE CASCADE, " +
+                    "FOREIGN KEY(songId) REFERENCES local_song(songId) ON UPDATE NO ACTION ON DELETE CASCADE)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_user_song_songId ON user_song (songId)");
+            database.execSQL("INSERT OR IGNORE INTO user_song (userId, songId) " +
+                    "SELECT userId, songId FROM song_owner WHERE userId IN (SELECT userId FROM user)");
+            database.execSQL("DROP TABLE song_owner");
+            database.execSQL("DROP TABLE song_keep");
+
+            // The catalog is scanned once for everybody, so the checkpoint is no longer per user
+            database.execSQL("DROP TABLE IF EXISTS scan_checkpoint");
+            database.execSQL("CREATE TABLE IF NOT EXISTS scan_checkpoint " +
+                    "(id INTEGER NOT NULL, " +
+                    "lastMediaStoreId INTEGER NOT NULL, " +
+                    "batchNumber INTEGER NOT NULL, " +
+                    "processedCount INTEGER NOT NULL, " +
+                    "PRIMARY KEY(id))");
+        }
+    };
+    private static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // Full-text search over songs, artists and albums, filled from the existing library
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `library_fts` " +
+                    "USING FTS4(`name` TEXT, `context` TEXT, tokenize=unicode61)");
+            LibrarySearchIndex.rebuild(database);
+            LibrarySearchIndex.createTriggers(database);
+        }
+    };
+
+    private static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // Song lists page by (title, songId); a NULL title would fall out of every page
+            database.execSQL("UPDATE local_song SET title = '' WHERE title IS NULL");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_title ON local_song (title)");
+        }
+    };
+
+    private static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // One row per song and playlist, keeping the earliest of any duplicates
+            database.execSQL("DELETE FROM playlist_song WHERE id NOT IN " +
+                    "(SELECT MIN(id) FROM playlist_song GROUP BY playlistId, songId)");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_playlist_song_playlistId_songId " +
+                    "ON playlist_song (playlistId, songId)");
+        }
+    };
+
+    private static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // Indexes for lookups that were full table scans; QueryPlanTest keeps it that way
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_artist_name ON artist (name)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_album_name_artistId ON album (name, artistId)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_playlist_userId ON playlist (userId)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_playlist_song_songId ON playlist_song (songId)");
+        }
+    };
+
+    private static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // Track, year and date added from MediaStore; existing rows get them on the next
+            // scan, which reads everything again (ScanWatermarks.FIELDS_VERSION)
+            database.execSQL("ALTER TABLE local_song ADD COLUMN trackNumber INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE local_song ADD COLUMN year INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE local_song ADD COLUMN dateAdded INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("DROP INDEX IF EXISTS index_local_song_albumId");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_albumId_trackNumber ON local_song (albumId, trackNumber)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_duration ON local_song (duration)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS index_local_song_dateAdded ON local_song (dateAdded)");
+        }
+    };
+
+    private static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            // Song counts and play time per artist, album and playlist, counted once here
+            // and kept by triggers from then on
+            database.execSQL("CREATE TABLE IF NOT EXISTS `artist_stats` (`userId` INTEGER NOT NULL, " +
+                    "`artistId` INTEGER NOT NULL, `songCount` INTEGER NOT NULL, " +
+                    "`totalDuration` INTEGER NOT NULL, PRIMARY KEY(`userId`, `artistId`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `album_stats` (`userId` INTEGER NOT NULL, " +
+                    "`albumId` INTEGER NOT NULL, `songCount` INTEGER NOT NULL, " +
+                    "`totalDuration` INTEGER NOT NULL, PRIMARY KEY(`userId`, `albumId`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `playlist_stats` (`playlistId` INTEGER NOT NULL, " +
+                    "`songCount` INTEGER NOT NULL, `totalDuration` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`playlistId`))");
+            LibraryStats.rebuild(database);
+            LibraryStats.createTriggers(database);
+        }
+    };
+
+    // Room creates library_fts and the stats tables on a fresh install, but not the
+    // triggers that fill them
+    private static final Callback TRIGGERS_CALLBACK = new Callback() {
+        // Also after a destructive rebuild of version 1 and 2 databases, which skips
+        // onCreate; onDestructiveMigration is too early, it runs before the tables are
+        // created again. The statements are IF NOT EXISTS, so most opens change nothing.
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            LibrarySearchIndex.createTriggers(db);
+            LibraryStats.createTriggers(db);
+        }
+    };
+
+    /**
+     * Every migration, oldest first. Versions before 3 were never shipped with a working
+     * migration and are rebuilt from scratch; from 3 on, a schema change must add a step
+     * here (MigrationTest checks the chain reaches the current version).
+     */
+    public static final Migration[] ALL_MIGRATIONS = {
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6,
+            MIGRATION_6_7,
+            MIGRATION_7_8,
+            MIGRATION_8_9,
+            MIGRATION_9_10,
+            MIGRATION_10_11,
+            MIGRATION_11_12,
+            MIGRATION_12_13,
+            MIGRATION_13_14
+    };
+
+    /**
+     * Migrations, destructive fallback and triggers; MigrationTest opens its databases
+     * through this too.
+     */
+    static Builder<AppDatabase> configure(Builder<AppDatabase> builder) {
+        return builder.addMigrations(ALL_MIGRATIONS)
+                .fallbackToDestructiveMigrationFrom(1, 2)
+                .addCallback(TRIGGERS_CALLBACK);
+    }
+
     public static AppDatabase getInstance(Context context) {
         if (instance == null) {
             synchronized (AppDatabase.class) {
                 if (instance == null) {
-                    instance = Room.databaseBuilder(
+                    // No allowMainThreadQueries: UI code goes through MusicRepository
+                    instance = configure(Room.databaseBuilder(
                             context.getApplicationContext(),
                             AppDatabase.class,
                             "beat_database"
-                    ).allowMainThreadQueries()
-                    .addMigrations(MIGRATION_1_2)
-                    .fallbackToDestructiveMigration()
-                    .build();
+                    )).build();
                 }
             }
         }
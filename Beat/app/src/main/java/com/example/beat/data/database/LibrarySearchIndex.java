@@ -0,0 +1,151 @@
+package com.example.beat.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Triggers that keep library_fts in step with local_song, artist and album, and the
+ * helpers to turn what the user typed into an FTS query.
+ *
+ * Room creates the library_fts table itself but knows nothing of these triggers, so they
+ * are created from the database callback whenever the database is opened, which covers a
+ * fresh install and a destructive rebuild, and from MIGRATION_8_9 on an upgrade. A later
+ * migration that rebuilds one of the three tables drops its triggers with it and has to
+ * call {@link #createTriggers} again.
+ *
+ * Rowids are id * 4 + kind, with kind 0 for songs, 1 for artists and 2 for albums
+ * (the SearchResult KIND_ constants).
+ */
+public final class LibrarySearchIndex {
+
+    // What a song is found by besides its title
+    private static String songContext(String row) {
+        return "TRIM(IFNULL((SELECT name FROM artist WHERE artistId = " + row + ".artistId), '') || ' ' || " +
+                "IFNULL((SELECT name FROM album WHERE albumId = " + row + ".albumId), ''))";
+    }
+
+    // What an album is found by besides its name
+    private static String albumContext(String row) {
+        return "IFNULL((SELECT name FROM artist WHERE artistId = " + row + ".artistId), '')";
+    }
+
+    private static String insertSong(String row) {
+        return "INSERT INTO library_fts (rowid, name, context) VALUES (" +
+                row + ".songId * 4, " + row + ".title, " + songContext(row) + "); ";
+    }
+
+    private static String insertArtist(String row) {
+        return "INSERT INTO library_fts (rowid, name, context) VALUES (" +
+                row + ".artistId * 4 + 1, " + row + ".name, ''); ";
+    }
+
+    private static String insertAlbum(String row) {
+        return "INSERT INTO library_fts (rowid, name, context) VALUES (" +
+                row + ".albumId * 4 + 2, " + row + ".name, " + albumContext(row) + "); ";
+    }
+
+    private LibrarySearchIndex() {
+    }
+
+    public static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        // Songs
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_song_insert AFTER INSERT ON local_song BEGIN " +
+                insertSong("new") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_song_update " +
+                "AFTER UPDATE OF title, artistId, albumId ON local_song BEGIN " +
+                "DELETE FROM library_fts WHERE rowid = old.songId * 4; " +
+                insertSong("new") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_song_delete AFTER DELETE ON local_song BEGIN " +
+                "DELETE FROM library_fts WHERE rowid = old.songId * 4; END");
+
+        // Artists; songs and albums carry the artist name, so a rename reaches them too.
+        // Songs of a deleted artist are updated through the artistId foreign key.
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_artist_insert AFTER INSERT ON artist BEGIN " +
+                insertArtist("new") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_artist_update " +
+                "AFTER UPDATE OF name ON artist BEGIN " +
+                "DELETE FROM library_fts WHERE rowid = old.artistId * 4 + 1; " +
+                insertArtist("new") +
+                "UPDATE library_fts SET context = (SELECT " + songContext("local_song") +
+                " FROM local_song WHERE local_song.songId = library_fts.rowid / 4) " +
+                "WHERE rowid IN (SELECT songId * 4 FROM local_song WHERE artistId = new.artistId); " +
+                "UPDATE library_fts SET context = new.name " +
+                "WHERE rowid IN (SELECT albumId * 4 + 2 FROM album WHERE artistId = new.artistId); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_artist_delete AFTER DELETE ON artist BEGIN " +
+                "DELETE FROM library_fts WHERE rowid = old.artistId * 4 + 1; " +
+                "UPDATE library_fts SET context = '' " +
+                "WHERE rowid IN (SELECT albumId * 4 + 2 FROM album WHERE artistId = old.artistId); END");
+
+        // Albums
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_album_insert AFTER INSERT ON album BEGIN " +
+                insertAlbum("new") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_album_update " +
+                "AFTER UPDATE OF name, artistId ON album BEGIN " +
+                "DELETE FROM library_fts WHERE rowid = old.albumId * 4 + 2; " +
+                insertAlbum("new") +
+                "UPDATE library_fts SET context = (SELECT " + songContext("local_song") +
+                " FROM local_song WHERE local_song.songId = library_fts.rowid / 4) " +
+                "WHERE rowid IN (SELECT songId * 4 FROM local_song WHERE albumId = new.albumId); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS library_fts_album_delete AFTER DELETE ON album BEGIN " +
+                "DELETE FROM library_fts WHERE rowid = old.albumId * 4 + 2; END");
+    }
+
+    /**
+     * Index every existing row, for databases that had a library before the index existed.
+     */
+    public static void rebuild(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM library_fts");
+        db.execSQL("INSERT INTO library_fts (rowid, name, context) " +
+                "SELECT songId * 4, title, " + songContext("local_song") + " FROM local_song");
+        db.execSQL("INSERT INTO library_fts (rowid, name, context) " +
+                "SELECT artistId * 4 + 1, name, '' FROM artist");
+        db.execSQL("INSERT INTO library_fts (rowid, name, context) " +
+                "SELECT albumId * 4 + 2, name, " + albumContext("album") + " FROM album");
+    }
+
+    /**
+     * Turn typed text into an FTS query where every word must match as a prefix, e.g.
+     * {@code beat yes} becomes {@code "beat*" "yes*"}. Each word is quoted so characters
+     * with a meaning in FTS syntax (-, OR, NEAR, ...) are taken literally.
+     *
+     * @return null if the text has no words to search for
+     */
+    public static String toMatchQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : text.trim().split("\\s+")) {
+            String term = word.replace("\"", "").replace("*", "");
+            if (!hasWordCharacter(term)) {
+                // Nothing the tokenizer would index, e.g. a lone "&"
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(term).append("*\"");
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    private static boolean hasWordCharacter(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (Character.isLetterOrDigit(term.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * LIKE pattern for names starting with the typed text, used to rank those first.
+     */
+    public static String toNamePrefix(String text) {
+        String escaped = text.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+}
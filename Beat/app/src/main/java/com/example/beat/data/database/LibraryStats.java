@@ -0,0 +1,141 @@
+package com.example.beat.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Triggers that keep artist_stats, album_stats and playlist_stats in step with user_song,
+ * local_song and playlist_song, so a song count and play time is one row away instead of
+ * a count over the songs.
+ *
+ * Like the search index triggers, these are created from the database callback on every
+ * open, which covers a fresh install and a destructive rebuild, and from MIGRATION_13_14
+ * on an upgrade; a later migration that rebuilds one of the tables they sit on has to
+ * call {@link #createTriggers} again.
+ *
+ * Artist and album rows are per user and go away when their count drops to zero. Playlist
+ * rows live as long as the playlist and only count songs still in the catalog.
+ */
+public final class LibraryStats {
+
+    private LibraryStats() {
+    }
+
+    // One song of the library, identified by its user_song row, added to (sign "+") or
+    // taken from ("-") the per-user stats of its artist or album
+    private static String adjustForUser(String table, String column, String row, String sign) {
+        String song = "(SELECT %s FROM local_song WHERE songId = " + row + ".songId)";
+        String key = String.format(song, column);
+        String sql = "UPDATE " + table + " SET songCount = songCount " + sign + " 1, " +
+                "totalDuration = totalDuration " + sign + " " + String.format(song, "duration") + " " +
+                "WHERE userId = " + row + ".userId AND " + column + " = " + key + "; ";
+        if (sign.equals("+")) {
+            return "INSERT OR IGNORE INTO " + table + " (userId, " + column + ", songCount, totalDuration) " +
+                    "SELECT " + row + ".userId, " + column + ", 0, 0 FROM local_song " +
+                    "WHERE songId = " + row + ".songId AND " + column + " IS NOT NULL; " + sql;
+        }
+        return sql + "DELETE FROM " + table + " WHERE userId = " + row + ".userId AND " +
+                column + " = " + key + " AND songCount <= 0; ";
+    }
+
+    // One catalog song, as a local_song row, added to or taken from the stats of its artist
+    // or album in every library holding it
+    private static String adjustForSong(String table, String column, String row, String sign) {
+        String users = "userId IN (SELECT userId FROM user_song WHERE songId = " + row + ".songId)";
+        String sql = "UPDATE " + table + " SET songCount = songCount " + sign + " 1, " +
+                "totalDuration = totalDuration " + sign + " " + row + ".duration " +
+                "WHERE " + column + " = " + row + "." + column + " AND " + users + "; ";
+        if (sign.equals("+")) {
+            return "INSERT OR IGNORE INTO " + table + " (userId, " + column + ", songCount, totalDuration) " +
+                    "SELECT userId, " + row + "." + column + ", 0, 0 FROM user_song " +
+                    "WHERE songId = " + row + ".songId AND " + row + "." + column + " IS NOT NULL; " + sql;
+        }
+        return sql + "DELETE FROM " + table + " WHERE " + column + " = " + row + "." + column +
+                " AND " + users + " AND songCount <= 0; ";
+    }
+
+    // One catalog song added to or taken from every playlist holding it
+    private static String adjustPlaylists(String row, String sign) {
+        return "UPDATE playlist_stats SET songCount = songCount " + sign + " 1, " +
+                "totalDuration = totalDuration " + sign + " " + row + ".duration " +
+                "WHERE playlistId IN (SELECT playlistId FROM playlist_song WHERE songId = " + row + ".songId); ";
+    }
+
+    // A playlist_song row counted or uncounted; rows whose song has left the catalog were
+    // uncounted when it left
+    private static String adjustPlaylist(String row, String sign) {
+        return "UPDATE playlist_stats SET songCount = songCount " + sign + " 1, " +
+                "totalDuration = totalDuration " + sign + " " +
+                "(SELECT duration FROM local_song WHERE songId = " + row + ".songId) " +
+                "WHERE playlistId = " + row + ".playlistId " +
+                "AND EXISTS (SELECT 1 FROM local_song WHERE songId = " + row + ".songId); ";
+    }
+
+    public static void createTriggers(@NonNull SupportSQLiteDatabase db) {
+        // Library membership
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_user_song_insert AFTER INSERT ON user_song BEGIN " +
+                adjustForUser("artist_stats", "artistId", "new", "+") +
+                adjustForUser("album_stats", "albumId", "new", "+") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_user_song_delete AFTER DELETE ON user_song BEGIN " +
+                adjustForUser("artist_stats", "artistId", "old", "-") +
+                adjustForUser("album_stats", "albumId", "old", "-") + "END");
+
+        // Catalog songs. A deleted song is taken out before the row goes: its user_song rows
+        // are deleted through the foreign key afterwards, and by then there is no song for
+        // them to subtract, so nothing is counted twice. Deleting an artist or album sets
+        // songs' ids to NULL through a foreign key, which runs the update trigger.
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_song_insert AFTER INSERT ON local_song BEGIN " +
+                adjustPlaylists("new", "+") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_song_update " +
+                "AFTER UPDATE OF artistId, albumId, duration ON local_song " +
+                "WHEN old.artistId IS NOT new.artistId OR old.albumId IS NOT new.albumId " +
+                "OR old.duration != new.duration BEGIN " +
+                adjustForSong("artist_stats", "artistId", "old", "-") +
+                adjustForSong("artist_stats", "artistId", "new", "+") +
+                adjustForSong("album_stats", "albumId", "old", "-") +
+                adjustForSong("album_stats", "albumId", "new", "+") +
+                adjustPlaylists("old", "-") +
+                adjustPlaylists("new", "+") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_song_delete BEFORE DELETE ON local_song BEGIN " +
+                adjustForSong("artist_stats", "artistId", "old", "-") +
+                adjustForSong("album_stats", "albumId", "old", "-") +
+                adjustPlaylists("old", "-") + "END");
+
+        // Playlists
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_playlist_insert AFTER INSERT ON playlist BEGIN " +
+                "INSERT OR IGNORE INTO playlist_stats (playlistId, songCount, totalDuration) " +
+                "VALUES (new.playlistId, 0, 0); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_playlist_delete AFTER DELETE ON playlist BEGIN " +
+                "DELETE FROM playlist_stats WHERE playlistId = old.playlistId; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_playlist_song_insert AFTER INSERT ON playlist_song BEGIN " +
+                adjustPlaylist("new", "+") + "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stats_playlist_song_delete AFTER DELETE ON playlist_song BEGIN " +
+                adjustPlaylist("old", "-") + "END");
+    }
+
+    /**
+     * Count everything again from the library as it is. For filling the tables when they
+     * are first created; the triggers keep them current after that.
+     */
+    public static void rebuild(@NonNull SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM artist_stats");
+        db.execSQL("INSERT INTO artist_stats (userId, artistId, songCount, totalDuration) " +
+                "SELECT user_song.userId, local_song.artistId, COUNT(*), SUM(local_song.duration) " +
+                "FROM user_song JOIN local_song ON local_song.songId = user_song.songId " +
+                "WHERE local_song.artistId IS NOT NULL " +
+                "GROUP BY user_song.userId, local_song.artistId");
+        db.execSQL("DELETE FROM album_stats");
+        db.execSQL("INSERT INTO album_stats (userId, albumId, songCount, totalDuration) " +
+                "SELECT user_song.userId, local_song.albumId, COUNT(*), SUM(local_song.duration) " +
+                "FROM user_song JOIN local_song ON local_song.songId = user_song.songId " +
+                "WHERE local_song.albumId IS NOT NULL " +
+                "GROUP BY user_song.userId, local_song.albumId");
+        db.execSQL("DELETE FROM playlist_stats");
+        db.execSQL("INSERT INTO playlist_stats (playlistId, songCount, totalDuration) " +
+                "SELECT playlist.playlistId, COUNT(local_song.songId), IFNULL(SUM(local_song.duration), 0) " +
+                "FROM playlist " +
+                "LEFT JOIN playlist_song ON playlist_song.playlistId = playlist.playlistId " +
+                "LEFT JOIN local_song ON local_song.songId = playlist_song.songId " +
+                "GROUP BY playlist.playlistId");
+    }
+}
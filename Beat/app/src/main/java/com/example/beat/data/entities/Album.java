@@ -4,10 +4,16 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.Parcelable.Creator;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
-@Entity(tableName = "album")
+@Entity(tableName = "album",
+        indices = {
+                // Lookup by name and artist while scanning, and grouping by name for the album list
+                @Index({"name", "artistId"})
+        }
+)
 public class Album implements Parcelable {
     @PrimaryKey(autoGenerate = true)
     public int albumId;
@@ -0,0 +1,20 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Embedded;
+
+/**
+ * One row of the grouped album query: a song of the user's library together with the
+ * album it is listed under. Albums that share a name are merged under the one with the
+ * lowest id, so every song of the group carries the same album.
+ */
+public class AlbumSongRow {
+    @Embedded(prefix = "album_")
+    public Album album;
+
+    @Embedded
+    public LocalSong song;
+
+    public AlbumSongRow() {
+        // Required empty constructor for Room
+    }
+}
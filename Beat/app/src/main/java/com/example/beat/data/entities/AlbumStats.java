@@ -0,0 +1,22 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Entity;
+
+/**
+ * How many songs of an album a user's library holds and how long they play. Kept by the
+ * triggers in {@link com.example.beat.data.database.LibraryStats}, never written from code.
+ */
+@Entity(tableName = "album_stats",
+        primaryKeys = {"userId", "albumId"}
+)
+public class AlbumStats {
+    public int userId;
+    public int albumId;
+    public int songCount;
+    // Milliseconds
+    public long totalDuration;
+
+    public AlbumStats() {
+        // Required empty constructor for Room
+    }
+}
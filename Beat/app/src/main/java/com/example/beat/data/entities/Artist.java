@@ -3,9 +3,14 @@ package com.example.beat.data.entities;
 import android.os.Parcel;
 import android.os.Parcelable;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "artist")
+@Entity(tableName = "artist",
+        indices = {
+                @Index("name")
+        }
+)
 public class Artist implements Parcelable {
     @PrimaryKey(autoGenerate = true)
     public int artistId;
@@ -0,0 +1,22 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Entity;
+
+/**
+ * How many songs of an artist a user's library holds and how long they play. Kept by the
+ * triggers in {@link com.example.beat.data.database.LibraryStats}, never written from code.
+ */
+@Entity(tableName = "artist_stats",
+        primaryKeys = {"userId", "artistId"}
+)
+public class ArtistStats {
+    public int userId;
+    public int artistId;
+    public int songCount;
+    // Milliseconds
+    public long totalDuration;
+
+    public ArtistStats() {
+        // Required empty constructor for Room
+    }
+}
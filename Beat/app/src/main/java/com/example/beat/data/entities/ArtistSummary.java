@@ -0,0 +1,25 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Embedded;
+
+/**
+ * An artist of the user's library with everything the artist list shows, so a row can
+ * be bound without going back to the database.
+ */
+public class ArtistSummary {
+    @Embedded
+    public Artist artist;
+
+    // Songs of this artist in the user's library (artist.songCount is not kept up to date)
+    public int trackCount;
+    // Sum of the song durations, in milliseconds
+    public long totalDuration;
+    // MediaStore album art of one of the songs, or null if none has any
+    public String artUri;
+    // Song to extract embedded art from when there is no MediaStore art
+    public String artFilePath;
+
+    public ArtistSummary() {
+        // Required empty constructor for Room
+    }
+}
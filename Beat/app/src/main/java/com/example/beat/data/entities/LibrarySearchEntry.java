@@ -0,0 +1,28 @@
+package com.example.beat.data.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Full-text index over song titles, artist names and album names. It is never written
+ * from Java: triggers on local_song, artist and album keep it in sync (see
+ * {@link com.example.beat.data.database.LibrarySearchIndex}).
+ *
+ * Songs, artists and albums share the table, so the rowid carries the kind of row in its
+ * low bits: rowid = id * {@link SearchResult#KIND_STRIDE} + kind. That lets a trigger drop
+ * the entry of a deleted row by rowid instead of scanning the index.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "library_fts")
+public class LibrarySearchEntry {
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    public int rowid;
+    // Song title, artist name or album name
+    public String name;
+    // What else the row should be found by: artist and album of a song, artist of an album
+    public String context;
+}
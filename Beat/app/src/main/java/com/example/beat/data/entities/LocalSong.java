@@ -8,17 +8,24 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import java.io.Serializable;
 
+// Shared catalog of the device's songs; which users have a song is kept in user_song
 @Entity(tableName = "local_song",
         foreignKeys = {
-                @ForeignKey(entity = User.class, parentColumns = "userId", childColumns = "userId", onDelete = ForeignKey.CASCADE),
                 @ForeignKey(entity = Artist.class, parentColumns = "artistId", childColumns = "artistId", onDelete = ForeignKey.SET_NULL),
                 @ForeignKey(entity = Album.class, parentColumns = "albumId", childColumns = "albumId", onDelete = ForeignKey.SET_NULL)
         },
         indices = {
-                @Index("userId"),
                 @Index("artistId"),
-                @Index("albumId"),
-                @Index(value = {"filePath", "userId"}, unique = true)
+                // Album track order; also serves lookups by albumId alone
+                @Index({"albumId", "trackNumber"}),
+                @Index(value = {"filePath"}, unique = true),
+                @Index("mediaStoreId"),
+                @Index("contentHash"),
+                // Keyset paging walks this in (title, songId) order; songId is the rowid
+                @Index("title"),
+                @Index("duration"),
+                // Recently added
+                @Index("dateAdded")
         }
 )
 public class LocalSong implements Parcelable, Serializable {
@@ -27,10 +34,16 @@ public class LocalSong implements Parcelable, Serializable {
         songId = in.readInt();
         title = in.readString();
         filePath = in.readString();
-        userId = in.readInt();
         artistId = in.readInt();
         albumId = in.readInt();
         albumArtUri = in.readString();  // read album art URI from parcel
+        mediaStoreId = in.readLong();
+        fileSize = in.readLong();
+        duration = in.readLong();
+        contentHash = in.readString();
+        trackNumber = in.readInt();
+        year = in.readInt();
+        dateAdded = in.readLong();
     }
 
     public static final Creator<LocalSong> CREATOR = new Creator<LocalSong>() {
@@ -55,10 +68,16 @@ public class LocalSong implements Parcelable, Serializable {
         dest.writeInt(songId);
         dest.writeString(title);
         dest.writeString(filePath);
-        dest.writeInt(userId);
         dest.writeInt(artistId != null ? artistId : 0);
         dest.writeInt(albumId != null ? albumId : 0);
         dest.writeString(albumArtUri);  // write album art URI to parcel
+        dest.writeLong(mediaStoreId);
+        dest.writeLong(fileSize);
+        dest.writeLong(duration);
+        dest.writeString(contentHash);
+        dest.writeInt(trackNumber);
+        dest.writeInt(year);
+        dest.writeLong(dateAdded);
     }
 
     @PrimaryKey(autoGenerate = true)
@@ -66,13 +85,25 @@ public class LocalSong implements Parcelable, Serializable {
 
     private String title;
     private String filePath;
-    private int userId;
     private Integer artistId;
     private Integer albumId;
 
     // New field for album art URI
     private String albumArtUri;
 
+    // MediaStore.Audio.Media._ID of the file, 0 for rows scanned before it was stored
+    private long mediaStoreId;
+
+    // Fingerprint used to follow a file that was moved or renamed, see FileFingerprint
+    private long fileSize;
+    private long duration;
+    private String contentHash;
+
+    // MediaStore TRACK (disc * 1000 + track), YEAR and DATE_ADDED (seconds); 0 when unknown
+    private int trackNumber;
+    private int year;
+    private long dateAdded;
+
     public LocalSong() {
         // Default constructor required by Room
     }
@@ -108,14 +139,6 @@ public class LocalSong implements Parcelable, Serializable {
         this.filePath = filePath;
     }
 
-    public int getUserId() {
-        return userId;
-    }
-
-    public void setUserId(int userId) {
-        this.userId = userId;
-    }
-
     public Integer getArtistId() {
         return artistId;
     }
@@ -139,4 +162,60 @@ public class LocalSong implements Parcelable, Serializable {
     public void setAlbumArtUri(String albumArtUri) {
         this.albumArtUri = albumArtUri;
     }
+
+    public long getMediaStoreId() {
+        return mediaStoreId;
+    }
+
+    public void setMediaStoreId(long mediaStoreId) {
+        this.mediaStoreId = mediaStoreId;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getTrackNumber() {
+        return trackNumber;
+    }
+
+    public void setTrackNumber(int trackNumber) {
+        this.trackNumber = trackNumber;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public long getDateAdded() {
+        return dateAdded;
+    }
+
+    public void setDateAdded(long dateAdded) {
+        this.dateAdded = dateAdded;
+    }
 }
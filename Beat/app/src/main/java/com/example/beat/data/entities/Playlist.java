@@ -1,6 +1,7 @@
 package com.example.beat.data.entities;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
@@ -12,7 +13,11 @@ import java.io.Serializable;
 import android.os.Parcel;
 import android.os.Parcelable;
 
-@Entity(tableName = "playlist")
+@Entity(tableName = "playlist",
+        indices = {
+                @Index("userId")
+        }
+)
 public class Playlist implements Parcelable, Serializable {
     private static final long serialVersionUID = 1L;
     @PrimaryKey(autoGenerate = true)
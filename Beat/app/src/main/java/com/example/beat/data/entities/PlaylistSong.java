@@ -1,9 +1,17 @@
 package com.example.beat.data.entities;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "playlist_song")
+// A song appears at most once per playlist; inserts of a song already there are ignored
+@Entity(tableName = "playlist_song",
+        indices = {
+                @Index(value = {"playlistId", "songId"}, unique = true),
+                // Removing songs from every playlist when they leave the catalog
+                @Index("songId")
+        }
+)
 public class PlaylistSong {
     @PrimaryKey(autoGenerate = true)
     private int id;
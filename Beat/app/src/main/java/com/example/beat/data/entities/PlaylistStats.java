@@ -0,0 +1,22 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * How many songs a playlist holds and how long they play, counting only songs still in the
+ * catalog. Kept by the triggers in {@link com.example.beat.data.database.LibraryStats},
+ * never written from code.
+ */
+@Entity(tableName = "playlist_stats")
+public class PlaylistStats {
+    @PrimaryKey
+    public int playlistId;
+    public int songCount;
+    // Milliseconds
+    public long totalDuration;
+
+    public PlaylistStats() {
+        // Required empty constructor for Room
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * How far an interrupted library scan got. Written in the same transaction as each
+ * batch of songs, so it never claims more than what is actually in local_song.
+ */
+@Entity(tableName = "scan_checkpoint")
+public class ScanCheckpoint {
+    // The song catalog is shared, so there is a single checkpoint row
+    public static final int CATALOG = 1;
+
+    @PrimaryKey
+    public int id = CATALOG;
+    // Every MediaStore row up to and including this _ID has been handled
+    public long lastMediaStoreId;
+    public int batchNumber;
+    // Rows handled so far, used to report progress after a resume
+    public int processedCount;
+
+    public ScanCheckpoint() {}
+}
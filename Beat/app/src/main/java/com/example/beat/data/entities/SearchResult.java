@@ -0,0 +1,22 @@
+package com.example.beat.data.entities;
+
+/**
+ * One hit of a library search: a song, artist or album of the user's library.
+ */
+public class SearchResult {
+    public static final int KIND_SONG = 0;
+    public static final int KIND_ARTIST = 1;
+    public static final int KIND_ALBUM = 2;
+    // Multiplier of the id in library_fts rowids, leaving room for the kind
+    public static final int KIND_STRIDE = 4;
+
+    // One of the KIND_ constants
+    public int kind;
+    // songId, artistId or albumId, depending on kind
+    public int refId;
+    public String name;
+
+    public SearchResult() {
+        // Required empty constructor for Room
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.beat.data.entities;
+
+import java.util.Locale;
+
+/**
+ * Song count and play time of an album, artist or playlist, read from the stats tables.
+ */
+public class SongTotals {
+    public int songCount;
+    // Milliseconds
+    public long totalDuration;
+
+    public SongTotals() {
+        // Required empty constructor for Room
+    }
+
+    // As the lists show it under a name, e.g. "12 songs • 47 min"
+    public String describe() {
+        return String.format(Locale.getDefault(), "%d songs \u2022 %d min",
+                songCount, totalDuration / 60000);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.beat.data.entities;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+/**
+ * A song of the shared catalog that is in a user's library. Rows go away with the user
+ * or with the catalog song.
+ */
+@Entity(tableName = "user_song",
+        primaryKeys = {"userId", "songId"},
+        foreignKeys = {
+                @ForeignKey(entity = User.class, parentColumns = "userId", childColumns = "userId", onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = LocalSong.class, parentColumns = "songId", childColumns = "songId", onDelete = ForeignKey.CASCADE)
+        },
+        indices = {
+                @Index("songId")
+        }
+)
+public class UserSong {
+    public int userId;
+    public int songId;
+
+    public UserSong() {}
+
+    public UserSong(int userId, int songId) {
+        this.userId = userId;
+        this.songId = songId;
+    }
+}
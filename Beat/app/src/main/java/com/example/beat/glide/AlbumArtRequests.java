@@ -0,0 +1,220 @@
+package com.example.beat.glide;
+
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.Request;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.Target;
+import com.example.beat.R;
+import com.example.beat.utils.AlbumArtResolver;
+import com.example.beat.utils.AlbumArtResolver.ArtState;
+
+import java.io.FileNotFoundException;
+
+/**
+ * The one way a song's cover is put on screen: the stored album art URI (MediaStore,
+ * remote or a file:// audio path), then the art embedded in the song's file, then the
+ * default cover. Whether a MediaStore album has a provider cover is remembered in
+ * {@link AlbumArtResolver}, so later rows of an album without one go straight to their
+ * files' embedded art. What one file embeds says nothing about the album's other files,
+ * so embedded results are not recorded there.
+ *
+ * Glide ties the request to the view, so binding a recycled row replaces its old request.
+ *
+ * Rows get {@link #loadThumbnail}: covers decoded at list size in RGB_565, a quarter of the
+ * memory of a full ARGB_8888 cover. The full-size {@link #load} shows that same thumbnail,
+ * often already in memory, while the large cover decodes.
+ *
+ * A view that isn't attached yet, i.e. a row RecyclerView's prefetch binds ahead of the
+ * scroll, loads at low priority behind the rows on screen, and moves up when it is attached.
+ */
+public final class AlbumArtRequests {
+
+    private AlbumArtRequests() {
+    }
+
+    /**
+     * Full-size cover, for the player screens.
+     *
+     * @param albumArtUri what the song stores as album art, may be null or empty
+     * @param filePath the song's audio file, or null when it has none (e.g. a stream)
+     */
+    public static void load(ImageView view, @Nullable String albumArtUri, @Nullable String filePath) {
+        load(view, albumArtUri, filePath, false);
+    }
+
+    /**
+     * List-size cover, for song, album and artist rows and the mini player.
+     *
+     * @see #load(ImageView, String, String)
+     */
+    public static void loadThumbnail(ImageView view, @Nullable String albumArtUri, @Nullable String filePath) {
+        load(view, albumArtUri, filePath, true);
+    }
+
+    // Same size, format and crop for every list-size request, so rows and the players'
+    // thumbnails share one memory cache entry per cover. The decoded thumbnail also goes to
+    // the disk cache, whatever the source, so a row that is no longer in memory decodes a
+    // small file instead of parsing the audio file or fetching the remote cover again.
+    private static RequestOptions thumbnailOptions(ImageView view) {
+        int size = view.getResources().getDimensionPixelSize(R.dimen.list_art_size);
+        return new RequestOptions()
+                .override(size)
+                .format(DecodeFormat.PREFER_RGB_565)
+                .centerCrop()
+                .diskCacheStrategy(DiskCacheStrategy.RESOURCE);
+    }
+
+    /**
+     * @param listSize whether to load at list size, or at full size with the list-size
+     *                 cover as each request's thumbnail
+     */
+    private static void load(ImageView view, @Nullable String albumArtUri, @Nullable String filePath,
+                             boolean listSize) {
+        boolean attached = view.getWindowToken() != null;
+        RequestOptions options = (listSize ? thumbnailOptions(view) : new RequestOptions())
+                .priority(attached ? Priority.HIGH : Priority.LOW);
+        RequestOptions thumbnail = listSize ? null : thumbnailOptions(view);
+
+        RequestManager glide = Glide.with(view);
+        AlbumArtResolver resolver = AlbumArtResolver.getInstance();
+        ArtState state = resolver.peek(albumArtUri);
+
+        RequestBuilder<Drawable> embedded = null;
+        if (filePath != null && !filePath.isEmpty() && !filePath.startsWith("http")) {
+            embedded = request(glide, new EmbeddedArt(filePath), options, thumbnail)
+                    .error(R.drawable.default_album_art);
+        }
+
+        Request started;
+        boolean hasUri = albumArtUri != null && !albumArtUri.isEmpty();
+        if (hasUri && state != ArtState.EMBEDDED_ONLY) {
+            RequestBuilder<Drawable> request = request(glide, albumArtUri, options, thumbnail)
+                    .placeholder(R.drawable.default_album_art)
+                    // A MediaStore album without a cover may still have covers in its files
+                    .listener(remember(resolver, albumArtUri));
+            if (embedded != null) {
+                request = request.error(embedded);
+            } else {
+                request = request.error(R.drawable.default_album_art);
+            }
+            started = request.into(view).getRequest();
+        } else if (embedded != null) {
+            started = embedded.placeholder(R.drawable.default_album_art).into(view).getRequest();
+        } else {
+            PrefetchedView.forget(view);
+            glide.clear(view);
+            view.setImageResource(R.drawable.default_album_art);
+            return;
+        }
+
+        if (attached) {
+            PrefetchedView.forget(view);
+        } else {
+            PrefetchedView.watch(view, started, () -> load(view, albumArtUri, filePath, listSize));
+        }
+    }
+
+    private static RequestBuilder<Drawable> request(RequestManager glide, Object model,
+                                                    RequestOptions options,
+                                                    @Nullable RequestOptions thumbnail) {
+        RequestBuilder<Drawable> request = glide.load(model).apply(options);
+        if (thumbnail != null) {
+            request = request.thumbnail(glide.load(model).apply(thumbnail));
+        }
+        return request;
+    }
+
+    // Records whether the album art URI's album has a provider cover; a no-op for URIs that
+    // aren't MediaStore album art
+    private static RequestListener<Drawable> remember(AlbumArtResolver resolver, String albumArtUri) {
+        return new RequestListener<Drawable>() {
+            @Override
+            public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                        Target<Drawable> target, boolean isFirstResource) {
+                if (isMissingCover(e)) {
+                    resolver.remember(albumArtUri, ArtState.EMBEDDED_ONLY);
+                }
+                return false;
+            }
+
+            @Override
+            public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                           DataSource dataSource, boolean isFirstResource) {
+                resolver.remember(albumArtUri, ArtState.PRESENT);
+                return false;
+            }
+        };
+    }
+
+    // The provider answers FileNotFoundException for an album without a cover. Anything
+    // else, e.g. a provider that is busy or a cover that failed to decode, may go away, so
+    // the album is tried again next time.
+    private static boolean isMissingCover(@Nullable GlideException e) {
+        if (e == null || e.getRootCauses().isEmpty()) {
+            return false;
+        }
+        for (Throwable cause : e.getRootCauses()) {
+            if (!(cause instanceof FileNotFoundException)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves a prefetched view's load up once the view is attached. Glide can't change the
+     * priority of a request it has started, so a load that is still running starts over
+     * at high priority; one that was only queued loses nothing by it.
+     */
+    private static final class PrefetchedView implements View.OnAttachStateChangeListener {
+        private final Request request;
+        private final Runnable reload;
+
+        private PrefetchedView(Request request, Runnable reload) {
+            this.request = request;
+            this.reload = reload;
+        }
+
+        static void watch(View view, Request request, Runnable reload) {
+            forget(view);
+            PrefetchedView watcher = new PrefetchedView(request, reload);
+            view.setTag(R.id.album_art_prefetched, watcher);
+            view.addOnAttachStateChangeListener(watcher);
+        }
+
+        // The view was bound again, or to something that needs no load
+        static void forget(View view) {
+            Object previous = view.getTag(R.id.album_art_prefetched);
+            if (previous instanceof PrefetchedView) {
+                view.removeOnAttachStateChangeListener((PrefetchedView) previous);
+                view.setTag(R.id.album_art_prefetched, null);
+            }
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View view) {
+            forget(view);
+            if (request.isRunning()) {
+                reload.run();
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View view) {
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.beat.glide;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Lets the "file://" + audio path the scanner stores in albumArtUri, for songs without
+ * MediaStore art, be loaded like any other art URI: it is turned into an
+ * {@link EmbeddedArt} request. file:// URIs of images are left to Glide's own loaders.
+ */
+public class AudioFileUriLoader implements ModelLoader<String, InputStream> {
+    private static final String SCHEME = "file://";
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp", ".gif", ".bmp"};
+
+    private final ModelLoader<EmbeddedArt, InputStream> embeddedArtLoader;
+
+    AudioFileUriLoader(ModelLoader<EmbeddedArt, InputStream> embeddedArtLoader) {
+        this.embeddedArtLoader = embeddedArtLoader;
+    }
+
+    @Override
+    public LoadData<InputStream> buildLoadData(@NonNull String model, int width, int height,
+                                               @NonNull Options options) {
+        return embeddedArtLoader.buildLoadData(
+                new EmbeddedArt(model.substring(SCHEME.length())), width, height, options);
+    }
+
+    @Override
+    public boolean handles(@NonNull String model) {
+        if (!model.startsWith(SCHEME) || model.length() == SCHEME.length()) {
+            return false;
+        }
+        String lower = model.toLowerCase(Locale.ROOT);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static class Factory implements ModelLoaderFactory<String, InputStream> {
+        @NonNull
+        @Override
+        public ModelLoader<String, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new AudioFileUriLoader(multiFactory.build(EmbeddedArt.class, InputStream.class));
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.beat.glide;
+
+import android.app.ActivityManager;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.Excludes;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpLibraryGlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.example.beat.utils.SharedHttpClient;
+
+import java.io.InputStream;
+
+/**
+ * App-wide Glide setup: teaches Glide to read art embedded in audio files, so MediaStore
+ * covers, embedded covers and remote covers all share one cached pipeline, and sizes
+ * Glide's caches for a library of covers.
+ */
+@GlideModule
+// Its registration would replace ours with a client of its own
+@Excludes(OkHttpLibraryGlideModule.class)
+public class BeatGlideModule extends AppGlideModule {
+    private static final int MB = 1024 * 1024;
+    // Covers don't change, so a library's worth of them can stay on disk
+    private static final long DISK_CACHE_BYTES = 250L * MB;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        long heapBytes = (long) activityManager.getMemoryClass() * MB;
+        // A screen of list rows is a few MB of RGB_565 thumbnails; the rest of the share
+        // keeps recently scrolled past rows and the player's cover. Low-RAM devices get less.
+        boolean lowRam = activityManager.isLowRamDevice();
+        long memoryCacheBytes = heapBytes / (lowRam ? 16 : 8);
+        long bitmapPoolBytes = heapBytes / (lowRam ? 16 : 10);
+
+        builder.setMemoryCache(new LruResourceCache(memoryCacheBytes));
+        builder.setBitmapPool(new LruBitmapPool(bitmapPoolBytes));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, "image_manager_disk_cache", DISK_CACHE_BYTES));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.append(EmbeddedArt.class, InputStream.class, new EmbeddedArtLoader.Factory(context));
+        // Ahead of Glide's own String loaders, which would hand it the audio file to decode
+        registry.prepend(String.class, InputStream.class, new AudioFileUriLoader.Factory());
+        // Deezer covers over the app's client rather than HttpURLConnection
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(SharedHttpClient.get()));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
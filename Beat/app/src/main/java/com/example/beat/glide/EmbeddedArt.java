@@ -0,0 +1,34 @@
+package com.example.beat.glide;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Glide model for the picture embedded in an audio file's tags, e.g.
+ * {@code Glide.with(view).load(new EmbeddedArt(song.getFilePath()))}.
+ *
+ * Requests are cached by path in memory; on disk the key also carries the file's size and
+ * modification time, so retagging a file shows its new cover.
+ */
+public final class EmbeddedArt {
+    public final String filePath;
+
+    public EmbeddedArt(@NonNull String filePath) {
+        this.filePath = filePath;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EmbeddedArt && filePath.equals(((EmbeddedArt) o).filePath);
+    }
+
+    @Override
+    public int hashCode() {
+        return filePath.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "EmbeddedArt{" + filePath + "}";
+    }
+}
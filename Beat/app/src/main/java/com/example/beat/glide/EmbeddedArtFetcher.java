@@ -0,0 +1,88 @@
+package com.example.beat.glide;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.example.beat.utils.AlbumArtExtractor;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the undecoded picture out of an audio file; Glide samples it down to the target
+ * size while decoding. Runs on Glide's source executor.
+ *
+ * A file that was read and has no picture is recorded in withoutArt under its fingerprint,
+ * and fails straight away from then on. A file that couldn't be read isn't recorded.
+ *
+ * Glide cancels the fetch when the row's request is cleared, e.g. the row was recycled for
+ * another song. The read stops at its next step, before a picture's bytes are read or the
+ * retriever is started, and leaves Glide's source thread to the rows still on screen.
+ */
+class EmbeddedArtFetcher implements DataFetcher<InputStream> {
+    private final Context context;
+    private final String filePath;
+    private final String fingerprint;
+    private final LruCache<String, Boolean> withoutArt;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    EmbeddedArtFetcher(Context context, String filePath, String fingerprint,
+                       LruCache<String, Boolean> withoutArt) {
+        this.context = context;
+        this.filePath = filePath;
+        this.fingerprint = fingerprint;
+        this.withoutArt = withoutArt;
+    }
+
+    @Override
+    public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
+        if (withoutArt.get(fingerprint) != null) {
+            callback.onLoadFailed(new FileNotFoundException("No embedded art in " + filePath));
+            return;
+        }
+
+        byte[] picture;
+        try {
+            picture = AlbumArtExtractor.readEmbeddedPicture(context, filePath, cancelled);
+        } catch (IOException e) {
+            callback.onLoadFailed(e);
+            return;
+        }
+        if (picture == null || picture.length == 0) {
+            withoutArt.put(fingerprint, Boolean.TRUE);
+            callback.onLoadFailed(new FileNotFoundException("No embedded art in " + filePath));
+            return;
+        }
+        callback.onDataReady(new ByteArrayInputStream(picture));
+    }
+
+    @Override
+    public void cleanup() {
+        // Nothing held open; the stream is over a byte array
+    }
+
+    @Override
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    @NonNull
+    @Override
+    public Class<InputStream> getDataClass() {
+        return InputStream.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+        return DataSource.LOCAL;
+    }
+}
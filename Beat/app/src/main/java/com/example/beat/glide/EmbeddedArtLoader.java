@@ -0,0 +1,68 @@
+package com.example.beat.glide;
+
+import android.content.Context;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.signature.ObjectKey;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Loads {@link EmbeddedArt} models through {@link EmbeddedArtFetcher}.
+ *
+ * Glide caches the covers it decodes, but not failures, so a file without a picture would
+ * be parsed on every bind. The files found to have none are remembered by the same
+ * fingerprint that keys Glide's caches, so a file that is retagged is read again.
+ */
+public class EmbeddedArtLoader implements ModelLoader<EmbeddedArt, InputStream> {
+    // Keys are short strings; a library's worth of them is a few hundred KB at most
+    private static final int MAX_WITHOUT_ART = 4096;
+
+    private final Context context;
+    private final LruCache<String, Boolean> withoutArt;
+
+    EmbeddedArtLoader(Context context, LruCache<String, Boolean> withoutArt) {
+        this.context = context;
+        this.withoutArt = withoutArt;
+    }
+
+    @Override
+    public LoadData<InputStream> buildLoadData(@NonNull EmbeddedArt model, int width, int height,
+                                               @NonNull Options options) {
+        File file = new File(model.filePath);
+        String fingerprint = model.filePath + "|" + file.length() + "|" + file.lastModified();
+        return new LoadData<>(new ObjectKey(fingerprint),
+                new EmbeddedArtFetcher(context, model.filePath, fingerprint, withoutArt));
+    }
+
+    @Override
+    public boolean handles(@NonNull EmbeddedArt model) {
+        return !model.filePath.isEmpty();
+    }
+
+    public static class Factory implements ModelLoaderFactory<EmbeddedArt, InputStream> {
+        private final Context context;
+        private final LruCache<String, Boolean> withoutArt = new LruCache<>(MAX_WITHOUT_ART);
+
+        public Factory(Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        @NonNull
+        @Override
+        public ModelLoader<EmbeddedArt, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new EmbeddedArtLoader(context, withoutArt);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
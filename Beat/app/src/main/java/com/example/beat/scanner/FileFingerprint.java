@@ -0,0 +1,73 @@
+package com.example.beat.scanner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Cheap content fingerprint used to recognise a file that was moved or renamed.
+ *
+ * Only the first and last few KB are read, which is enough to tell audio files apart
+ * (tags at the front, tags or the last frames at the back) while keeping the cost per
+ * file to two small reads. Size and duration are compared separately by the caller.
+ */
+public final class FileFingerprint {
+    static final int SAMPLE_BYTES = 4096;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private FileFingerprint() {
+    }
+
+    /**
+     * @return hex MD5 of the file length, head and tail, or null if the file can't be read
+     */
+    public static String compute(File file) {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long length = in.length();
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] buffer = new byte[SAMPLE_BYTES];
+
+            for (int i = 0; i < 8; i++) {
+                digest.update((byte) (length >>> (8 * i)));
+            }
+
+            int read = readFully(in, buffer, (int) Math.min(SAMPLE_BYTES, length));
+            digest.update(buffer, 0, read);
+
+            if (length > SAMPLE_BYTES) {
+                // The tail may overlap the head for small files; that's fine
+                in.seek(Math.max(SAMPLE_BYTES, length - SAMPLE_BYTES));
+                read = readFully(in, buffer, (int) Math.min(SAMPLE_BYTES, length - SAMPLE_BYTES));
+                digest.update(buffer, 0, read);
+            }
+
+            return toHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    private static int readFully(RandomAccessFile in, byte[] buffer, int count) throws IOException {
+        int total = 0;
+        while (total < count) {
+            int read = in.read(buffer, total, count - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
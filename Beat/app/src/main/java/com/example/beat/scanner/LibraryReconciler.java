@@ -0,0 +1,145 @@
+package com.example.beat.scanner;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.dao.PlaylistDao;
+import com.example.beat.data.database.AppDatabase;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes catalog rows whose file is no longer in MediaStore, and follows files that
+ * MediaStore still knows under the same id but at a new path.
+ *
+ * Both sides are read as cursors sorted by MediaStore id and walked together once, so
+ * the cost is two sequential reads no matter how large the library is. Rows scanned
+ * before MediaStore ids were stored (id 0) fall back to a file check until a rescan
+ * fills their id in.
+ */
+public class LibraryReconciler {
+    private static final String TAG = "LibraryReconciler";
+
+    // Stay well below SQLite's default limit of 999 bound variables
+    private static final int MAX_IDS_PER_STATEMENT = 900;
+
+    private final Context context;
+    private final AppDatabase database;
+    private final MusicDao musicDao;
+    private final PlaylistDao playlistDao;
+
+    public LibraryReconciler(Context context, AppDatabase database) {
+        this.context = context;
+        this.database = database;
+        this.musicDao = database.musicDao();
+        this.playlistDao = database.playlistDao();
+    }
+
+    /**
+     * @return number of rows removed from the catalog
+     */
+    public int reconcile() {
+        String[] projection = {
+            MediaStore.Audio.Media._ID,
+            MediaStore.Audio.Media.DATA
+        };
+        Cursor storeCursor = context.getContentResolver().query(
+                MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, projection,
+                MediaStore.Audio.Media.IS_MUSIC + "=1", null,
+                MediaStore.Audio.Media._ID + " ASC");
+        if (storeCursor == null) {
+            Log.d(TAG, "MediaStore query returned no cursor, skipping reconciliation");
+            return 0;
+        }
+
+        final List<Integer> staleSongIds = new ArrayList<>();
+        final List<Integer> movedSongIds = new ArrayList<>();
+        final List<String> movedPaths = new ArrayList<>();
+        Cursor songCursor = null;
+        try {
+            if (storeCursor.getCount() == 0) {
+                // More likely an unmounted volume than an empty library; don't wipe anything
+                Log.d(TAG, "MediaStore reported no music, skipping reconciliation");
+                return 0;
+            }
+            songCursor = musicDao.getSongStoreRefsSortedByMediaStoreId();
+            merge(storeCursor, songCursor, staleSongIds, movedSongIds, movedPaths);
+        } finally {
+            storeCursor.close();
+            if (songCursor != null) {
+                songCursor.close();
+            }
+        }
+
+        if (staleSongIds.isEmpty() && movedSongIds.isEmpty()) {
+            return 0;
+        }
+
+        database.runInTransaction(() -> {
+            for (int i = 0; i < movedSongIds.size(); i++) {
+                if (musicDao.updateSongFilePath(movedSongIds.get(i), movedPaths.get(i)) == 0) {
+                    // The new path is already in the library as its own row
+                    staleSongIds.add(movedSongIds.get(i));
+                }
+            }
+            for (int from = 0; from < staleSongIds.size(); from += MAX_IDS_PER_STATEMENT) {
+                List<Integer> chunk = staleSongIds.subList(from,
+                        Math.min(from + MAX_IDS_PER_STATEMENT, staleSongIds.size()));
+                playlistDao.deletePlaylistSongsForSongs(chunk);
+                musicDao.deleteSongsByIds(chunk);
+            }
+        });
+
+        // user_song rows go with the catalog rows through their foreign key
+        Log.d(TAG, "Removed " + staleSongIds.size() + " stale songs, re-pointed "
+                + movedSongIds.size() + " moved songs");
+        return staleSongIds.size();
+    }
+
+    private void merge(Cursor storeCursor, Cursor songCursor, List<Integer> staleSongIds,
+                       List<Integer> movedSongIds, List<String> movedPaths) {
+        int storeIdIndex = storeCursor.getColumnIndexOrThrow(MediaStore.Audio.Media._ID);
+        int storePathIndex = storeCursor.getColumnIndexOrThrow(MediaStore.Audio.Media.DATA);
+        int songIdIndex = songCursor.getColumnIndexOrThrow("songId");
+        int songStoreIdIndex = songCursor.getColumnIndexOrThrow("mediaStoreId");
+        int songPathIndex = songCursor.getColumnIndexOrThrow("filePath");
+
+        boolean hasStore = storeCursor.moveToFirst();
+        boolean hasSong = songCursor.moveToFirst();
+        while (hasSong) {
+            int songId = songCursor.getInt(songIdIndex);
+            long songStoreId = songCursor.getLong(songStoreIdIndex);
+            String songPath = songCursor.getString(songPathIndex);
+
+            if (songStoreId <= 0) {
+                // Legacy row without a MediaStore id, sorted first
+                if (songPath == null || !new File(songPath).exists()) {
+                    staleSongIds.add(songId);
+                }
+                hasSong = songCursor.moveToNext();
+                continue;
+            }
+
+            // Skip MediaStore rows that are not in the library (new files, filtered files)
+            while (hasStore && storeCursor.getLong(storeIdIndex) < songStoreId) {
+                hasStore = storeCursor.moveToNext();
+            }
+
+            if (hasStore && storeCursor.getLong(storeIdIndex) == songStoreId) {
+                String storePath = storeCursor.getString(storePathIndex);
+                if (storePath != null && !storePath.equals(songPath)) {
+                    movedSongIds.add(songId);
+                    movedPaths.add(storePath);
+                }
+            } else {
+                staleSongIds.add(songId);
+            }
+            hasSong = songCursor.moveToNext();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.beat.scanner;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.beat.data.database.AppDatabase;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the local library in step with MediaStore while the app is running.
+ *
+ * MediaStore sends a burst of notifications when files are copied in or a folder is
+ * deleted, so changes are debounced and then applied with an incremental scan, which
+ * only reads the rows whose generation (or date) moved since the last sync, followed by
+ * a {@link LibraryReconciler} pass for files that went away. Room's
+ * invalidation tracker then pushes the new rows to any LiveData query that is observed.
+ *
+ * There is one observer per process, so a sync outlives the activity that asked for it:
+ * an activity recreated on rotation finds the sync still running rather than starting a
+ * second one next to it.
+ */
+public class MediaLibraryObserver extends ContentObserver {
+    private static final String TAG = "MediaLibraryObserver";
+
+    // Wait this long after the last notification before syncing
+    private static final long DEBOUNCE_MS = 1500;
+    // ...but never hold a sync back longer than this during a long burst
+    private static final long MAX_DELAY_MS = 10000;
+
+    /** {@link #getScanProgress()} when no sync is running. */
+    public static final int IDLE = -1;
+
+    private static volatile MediaLibraryObserver instance;
+
+    private final Context context;
+    private final AppDatabase database;
+    private final Handler handler;
+    // One sync at a time in the process; writes to the library are not safe to interleave
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean syncQueued = new AtomicBoolean(false);
+    // Syncs submitted and not yet finished, cancelled by stop()
+    private final List<Future<?>> syncs = new ArrayList<>();
+    private final MutableLiveData<Integer> scanProgress = new MutableLiveData<>(IDLE);
+
+    private volatile int userId = -1;
+    private boolean registered;
+    private long firstPendingChangeAt;
+
+    private final Runnable syncRunnable = () -> {
+        firstPendingChangeAt = 0;
+        requestSync(false);
+    };
+
+    private MediaLibraryObserver(Context context, Handler handler) {
+        super(handler);
+        this.context = context;
+        this.database = AppDatabase.getInstance(context);
+        this.handler = handler;
+    }
+
+    public static MediaLibraryObserver getInstance(Context context) {
+        if (instance == null) {
+            synchronized (MediaLibraryObserver.class) {
+                if (instance == null) {
+                    instance = new MediaLibraryObserver(context.getApplicationContext(),
+                            new Handler(Looper.getMainLooper()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Start listening and catch up on whatever changed while the app was not running.
+     * Calling it again, e.g. from an activity recreated on rotation, only asks for another
+     * catch-up, which is folded into one already waiting.
+     *
+     * @param userId the user whose library syncs add songs to
+     */
+    public void start(int userId) {
+        this.userId = userId;
+        if (!registered) {
+            context.getContentResolver().registerContentObserver(
+                    MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, true, this);
+            registered = true;
+        }
+        requestSync(false);
+    }
+
+    /**
+     * Stop listening and cancel queued syncs. A sync that is running is interrupted; one
+     * started afterwards still waits for it to finish its current batch.
+     */
+    public void stop() {
+        if (registered) {
+            context.getContentResolver().unregisterContentObserver(this);
+            registered = false;
+        }
+        handler.removeCallbacks(syncRunnable);
+        synchronized (syncs) {
+            for (Future<?> sync : syncs) {
+                sync.cancel(true);
+            }
+            syncs.clear();
+        }
+        syncQueued.set(false);
+    }
+
+    /**
+     * Percent of MediaStore rows the running sync has handled, counting any handled before
+     * it resumed from a checkpoint, or {@link #IDLE}.
+     */
+    public LiveData<Integer> getScanProgress() {
+        return scanProgress;
+    }
+
+    @Override
+    public void onChange(boolean selfChange, Uri uri) {
+        Log.d(TAG, "MediaStore changed: " + uri);
+        long now = SystemClock.uptimeMillis();
+        if (firstPendingChangeAt == 0) {
+            firstPendingChangeAt = now;
+        }
+        handler.removeCallbacks(syncRunnable);
+        long delay = Math.min(DEBOUNCE_MS, firstPendingChangeAt + MAX_DELAY_MS - now);
+        handler.postDelayed(syncRunnable, Math.max(0, delay));
+    }
+
+    /**
+     * Queue a sync on the background thread. Requests that arrive while one is already
+     * waiting are folded into it.
+     *
+     * @param fullRescan read the whole library instead of only rows changed since the last sync
+     */
+    public void requestSync(boolean fullRescan) {
+        if (!registered) {
+            return;
+        }
+        if (!fullRescan && !syncQueued.compareAndSet(false, true)) {
+            return;
+        }
+        int syncUserId = userId;
+        Future<?> sync = syncExecutor.submit(() -> {
+            if (!fullRescan) {
+                syncQueued.set(false);
+            }
+            try {
+                MediaStoreScanner scanner = new MediaStoreScanner(context, database, syncUserId);
+                scanProgress.postValue(0);
+                scanner.setProgressListener((processed, total) ->
+                        scanProgress.postValue(total > 0 ? Math.min(100, processed * 100 / total) : 100));
+                if (fullRescan) {
+                    scanner.rescanAllMusicFiles();
+                } else {
+                    scanner.scanMusicFiles();
+                }
+                // Deletions don't move the watermark, so look for them on every sync
+                new LibraryReconciler(context, database).reconcile();
+            } catch (Exception e) {
+                Log.e(TAG, "Library sync failed: " + e.getMessage(), e);
+            } finally {
+                scanProgress.postValue(IDLE);
+            }
+        });
+        synchronized (syncs) {
+            for (Iterator<Future<?>> it = syncs.iterator(); it.hasNext(); ) {
+                if (it.next().isDone()) {
+                    it.remove();
+                }
+            }
+            syncs.add(sync);
+        }
+    }
+}
@@ -1,92 +1,264 @@
 package com.example.beat.scanner;
 
 import android.content.ContentResolver;
-import android.content.ContentUris;
 import android.content.Context;
+import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.net.Uri;
 import android.provider.MediaStore;
 import android.util.Log;
 
 import com.example.beat.data.dao.MusicDao;
-import com.example.beat.data.entities.Album;
-import com.example.beat.data.entities.Artist;
-import com.example.beat.data.entities.LocalSong;
+import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.entities.ScanCheckpoint;
+import com.example.beat.utils.AlbumArtResolver;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MediaStoreScanner {
     private final Context context;
-    private final MusicDao musicDao;
+    private final AppDatabase database;
     private final int userId;
+    private ProgressListener progressListener;
+    private FileInspector fileInspector = FileInspector.DISK;
+
+    public interface ProgressListener {
+        /**
+         * Called on the scanning thread after each batch.
+         */
+        void onProgress(int processed, int total);
+    }
 
-    public MediaStoreScanner(Context context, MusicDao musicDao, int userId) {
+    public MediaStoreScanner(Context context, AppDatabase database, int userId) {
         this.context = context;
-        this.musicDao = musicDao;
+        this.database = database;
         this.userId = userId;
     }
 
-    private Album getOrCreateAlbum(String albumName, String year, int artistId) {
-        Album album = musicDao.getAlbumByName(albumName, artistId);
-        if (album != null) return album;
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
 
-        Album newAlbum = new Album();
-        newAlbum.name = albumName;
-        newAlbum.artistId = artistId;
-        newAlbum.releaseYear = year;
+    /**
+     * File system access of the enrichment stage. Only replaced by the scan benchmark,
+     * whose synthetic MediaStore rows point at files that don't exist.
+     */
+    interface FileInspector {
+        FileInspector DISK = new FileInspector() {
+            @Override
+            public boolean exists(File file) {
+                return file.exists();
+            }
+
+            @Override
+            public String fingerprint(File file) {
+                return FileFingerprint.compute(file);
+            }
+        };
 
-        try {
-            long albumId = musicDao.insertAlbum(newAlbum);
-            newAlbum.albumId = (int) albumId;
-            Log.d("AlbumInsert", "Created new album: " + albumName + " with ID: " + albumId);
-            return newAlbum;
-        } catch (Exception e) {
-            Log.e("AlbumInsert", "Error inserting album: " + albumName + ", Error: " + e.getMessage());
-            return null;
-        }
-    }
+        boolean exists(File file);
 
-    private Artist getOrCreateArtist(String artistName) {
-        Artist artist = musicDao.getArtistByName(artistName);
-        if (artist != null) return artist;
+        String fingerprint(File file);
+    }
 
-        Artist newArtist = new Artist(artistName);
-        try {
-            long artistId = musicDao.insertArtist(newArtist);
-            newArtist.artistId = (int) artistId;
-            return newArtist;
-        } catch (Exception e) {
-            Log.e("ArtistInsert", "Error inserting artist: " + artistName + ", Error: " + e.getMessage());
-            return null;
-        }
+    void setFileInspector(FileInspector fileInspector) {
+        this.fileInspector = fileInspector;
     }
 
-    private Set<String> processedPaths = new HashSet<>();
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int ENRICH_THREADS =
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    // Marks the end of a stage's output; compared by identity
+    private static final ScannedTrack END_OF_STREAM = new ScannedTrack();
 
+    // Only touched by the reader stage
+    private final Set<String> processedPaths = new HashSet<>();
+
+    /**
+     * Scan only the rows MediaStore added or changed since the last completed scan of the
+     * shared catalog. The first scan on a device reads everything.
+     */
     public void scanMusicFiles() {
+        scan(false);
+    }
+
+    /**
+     * Drop the stored watermark and read every music row again.
+     */
+    public void rescanAllMusicFiles() {
+        scan(true);
+    }
+
+    private void scan(boolean fullRescan) {
         // Clear processed paths from previous scan
         processedPaths.clear();
 
+        MusicDao musicDao = database.musicDao();
+        joinCatalogIfNewUser(musicDao);
+
+        ScanWatermarks watermarks = new ScanWatermarks(context);
+        if (fullRescan) {
+            watermarks.clear();
+            musicDao.deleteScanCheckpoint();
+        }
+
+        // Resume an interrupted scan with the snapshot it started with
+        ScanCheckpoint checkpoint = musicDao.getScanCheckpoint();
+        ScanWatermarks.Snapshot snapshot = checkpoint != null ? watermarks.loadPending() : null;
+        if (snapshot == null) {
+            checkpoint = null;
+            musicDao.deleteScanCheckpoint();
+            snapshot = watermarks.capture(context);
+            watermarks.savePending(snapshot);
+        }
+
         ContentResolver contentResolver = context.getContentResolver();
         Uri uri = MediaStore.Audio.Media.EXTERNAL_CONTENT_URI;
 
         String[] projection = {
+            MediaStore.Audio.Media._ID,
             MediaStore.Audio.Media.TITLE,
             MediaStore.Audio.Media.DATA,
             MediaStore.Audio.Media.ARTIST,
             MediaStore.Audio.Media.ALBUM,
             MediaStore.Audio.Media.DURATION,
             MediaStore.Audio.Media.SIZE,
-            MediaStore.Audio.Media.ALBUM_ID  // Add album ID to get album art
+            MediaStore.Audio.Media.ALBUM_ID,  // Add album ID to get album art
+            MediaStore.Audio.Media.TRACK,
+            MediaStore.Audio.Media.YEAR,
+            MediaStore.Audio.Media.DATE_ADDED
         };
 
         // Add filter to only get valid audio files
         String selection = MediaStore.Audio.Media.IS_MUSIC + "=1";
-        Cursor cursor = contentResolver.query(uri, projection, selection, null, null);
+        List<String> selectionArgs = new ArrayList<>();
+        String changedSince = watermarks.buildSelection(snapshot, selectionArgs);
+        if (changedSince != null) {
+            selection += " AND (" + changedSince + ")";
+            Log.d("MediaScan", "Incremental scan: " + changedSince + " " + selectionArgs);
+        } else {
+            Log.d("MediaScan", "Full catalog scan");
+        }
+        if (checkpoint != null) {
+            selection += " AND " + MediaStore.Audio.Media._ID + " > ?";
+            selectionArgs.add(String.valueOf(checkpoint.lastMediaStoreId));
+            Log.d("MediaScan", "Resuming after _ID " + checkpoint.lastMediaStoreId
+                    + " (batch " + checkpoint.batchNumber + ")");
+        }
+        // Cursor order is what makes "_ID > checkpoint" a valid resume point
+        Cursor cursor = contentResolver.query(uri, projection, selection,
+                selectionArgs.toArray(new String[0]), MediaStore.Audio.Media._ID + " ASC");
+        if (cursor == null) {
+            Log.d("MediaScan", "MediaStore query returned no cursor");
+            return;
+        }
+
+        runPipeline(cursor, checkpoint);
+
+        // Only move the watermark once the whole result set has been processed
+        watermarks.commit(snapshot);
+        musicDao.deleteScanCheckpoint();
+    }
+
+    /**
+     * Reader, enricher and writer run as separate stages connected by bounded queues.
+     * The reader drains the cursor on its own thread, a small pool does the file checks,
+     * and the calling thread is the only one writing to Room. A full queue blocks
+     * the stage in front of it, so memory stays flat however large the library is.
+     */
+    private void runPipeline(Cursor cursor, ScanCheckpoint resumeFrom) {
+        BlockingQueue<ScannedTrack> readQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<ScannedTrack> writeQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicInteger rejectedCount = new AtomicInteger();
+
+        // Read before the reader thread takes the cursor over
+        int total = cursor.getCount() + (resumeFrom != null ? resumeFrom.processedCount : 0);
+
+        ExecutorService stages = Executors.newFixedThreadPool(1 + ENRICH_THREADS);
+        try {
+            Future<Integer> reader = stages.submit(() -> readRows(cursor, readQueue));
+            List<Future<?>> enrichers = new ArrayList<>();
+            for (int i = 0; i < ENRICH_THREADS; i++) {
+                enrichers.add(stages.submit(() -> enrichRows(readQueue, writeQueue, rejectedCount)));
+            }
+
+            ScanBatchWriter writer = new ScanBatchWriter(database, userId);
+            writer.trackCheckpoints(resumeFrom);
+            int reportedBatches = -1;
+            int finished = 0;
+            while (finished < ENRICH_THREADS) {
+                ScannedTrack track = writeQueue.take();
+                if (track == END_OF_STREAM) {
+                    finished++;
+                } else if (track.skipped) {
+                    writer.skip(track);
+                } else {
+                    writer.add(track);
+                }
+                if (writer.getBatchCount() != reportedBatches) {
+                    reportedBatches = writer.getBatchCount();
+                    reportProgress(writer.getProcessedCount(), total);
+                }
+            }
+            writer.flush();
+            reportProgress(total, total);
+
+            // Surface a failure in any stage so the watermark is not advanced
+            int totalCount = reader.get();
+            for (Future<?> enricher : enrichers) {
+                enricher.get();
+            }
+
+            Log.d("MediaScan", "Total found: " + totalCount);
+            Log.d("MediaScan", "Total inserted: " + writer.getInsertedCount()
+                    + " in " + writer.getBatchCount() + " batches");
+            Log.d("MediaScan", "Total moved: " + writer.getMovedCount());
+            Log.d("MediaScan", "Total skipped: " + (totalCount - writer.getInsertedCount() - writer.getMovedCount())
+                    + " (" + rejectedCount.get() + " invalid)");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Media scan interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Media scan failed", e.getCause());
+        } finally {
+            stages.shutdownNow();
+            try {
+                stages.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!cursor.isClosed()) {
+                cursor.close();
+            }
+        }
+    }
 
-        if (cursor != null && cursor.moveToFirst()) {
+    /**
+     * Stage 1: turn cursor rows into {@link ScannedTrack}s. Only cheap in-memory checks
+     * happen here so the cursor window is released quickly.
+     */
+    private int readRows(Cursor cursor, BlockingQueue<ScannedTrack> out) throws InterruptedException {
+        int totalCount = 0;
+        boolean interrupted = false;
+        try {
+            if (!cursor.moveToFirst()) {
+                Log.d("MediaScan", "No new or changed music files found.");
+                return 0;
+            }
+
+            int idIndex = cursor.getColumnIndex(MediaStore.Audio.Media._ID);
             int titleIndex = cursor.getColumnIndex(MediaStore.Audio.Media.TITLE);
             int pathIndex = cursor.getColumnIndex(MediaStore.Audio.Media.DATA);
             int artistIndex = cursor.getColumnIndex(MediaStore.Audio.Media.ARTIST);
@@ -94,127 +266,121 @@ public class MediaStoreScanner {
             int durationIndex = cursor.getColumnIndex(MediaStore.Audio.Media.DURATION);
             int sizeIndex = cursor.getColumnIndex(MediaStore.Audio.Media.SIZE);
             int albumIdIndex = cursor.getColumnIndex(MediaStore.Audio.Media.ALBUM_ID);
+            int trackIndex = cursor.getColumnIndex(MediaStore.Audio.Media.TRACK);
+            int yearIndex = cursor.getColumnIndex(MediaStore.Audio.Media.YEAR);
+            int dateAddedIndex = cursor.getColumnIndex(MediaStore.Audio.Media.DATE_ADDED);
 
-            int insertedCount = 0;
-            int totalCount = 0;
-
+            long sequence = 0;
             do {
                 totalCount++;
-                String title = cursor.getString(titleIndex);
-                String filePath = cursor.getString(pathIndex);
-                String artistName = cursor.getString(artistIndex);
-                String albumName = cursor.getString(albumIndex);
-                long duration = cursor.getLong(durationIndex);
-                long size = cursor.getLong(sizeIndex);
-                long albumId = cursor.getLong(albumIdIndex);
-
-                // Get album art URI - try multiple methods
-                String albumArtUri = null;
-
-                // Method 1: Try MediaStore album art (validate before using)
-                if (albumId > 0) {
-                    Uri albumArtContentUri = ContentUris.withAppendedId(
-                        Uri.parse("content://media/external/audio/albumart"), albumId);
-
-                    // Validate that the URI actually points to an existing resource
-                    try {
-                        java.io.InputStream inputStream = context.getContentResolver().openInputStream(albumArtContentUri);
-                        if (inputStream != null) {
-                            inputStream.close();
-                            albumArtUri = albumArtContentUri.toString();
-                            Log.d("AlbumArt", "✅ Validated MediaStore album art for '" + title + "' (Album ID: " + albumId + "): " + albumArtUri);
-                        } else {
-                            Log.d("AlbumArt", "❌ MediaStore album art URI invalid for '" + title + "' (Album ID: " + albumId + ")");
-                        }
-                    } catch (Exception e) {
-                        Log.d("AlbumArt", "❌ MediaStore album art not accessible for '" + title + "' (Album ID: " + albumId + "): " + e.getMessage());
-                    }
-                }
-
-                // Method 2: If no MediaStore album art, try to use file path for embedded art extraction
-                if (albumArtUri == null && filePath != null) {
-                    // Store file path as backup for embedded art extraction
-                    // We'll use this in the UI layer with a different approach
-                    albumArtUri = "file://" + filePath; // Mark as file-based for later processing
-                    Log.d("AlbumArt", "🔄 Using file path for embedded art extraction: '" + title + "' -> " + filePath);
-                }
-
-                if (albumArtUri == null) {
-                    Log.d("AlbumArt", "❌ No album art available for '" + title + "' (Album ID: " + albumId + ", Album: '" + albumName + "')");
-                }
-
-                Log.d("SongScan", "Processing song: " + title + " (" + filePath + ")");
-                Log.d("SongScan", "Artist: " + artistName + ", Album: " + albumName);
-                Log.d("SongScan", "Duration: " + duration + "ms, Size: " + size + "bytes");
+                ScannedTrack track = new ScannedTrack();
+                track.sequence = sequence++;
+                track.mediaStoreId = cursor.getLong(idIndex);
+                track.title = cursor.getString(titleIndex);
+                track.filePath = cursor.getString(pathIndex);
+                track.artistName = cursor.getString(artistIndex);
+                track.albumName = cursor.getString(albumIndex);
+                track.duration = cursor.getLong(durationIndex);
+                track.size = cursor.getLong(sizeIndex);
+                track.mediaStoreAlbumId = cursor.getLong(albumIdIndex);
+                // NULL reads as 0, which is what "unknown" is stored as
+                track.trackNumber = cursor.getInt(trackIndex);
+                track.year = cursor.getInt(yearIndex);
+                track.dateAdded = cursor.getLong(dateAddedIndex);
 
                 // Skip invalid files (too short or too small)
-                if (duration < 1000 || size < 1000) {
-                    Log.d("SongInsert", "Skipping invalid file: " + title + " (too short/small)");
-                    continue;
-                }
-
-                if (filePath == null || title == null) {
-                    Log.d("SongInsert", "Skipping invalid file: null title or path");
-                    continue;
+                if (track.duration < 1000 || track.size < 1000) {
+                    track.skipped = true;
+                } else if (track.filePath == null || track.title == null) {
+                    track.skipped = true;
+                } else if (!processedPaths.add(track.filePath)) {
+                    // Already processed this file in this scan
+                    track.skipped = true;
+                } else {
+                    track.albumArtUri = resolveAlbumArtUri(track);
                 }
-
-                // Skip if we've already processed this file in this scan
-                if (processedPaths.contains(filePath)) {
-                    Log.d("SongInsert", "Skipping already processed: " + title);
-                    continue;
+                out.put(track);
+            } while (cursor.moveToNext());
+            return totalCount;
+        } catch (InterruptedException e) {
+            interrupted = true;
+            throw e;
+        } finally {
+            cursor.close();
+            // After shutdownNow the enrichers are gone and nothing drains a full queue,
+            // so only a reader that wasn't interrupted hands out the end markers
+            if (!interrupted) {
+                for (int i = 0; i < ENRICH_THREADS; i++) {
+                    out.put(END_OF_STREAM);
                 }
+            }
+        }
+    }
 
+    /**
+     * Stage 2: the I/O-bound work, file checks and fingerprints. Several of these run at
+     * once while the writer is busy with the previous batch.
+     */
+    private Void enrichRows(BlockingQueue<ScannedTrack> in, BlockingQueue<ScannedTrack> out,
+                            AtomicInteger rejectedCount) throws InterruptedException {
+        while (true) {
+            ScannedTrack track = in.take();
+            if (track == END_OF_STREAM) {
+                out.put(END_OF_STREAM);
+                return null;
+            }
+            if (!track.skipped) {
                 try {
-                    Artist artist = getOrCreateArtist(artistName);
-                    if (artist == null) {
-                        Log.e("SongInsert", "Failed to create artist: " + artistName);
-                        continue;
+                    File file = new File(track.filePath);
+                    if (fileInspector.exists(file)) {
+                        track.contentHash = fileInspector.fingerprint(file);
+                    } else {
+                        track.skipped = true;
+                        rejectedCount.incrementAndGet();
                     }
+                } catch (Exception e) {
+                    track.skipped = true;
+                    rejectedCount.incrementAndGet();
+                    Log.e("SongInsert", "Error processing song: " + track.title + " - " + e.getMessage());
+                }
+            }
+            // Skipped rows go on as well, the writer needs them to move the checkpoint
+            out.put(track);
+        }
+    }
 
-                    Album album = getOrCreateAlbum(albumName, "", artist.artistId);
-                    if (album == null) {
-                        Log.e("SongInsert", "Failed to create album: " + albumName);
-                        continue;
-                    }
+    /**
+     * A user who signed up after the catalog was scanned starts out with all of it. Done
+     * once per user, so removing every song from a library doesn't bring them back.
+     */
+    private void joinCatalogIfNewUser(MusicDao musicDao) {
+        SharedPreferences prefs = context.getSharedPreferences("ScanPrefs", Context.MODE_PRIVATE);
+        String key = userId + ".catalogJoined";
+        if (prefs.getBoolean(key, false)) {
+            return;
+        }
+        if (!musicDao.hasUserSongs(userId)) {
+            musicDao.addCatalogToUser(userId);
+        }
+        prefs.edit().putBoolean(key, true).apply();
+    }
 
-                    LocalSong song = new LocalSong();
-                    song.setTitle(title);
-                    song.setFilePath(filePath);
-                    song.setUserId(userId);
-                    song.setArtistId(artist.artistId);
-                    song.setAlbumId(album.albumId);
-                    song.setAlbumArtUri(albumArtUri); // Set the album art URI
-
-                    // Check if song exists with this file path and user using a more efficient method
-                    int songCount = musicDao.countSongsForUser(filePath, userId);
-                    if (songCount > 0) {
-                        Log.d("SongInsert", "Found existing song: " + title + " (user: " + userId + ")");
-                        continue;
-                    }
+    private void reportProgress(int processed, int total) {
+        if (progressListener != null) {
+            progressListener.onProgress(processed, total);
+        }
+    }
 
-                    // Add to processed paths only if we're going to insert it
-                    processedPaths.add(filePath);
-                    try {
-                        musicDao.insertSong(song);
-                        insertedCount++;
-                        Log.d("SongInsert", "Successfully inserted: " + title);
-                    } catch (Exception e) {
-                        Log.e("SongInsert", "Error inserting song: " + title + " - " + e.getMessage());
-                    } finally {
-                        processedPaths.add(filePath);
-                    }
-                } catch (Exception e) {
-                    Log.e("SongInsert", "Error processing song: " + title + " - " + e.getMessage());
-                    continue;
-                }
-            } while (cursor.moveToNext());
+    private String resolveAlbumArtUri(ScannedTrack track) {
+        // No I/O here: whether the MediaStore cover exists is worked out lazily, once
+        // per album, by AlbumArtResolver when a row is first shown
+        String albumArtUri = AlbumArtResolver.albumArtUriFor(track.mediaStoreAlbumId);
 
-            Log.d("MediaScan", "Total found: " + totalCount);
-            Log.d("MediaScan", "Total inserted: " + insertedCount);
-            Log.d("MediaScan", "Total skipped: " + (totalCount - insertedCount));
-            cursor.close();
-        } else {
-            Log.d("MediaScan", "No music files found.");
+        if (albumArtUri == null && track.filePath != null) {
+            // Store file path as backup for embedded art extraction
+            // We'll use this in the UI layer with a different approach
+            albumArtUri = "file://" + track.filePath; // Mark as file-based for later processing
         }
+        return albumArtUri;
     }
 }
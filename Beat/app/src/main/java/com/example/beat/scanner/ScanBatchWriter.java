@@ -0,0 +1,372 @@
+package com.example.beat.scanner;
+
+import android.util.Log;
+
+import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.entities.Album;
+import com.example.beat.data.entities.Artist;
+import com.example.beat.data.entities.LocalSong;
+import com.example.beat.data.entities.ScanCheckpoint;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Buffers scanned rows and writes them in chunks, one transaction per chunk.
+ *
+ * Artists and albums are resolved through maps loaded once when the writer is created,
+ * so a chunk costs a handful of bulk inserts instead of several lookups per song.
+ * Songs already in the catalog are dropped by the unique filePath index rather than
+ * checked beforehand; the scanning user is still made a member of them. New catalog
+ * songs are added to every user's library. A new path whose fingerprint matches a row
+ * whose file is gone is treated as a move: that row is re-pointed, so playlists keep it.
+ * Those rows are looked up, and their files checked, before the chunk's transaction
+ * opens, so no file system access happens while the database is locked for writing.
+ * With checkpoints enabled, each chunk's transaction also records how far the scan got.
+ */
+public class ScanBatchWriter {
+    private static final String TAG = "ScanBatchWriter";
+    public static final int DEFAULT_BATCH_SIZE = 250;
+
+    // Stay well below SQLite's default limit of 999 bound variables
+    private static final int MAX_IDS_PER_STATEMENT = 900;
+
+    // MediaStore reports missing tags with this placeholder as well
+    private static final String UNKNOWN = "<unknown>";
+
+    private final AppDatabase database;
+    private final MusicDao musicDao;
+    private final int userId;
+    private final int batchSize;
+
+    private final Map<String, Integer> artistIds = new HashMap<>();
+    private final Map<String, Integer> albumIds = new HashMap<>();
+    private final List<ScannedTrack> pending = new ArrayList<>();
+    private final List<ScannedTrack> skipped = new ArrayList<>();
+
+    private ScanCheckpoint checkpointBase;
+    private ScanCheckpointTracker checkpointTracker;
+
+    private int insertedCount;
+    private int movedCount;
+    private int batchCount;
+
+    public ScanBatchWriter(AppDatabase database, int userId) {
+        this(database, userId, DEFAULT_BATCH_SIZE);
+    }
+
+    public ScanBatchWriter(AppDatabase database, int userId, int batchSize) {
+        this.database = database;
+        this.musicDao = database.musicDao();
+        this.userId = userId;
+        this.batchSize = batchSize;
+
+        for (Artist artist : musicDao.getAllArtists()) {
+            artistIds.put(artistKey(artist.name), artist.artistId);
+        }
+        for (Album album : musicDao.getAllAlbums()) {
+            albumIds.put(albumKey(album.artistId, album.name), album.albumId);
+        }
+    }
+
+    /**
+     * Save a {@link ScanCheckpoint} with every chunk.
+     *
+     * @param resumeFrom checkpoint the scan is resuming from, or null for a fresh scan
+     */
+    public void trackCheckpoints(ScanCheckpoint resumeFrom) {
+        checkpointBase = resumeFrom;
+        checkpointTracker = new ScanCheckpointTracker(resumeFrom != null ? resumeFrom.lastMediaStoreId : 0);
+    }
+
+    public void add(ScannedTrack track) {
+        pending.add(track);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Account for a row that was filtered out, so the checkpoint can move past it.
+     */
+    public void skip(ScannedTrack track) {
+        if (checkpointTracker == null) {
+            return;
+        }
+        skipped.add(track);
+        if (skipped.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (pending.isEmpty() && skipped.isEmpty()) {
+            return;
+        }
+        final List<ScannedTrack> batch = new ArrayList<>(pending);
+        final List<ScannedTrack> skippedRows = new ArrayList<>(skipped);
+        pending.clear();
+        skipped.clear();
+
+        Map<String, List<LocalSong>> moveOrigins = findMoveOrigins(batch);
+        List<String> createdArtists = new ArrayList<>();
+        List<String> createdAlbums = new ArrayList<>();
+        try {
+            database.runInTransaction(() -> {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch, moveOrigins, createdArtists, createdAlbums);
+                }
+                if (checkpointTracker != null) {
+                    saveCheckpoint(batch, skippedRows);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The transaction was rolled back, so ids handed out for it are gone as well
+            for (String key : createdArtists) artistIds.remove(key);
+            for (String key : createdAlbums) albumIds.remove(key);
+            Log.e(TAG, "Error writing batch of " + batch.size() + " songs: " + e.getMessage());
+            throw e;
+        }
+        batchCount++;
+    }
+
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    public int getMovedCount() {
+        return movedCount;
+    }
+
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Rows written or skipped so far, including those handled before a resume.
+     */
+    public int getProcessedCount() {
+        if (checkpointTracker == null) {
+            return insertedCount + movedCount;
+        }
+        int before = checkpointBase != null ? checkpointBase.processedCount : 0;
+        return before + checkpointTracker.getCompletedCount();
+    }
+
+    private void saveCheckpoint(List<ScannedTrack> batch, List<ScannedTrack> skippedRows) {
+        for (ScannedTrack track : batch) {
+            checkpointTracker.finished(track);
+        }
+        for (ScannedTrack track : skippedRows) {
+            checkpointTracker.finished(track);
+        }
+        checkpointTracker.advance();
+
+        ScanCheckpoint checkpoint = new ScanCheckpoint();
+        checkpoint.lastMediaStoreId = checkpointTracker.getLastMediaStoreId();
+        checkpoint.batchNumber = (checkpointBase != null ? checkpointBase.batchNumber : 0) + batchCount + 1;
+        checkpoint.processedCount = getProcessedCount();
+        musicDao.saveScanCheckpoint(checkpoint);
+    }
+
+    private void writeBatch(List<ScannedTrack> batch, Map<String, List<LocalSong>> moveOrigins,
+                            List<String> createdArtists, List<String> createdAlbums) {
+        // Artists first, so albums can refer to them
+        Map<String, Artist> newArtists = new HashMap<>();
+        for (ScannedTrack track : batch) {
+            String key = artistKey(track.artistName);
+            if (!artistIds.containsKey(key) && !newArtists.containsKey(key)) {
+                newArtists.put(key, new Artist(key));
+            }
+        }
+        if (!newArtists.isEmpty()) {
+            List<Artist> artists = new ArrayList<>(newArtists.values());
+            List<Long> ids = musicDao.insertArtists(artists);
+            for (int i = 0; i < artists.size(); i++) {
+                artistIds.put(artists.get(i).name, ids.get(i).intValue());
+                createdArtists.add(artists.get(i).name);
+            }
+        }
+
+        Map<String, Album> newAlbums = new HashMap<>();
+        for (ScannedTrack track : batch) {
+            int artistId = artistIds.get(artistKey(track.artistName));
+            String key = albumKey(artistId, albumName(track.albumName));
+            if (!albumIds.containsKey(key) && !newAlbums.containsKey(key)) {
+                Album album = new Album();
+                album.name = albumName(track.albumName);
+                album.artistId = artistId;
+                album.releaseYear = "";
+                newAlbums.put(key, album);
+            }
+        }
+        if (!newAlbums.isEmpty()) {
+            List<Album> albums = new ArrayList<>(newAlbums.values());
+            List<Long> ids = musicDao.insertAlbums(albums);
+            for (int i = 0; i < albums.size(); i++) {
+                String key = albumKey(albums.get(i).artistId, albums.get(i).name);
+                albumIds.put(key, ids.get(i).intValue());
+                createdAlbums.add(key);
+            }
+        }
+
+        List<LocalSong> songs = new ArrayList<>(batch.size());
+        for (ScannedTrack track : batch) {
+            int artistId = artistIds.get(artistKey(track.artistName));
+            LocalSong song = new LocalSong();
+            // Never null: song lists page through the title index
+            song.setTitle(track.title != null ? track.title : "");
+            song.setFilePath(track.filePath);
+            song.setArtistId(artistId);
+            song.setAlbumId(albumIds.get(albumKey(artistId, albumName(track.albumName))));
+            song.setAlbumArtUri(track.albumArtUri);
+            song.setMediaStoreId(track.mediaStoreId);
+            song.setFileSize(track.size);
+            song.setDuration(track.duration);
+            song.setContentHash(track.contentHash);
+            song.setTrackNumber(track.trackNumber);
+            song.setYear(track.year);
+            song.setDateAdded(track.dateAdded);
+            songs.add(song);
+        }
+
+        songs = repointMovedSongs(batch, songs, moveOrigins);
+
+        int inserted = 0;
+        List<Long> ids = musicDao.insertSongs(songs);
+        List<Integer> newSongIds = new ArrayList<>();
+        List<String> existingPaths = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) != -1) {
+                inserted++;
+                newSongIds.add(ids.get(i).intValue());
+            } else {
+                // Already in the catalog, possibly from before MediaStore ids were stored
+                LocalSong song = songs.get(i);
+                existingPaths.add(song.getFilePath());
+                musicDao.backfillScanFields(song.getFilePath(), song.getMediaStoreId(),
+                        song.getFileSize(), song.getDuration(), song.getContentHash(),
+                        song.getTrackNumber(), song.getYear(), song.getDateAdded());
+            }
+        }
+        for (int from = 0; from < newSongIds.size(); from += MAX_IDS_PER_STATEMENT) {
+            musicDao.addSongsToAllUsers(newSongIds.subList(from,
+                    Math.min(from + MAX_IDS_PER_STATEMENT, newSongIds.size())));
+        }
+        for (int from = 0; from < existingPaths.size(); from += MAX_IDS_PER_STATEMENT) {
+            musicDao.addSongsToUserByPath(userId, existingPaths.subList(from,
+                    Math.min(from + MAX_IDS_PER_STATEMENT, existingPaths.size())));
+        }
+        fillAlbumYears(batch);
+        insertedCount += inserted;
+        Log.d(TAG, "Batch of " + batch.size() + " rows, inserted " + inserted);
+    }
+
+    // Albums are created with no year; give them one once a song with a year is known
+    private void fillAlbumYears(List<ScannedTrack> batch) {
+        Set<Integer> albumIdsWithYear = new HashSet<>();
+        for (ScannedTrack track : batch) {
+            if (track.year > 0) {
+                int artistId = artistIds.get(artistKey(track.artistName));
+                albumIdsWithYear.add(albumIds.get(albumKey(artistId, albumName(track.albumName))));
+            }
+        }
+        List<Integer> ids = new ArrayList<>(albumIdsWithYear);
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+            musicDao.fillAlbumYears(ids.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, ids.size())));
+        }
+    }
+
+    /**
+     * Rows that a track of the batch may have been moved from, by fingerprint. Runs outside
+     * the chunk's transaction: it reads the catalog and checks files on disk.
+     */
+    private Map<String, List<LocalSong>> findMoveOrigins(List<ScannedTrack> batch) {
+        List<String> hashes = new ArrayList<>();
+        for (ScannedTrack track : batch) {
+            if (track.contentHash != null) {
+                hashes.add(track.contentHash);
+            }
+        }
+        Map<String, List<LocalSong>> candidates = new HashMap<>();
+        if (hashes.isEmpty()) {
+            return candidates;
+        }
+
+        // Only rows whose file is gone can be the origin of a move; a match whose file
+        // still exists is a copy and gets its own row
+        for (int from = 0; from < hashes.size(); from += MAX_IDS_PER_STATEMENT) {
+            List<String> chunk = hashes.subList(from, Math.min(from + MAX_IDS_PER_STATEMENT, hashes.size()));
+            for (LocalSong existing : musicDao.getSongsByContentHash(chunk)) {
+                if (existing.getFilePath() != null && new File(existing.getFilePath()).exists()) {
+                    continue;
+                }
+                List<LocalSong> sameHash = candidates.get(existing.getContentHash());
+                if (sameHash == null) {
+                    sameHash = new ArrayList<>();
+                    candidates.put(existing.getContentHash(), sameHash);
+                }
+                sameHash.add(existing);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Re-point rows of moved files to their new location.
+     *
+     * @param candidates from {@link #findMoveOrigins}; matches are taken out of it
+     * @return the songs of the batch that still have to be inserted
+     */
+    private List<LocalSong> repointMovedSongs(List<ScannedTrack> batch, List<LocalSong> songs,
+                                              Map<String, List<LocalSong>> candidates) {
+        if (candidates.isEmpty()) {
+            return songs;
+        }
+
+        List<LocalSong> remaining = new ArrayList<>(songs.size());
+        for (int i = 0; i < songs.size(); i++) {
+            ScannedTrack track = batch.get(i);
+            LocalSong origin = takeMatch(candidates.get(track.contentHash), track);
+            if (origin != null && musicDao.repointSong(origin.getSongId(), track.filePath,
+                    track.mediaStoreId, track.albumArtUri) == 1) {
+                movedCount++;
+                continue;
+            }
+            remaining.add(songs.get(i));
+        }
+        return remaining;
+    }
+
+    private static LocalSong takeMatch(List<LocalSong> sameHash, ScannedTrack track) {
+        if (sameHash == null) {
+            return null;
+        }
+        for (int i = 0; i < sameHash.size(); i++) {
+            LocalSong candidate = sameHash.get(i);
+            if (candidate.getFileSize() == track.size && candidate.getDuration() == track.duration
+                    && !track.filePath.equals(candidate.getFilePath())) {
+                return sameHash.remove(i);
+            }
+        }
+        return null;
+    }
+
+    private static String artistKey(String name) {
+        return name != null ? name : UNKNOWN;
+    }
+
+    private static String albumName(String name) {
+        return name != null ? name : UNKNOWN;
+    }
+
+    private static String albumKey(int artistId, String name) {
+        return artistId + "\u0000" + name;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.beat.scanner;
+
+import java.util.PriorityQueue;
+
+/**
+ * Works out how far a scan can safely claim to have got.
+ *
+ * The enrichment pool hands rows to the writer out of order, so the checkpoint is the
+ * last MediaStore id of the longest run of rows, in cursor order, that have all been
+ * written or skipped. Rows finished ahead of a gap wait here; the gap can be no wider
+ * than the pipeline's queues, so this stays small.
+ */
+class ScanCheckpointTracker {
+    private final PriorityQueue<ScannedTrack> finishedAhead =
+            new PriorityQueue<>(64, (a, b) -> Long.compare(a.sequence, b.sequence));
+
+    private long nextSequence;
+    private long lastMediaStoreId;
+    private int completedCount;
+
+    ScanCheckpointTracker(long lastMediaStoreId) {
+        this.lastMediaStoreId = lastMediaStoreId;
+    }
+
+    void finished(ScannedTrack track) {
+        finishedAhead.add(track);
+    }
+
+    /**
+     * Move the checkpoint forward over every row that is now contiguous.
+     */
+    void advance() {
+        while (!finishedAhead.isEmpty() && finishedAhead.peek().sequence == nextSequence) {
+            ScannedTrack track = finishedAhead.poll();
+            lastMediaStoreId = track.mediaStoreId;
+            nextSequence++;
+            completedCount++;
+        }
+    }
+
+    long getLastMediaStoreId() {
+        return lastMediaStoreId;
+    }
+
+    int getCompletedCount() {
+        return completedCount;
+    }
+}
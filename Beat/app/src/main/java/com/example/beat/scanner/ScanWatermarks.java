@@ -0,0 +1,192 @@
+package com.example.beat.scanner;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Record of how far the shared song catalog has been scanned.
+ *
+ * On Android 11+ MediaStore exposes a generation counter per volume that is bumped on
+ * every insert or update, so we keep the last generation seen for each volume (plus the
+ * volume version, which changes when MediaStore rebuilds its database and resets the
+ * counter). Older releases fall back to a DATE_ADDED / DATE_MODIFIED timestamp.
+ */
+public class ScanWatermarks {
+    private static final String TAG = "ScanWatermarks";
+    private static final String PREFS_NAME = "ScanPrefs";
+    private static final String PENDING = "pending.";
+    // Keys used to be per user; the catalog is now scanned once for everybody
+    private static final String SCOPE = "catalog";
+
+    // DATE_* columns are in seconds and written by a separate process, leave some slack
+    private static final long DATE_SLACK_SECONDS = 60;
+
+    // Bump when the scanner starts storing another MediaStore column, so the next scan
+    // reads every row again and fills it in for songs already in the catalog
+    private static final int FIELDS_VERSION = 1;
+
+    private final SharedPreferences prefs;
+
+    public ScanWatermarks(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Values captured right before a scan starts. Only committed once the scan finished,
+     * so a crashed or cancelled scan is simply repeated next time.
+     */
+    public static class Snapshot {
+        final Map<String, Long> generations = new HashMap<>();
+        final Map<String, String> versions = new HashMap<>();
+        long dateSeconds;
+    }
+
+    public boolean hasCompletedScan() {
+        return prefs.getBoolean(key("completed"), false);
+    }
+
+    public Snapshot capture(Context context) {
+        Snapshot snapshot = new Snapshot();
+        snapshot.dateSeconds = System.currentTimeMillis() / 1000;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            try {
+                Set<String> volumes = MediaStore.getExternalVolumeNames(context);
+                for (String volume : volumes) {
+                    snapshot.generations.put(volume, MediaStore.getGeneration(context, volume));
+                    snapshot.versions.put(volume, MediaStore.getVersion(context, volume));
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Unable to read MediaStore generations: " + e.getMessage());
+                snapshot.generations.clear();
+                snapshot.versions.clear();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Remember the snapshot of a scan that is about to start. If the scan is interrupted
+     * and later resumed from its checkpoint, the resumed run commits this snapshot rather
+     * than a newer one, so rows changed in between are still picked up next time.
+     */
+    public void savePending(Snapshot snapshot) {
+        SharedPreferences.Editor editor = prefs.edit();
+        removePending(editor);
+        for (Map.Entry<String, Long> entry : snapshot.generations.entrySet()) {
+            editor.putLong(key(PENDING + "generation." + entry.getKey()), entry.getValue());
+            editor.putString(key(PENDING + "version." + entry.getKey()), snapshot.versions.get(entry.getKey()));
+        }
+        editor.putLong(key(PENDING + "date"), snapshot.dateSeconds);
+        // Written synchronously: the first checkpoint must never be ahead of this
+        editor.commit();
+    }
+
+    /**
+     * Snapshot saved by {@link #savePending}, or null if there is none.
+     */
+    public Snapshot loadPending() {
+        if (!prefs.contains(key(PENDING + "date"))) {
+            return null;
+        }
+        Snapshot snapshot = new Snapshot();
+        snapshot.dateSeconds = prefs.getLong(key(PENDING + "date"), 0);
+        String generationPrefix = key(PENDING + "generation.");
+        for (String name : prefs.getAll().keySet()) {
+            if (name.startsWith(generationPrefix)) {
+                String volume = name.substring(generationPrefix.length());
+                snapshot.generations.put(volume, prefs.getLong(name, 0));
+                snapshot.versions.put(volume, prefs.getString(key(PENDING + "version." + volume), null));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Build the extra WHERE clause that limits a scan to rows added or changed since the
+     * last completed scan. Returns null when everything has to be read again.
+     *
+     * @param current snapshot taken for the scan about to run
+     * @param args receives the bind arguments for the returned clause
+     */
+    public String buildSelection(Snapshot current, List<String> args) {
+        if (!hasCompletedScan() || prefs.getInt(key("fields"), 0) < FIELDS_VERSION) {
+            return null;
+        }
+
+        if (!current.generations.isEmpty()) {
+            StringBuilder clause = new StringBuilder();
+            for (String volume : current.generations.keySet()) {
+                String storedVersion = prefs.getString(key(volume + ".version"), null);
+                long storedGeneration = prefs.getLong(key(volume + ".generation"), -1);
+
+                if (clause.length() > 0) clause.append(" OR ");
+                clause.append("(").append(MediaStore.MediaColumns.VOLUME_NAME).append(" = ?");
+                args.add(volume);
+                // A new volume or a rebuilt MediaStore means generations restarted from zero
+                if (storedGeneration >= 0 && current.versions.get(volume) != null
+                        && current.versions.get(volume).equals(storedVersion)) {
+                    clause.append(" AND (")
+                            .append(MediaStore.MediaColumns.GENERATION_ADDED).append(" > ? OR ")
+                            .append(MediaStore.MediaColumns.GENERATION_MODIFIED).append(" > ?)");
+                    args.add(String.valueOf(storedGeneration));
+                    args.add(String.valueOf(storedGeneration));
+                }
+                clause.append(")");
+            }
+            return clause.toString();
+        }
+
+        long since = prefs.getLong(key("date"), 0) - DATE_SLACK_SECONDS;
+        args.add(String.valueOf(since));
+        args.add(String.valueOf(since));
+        // DATE_MODIFIED is the file mtime, so copied-in files can be older than the
+        // watermark; DATE_ADDED catches those
+        return "(" + MediaStore.Audio.Media.DATE_ADDED + " >= ? OR "
+                + MediaStore.Audio.Media.DATE_MODIFIED + " >= ?)";
+    }
+
+    public void commit(Snapshot snapshot) {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Map.Entry<String, Long> entry : snapshot.generations.entrySet()) {
+            editor.putLong(key(entry.getKey() + ".generation"), entry.getValue());
+            editor.putString(key(entry.getKey() + ".version"), snapshot.versions.get(entry.getKey()));
+        }
+        editor.putLong(key("date"), snapshot.dateSeconds);
+        editor.putBoolean(key("completed"), true);
+        editor.putInt(key("fields"), FIELDS_VERSION);
+        removePending(editor);
+        editor.apply();
+    }
+
+    public void clear() {
+        SharedPreferences.Editor editor = prefs.edit();
+        String prefix = SCOPE + ".";
+        for (String key : prefs.getAll().keySet()) {
+            if (key.startsWith(prefix)) {
+                editor.remove(key);
+            }
+        }
+        editor.apply();
+    }
+
+    private void removePending(SharedPreferences.Editor editor) {
+        String prefix = key(PENDING);
+        for (String name : prefs.getAll().keySet()) {
+            if (name.startsWith(prefix)) {
+                editor.remove(name);
+            }
+        }
+    }
+
+    private String key(String name) {
+        return SCOPE + "." + name;
+    }
+}
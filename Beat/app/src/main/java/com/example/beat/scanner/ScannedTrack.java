@@ -0,0 +1,26 @@
+package com.example.beat.scanner;
+
+/**
+ * One MediaStore audio row as read by the scanner, before artist and album ids have
+ * been resolved against the database.
+ */
+public class ScannedTrack {
+    // Position in the MediaStore cursor, used to checkpoint in cursor order
+    public long sequence;
+    // Filtered out along the way; still passed on so the checkpoint can move past it
+    public boolean skipped;
+    public long mediaStoreId;
+    public String title;
+    public String filePath;
+    public String artistName;
+    public String albumName;
+    public long duration;
+    public long size;
+    public long mediaStoreAlbumId;
+    public int trackNumber;
+    public int year;
+    public long dateAdded;
+    public String albumArtUri;
+    // Filled in by the enrichment stage, null if the file couldn't be read
+    public String contentHash;
+}
@@ -13,20 +13,25 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
 import com.example.beat.adapter.AlbumAdapter;
-import com.example.beat.data.database.AppDatabase;
-import com.example.beat.data.entities.Album;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.AlbumWithSongs;
-import com.example.beat.data.entities.LocalSong;
+import com.example.beat.data.entities.SearchResult;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class AlbumFragment extends Fragment {
     private RecyclerView recyclerView;
     private AlbumAdapter albumAdapter;
-    private AppDatabase database;
+    private MusicRepository repository;
     private int userId;
     private List<AlbumWithSongs> allAlbums;  // Store all albums for filtering
+    private final Map<String, AlbumWithSongs> albumsByName = new HashMap<>();  // Search hits are looked up here
+    private String currentQuery = "";
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -67,77 +72,48 @@ public class AlbumFragment extends Fragment {
 
             @Override
             public boolean onQueryTextChange(String newText) {
+                currentQuery = newText;
                 if (allAlbums != null) {
-                    List<AlbumWithSongs> filteredAlbums = filterAlbums(newText);
-                    albumAdapter.updateAlbums(filteredAlbums);
+                    filterAlbums(newText);
                 }
                 return true;
             }
         });
     }
 
-    private List<AlbumWithSongs> filterAlbums(String query) {
-        if (query.isEmpty()) {
-            return new ArrayList<>(allAlbums);
+    private void filterAlbums(String query) {
+        if (query.trim().isEmpty()) {
+            albumAdapter.updateAlbums(new ArrayList<>(allAlbums));
+            return;
         }
-        query = query.toLowerCase();
-        List<AlbumWithSongs> filteredList = new ArrayList<>();
-        for (AlbumWithSongs album : allAlbums) {
-            if (album.album.name.toLowerCase().contains(query) ||
-                (album.album.artistId != 0 && String.valueOf(album.album.artistId).contains(query))) {
-                filteredList.add(album);
+        // Matched by the full-text index; albums are listed once per name, so hits map by name
+        repository.search(query, userId, SearchResult.KIND_ALBUM, results -> {
+            if (!isAdded() || !query.equals(currentQuery)) {
+                return;  // A newer query is on its way
             }
-        }
-        return filteredList;
+            List<AlbumWithSongs> filteredList = new ArrayList<>();
+            Set<String> listed = new HashSet<>();
+            for (SearchResult result : results) {
+                AlbumWithSongs album = albumsByName.get(result.name);
+                if (album != null && listed.add(result.name)) {
+                    filteredList.add(album);
+                }
+            }
+            albumAdapter.updateAlbums(filteredList);
+        });
     }
 
     private void loadAlbums() {
-        new Thread(() -> {
-            try {
-                database = AppDatabase.getInstance(getContext());
-                final List<AlbumWithSongs> albums = new ArrayList<>();
-
-                // Get albums for user and manually build AlbumWithSongs objects
-                List<Album> dbAlbums = database.musicDao().getAlbumsForUser(userId);
-                if (dbAlbums != null) {
-                    // Group albums by name to handle duplicates
-                    java.util.Map<String, AlbumWithSongs> albumMap = new java.util.HashMap<>();
-
-                    for (Album album : dbAlbums) {
-                        List<LocalSong> albumSongs = database.musicDao().getSongsByAlbumAndUser(album.albumId, userId);
-
-                        if (albumMap.containsKey(album.name)) {
-                            // Album name already exists, merge songs
-                            AlbumWithSongs existingAlbum = albumMap.get(album.name);
-                            if (existingAlbum.songs == null) {
-                                existingAlbum.songs = new ArrayList<>();
-                            }
-                            if (albumSongs != null) {
-                                existingAlbum.songs.addAll(albumSongs);
-                            }
-                        } else {
-                            // New album name, create new entry
-                            AlbumWithSongs albumWithSongs = new AlbumWithSongs();
-                            albumWithSongs.album = album;
-                            albumWithSongs.songs = albumSongs != null ? albumSongs : new ArrayList<>();
-                            albumMap.put(album.name, albumWithSongs);
-                        }
-                    }
-
-                    // Convert map to list
-                    albums.addAll(albumMap.values());
-
-                    // Sort albums by name
-                    albums.sort((a, b) -> a.album.name.compareToIgnoreCase(b.album.name));
-                }
-                allAlbums = new ArrayList<>(albums);  // Store all albums
-                requireActivity().runOnUiThread(() -> {
-                    albumAdapter.updateAlbums(albums);
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
+        repository = MusicRepository.getInstance(requireContext());
+        // Grouped, name-deduplicated and sorted by the query
+        repository.getAlbumsWithSongs(userId, albums -> {
+            allAlbums = new ArrayList<>(albums);  // Store all albums
+            albumsByName.clear();
+            for (AlbumWithSongs album : albums) {
+                albumsByName.put(album.album.name, album);
             }
-        }).start();
+            filterAlbums(currentQuery);
+        });
     }
 
     public void refreshAlbums() {
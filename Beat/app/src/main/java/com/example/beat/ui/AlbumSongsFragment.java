@@ -9,18 +9,18 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
 import com.example.beat.adapter.SongAdapter;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.AlbumWithSongs;
-import com.example.beat.data.entities.LocalSong;
-
-import java.util.List;
 
 public class AlbumSongsFragment extends Fragment {
     private TextView albumName;
+    private TextView albumTotals;
     private RecyclerView recyclerView;
     private SongAdapter songAdapter;
     private AlbumWithSongs album;
@@ -38,12 +38,18 @@ public class AlbumSongsFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_album_songs, container, false);
         albumName = view.findViewById(R.id.album_name);
+        albumTotals = view.findViewById(R.id.album_totals);
         recyclerView = view.findViewById(R.id.recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        setupRecyclerView();
         return view;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        setupRecyclerView();
+    }
+
     private void setupRecyclerView() {
         if (getArguments() != null) {
             album = getArguments().getParcelable("album");
@@ -52,17 +58,26 @@ public class AlbumSongsFragment extends Fragment {
                 // Debug logging
                 android.util.Log.d("AlbumSongsFragment", "Album: " + album.album.name + ", ID: " + album.album.albumId + ", Songs: " + album.songs.size());
                 // Pass album context to SongAdapter
-                songAdapter = new SongAdapter(album.songs, "ALBUM_SONGS", album.album.albumId);
+                songAdapter = new SongAdapter("ALBUM_SONGS", album.album.albumId);
                 recyclerView.setAdapter(songAdapter);
-            }
-        }
-    }
 
-    public void updateAlbum(AlbumWithSongs album) {
-        if (songAdapter != null) {
-            this.album = album;
-            albumName.setText(album.album.name);
-            songAdapter.updateSongs(album.songs);
+                // Pages load as the list scrolls, and reload when the library changes;
+                // the totals are read again with them
+                int userId = requireActivity().getSharedPreferences("UserPrefs", 0)
+                        .getInt("userId", -1);
+                MusicRepository repository = MusicRepository.getInstance(requireContext());
+                PagingLiveData.cachedIn(
+                        repository.pageSongsByAlbum(album.album.albumId, userId),
+                        getViewLifecycleOwner().getLifecycle())
+                        .observe(getViewLifecycleOwner(), pagingData -> {
+                            songAdapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData);
+                            repository.getAlbumTotals(album.album.albumId, userId, totals -> {
+                                if (isAdded()) {
+                                    albumTotals.setText(totals.describe());
+                                }
+                            });
+                        });
+            }
         }
     }
 }
@@ -12,28 +12,33 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
-import com.example.beat.adapter.ArtistWithSongsAdapter;
-import com.example.beat.data.database.AppDatabase;
+import com.example.beat.adapter.ArtistAdapter;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.Artist;
-import com.example.beat.data.entities.ArtistWithSongs;
+import com.example.beat.data.entities.ArtistSummary;
+import com.example.beat.data.entities.SearchResult;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ArtistFragment extends Fragment {
     private RecyclerView recyclerView;
-    private ArtistWithSongsAdapter artistAdapter;
+    private ArtistAdapter artistAdapter;
     private int userId;
     // Make database reference transient to avoid serialization issues
-    private transient AppDatabase database;
-    private List<ArtistWithSongs> allArtists;  // Store all artists for filtering
+    private transient MusicRepository repository;
+    private List<ArtistSummary> allArtists;  // Store all artists for filtering
+    private final Map<Integer, ArtistSummary> artistsById = new HashMap<>();  // Search hits are looked up here
+    private String currentQuery = "";
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         userId = requireActivity().getSharedPreferences("UserPrefs", 0)
                 .getInt("userId", -1);
-        database = AppDatabase.getInstance(getContext());
+        repository = MusicRepository.getInstance(requireContext());
     }
 
     @Nullable
@@ -53,7 +58,7 @@ public class ArtistFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        artistAdapter = new ArtistWithSongsAdapter();
+        artistAdapter = new ArtistAdapter(new ArrayList<>(), this::openArtist);
         recyclerView.setAdapter(artistAdapter);
         loadArtists();
     }
@@ -68,45 +73,52 @@ public class ArtistFragment extends Fragment {
 
             @Override
             public boolean onQueryTextChange(String newText) {
+                currentQuery = newText;
                 if (allArtists != null) {
-                    List<ArtistWithSongs> filteredArtists = filterArtists(newText);
-                    artistAdapter.updateArtists(filteredArtists);
+                    filterArtists(newText);
                 }
                 return true;
             }
         });
     }
 
-    private List<ArtistWithSongs> filterArtists(String query) {
-        if (query.isEmpty()) {
-            return new ArrayList<>(allArtists);
+    private void filterArtists(String query) {
+        if (query.trim().isEmpty()) {
+            artistAdapter.updateArtists(new ArrayList<>(allArtists));
+            return;
         }
-        query = query.toLowerCase();
-        List<ArtistWithSongs> filteredList = new ArrayList<>();
-        for (ArtistWithSongs artist : allArtists) {
-            if (artist.artist.name.toLowerCase().contains(query) ||
-                (artist.artist.artistId != 0 && String.valueOf(artist.artist.artistId).contains(query))) {
-                filteredList.add(artist);
+        // Matched by the full-text index, best matches first
+        repository.search(query, userId, SearchResult.KIND_ARTIST, results -> {
+            if (!isAdded() || !query.equals(currentQuery)) {
+                return;  // A newer query is on its way
             }
-        }
-        return filteredList;
+            List<ArtistSummary> filteredList = new ArrayList<>();
+            for (SearchResult result : results) {
+                ArtistSummary artist = artistsById.get(result.refId);
+                if (artist != null) {
+                    filteredList.add(artist);
+                }
+            }
+            artistAdapter.updateArtists(filteredList);
+        });
     }
 
     private void loadArtists() {
-        final List<ArtistWithSongs> artists = new ArrayList<>();
-
-        // Get artists for user and manually build ArtistWithSongs objects
-        List<Artist> dbArtists = database.musicDao().getArtistsForUser(userId);
-        if (dbArtists != null) {
-            for (Artist artist : dbArtists) {
-                ArtistWithSongs artistWithSongs = new ArtistWithSongs();
-                artistWithSongs.artist = artist;
-                artistWithSongs.songs = database.musicDao().getSongsByArtistAndUser(artist.artistId, userId);
-                artists.add(artistWithSongs);
+        // Counts, duration and cover for every artist in one query
+        repository.getArtistSummaries(userId, artists -> {
+            allArtists = new ArrayList<>(artists);
+            artistsById.clear();
+            for (ArtistSummary artist : artists) {
+                artistsById.put(artist.artist.artistId, artist);
             }
-        }
-        allArtists = new ArrayList<>(artists);
-        artistAdapter.updateArtists(artists);
+            filterArtists(currentQuery);
+        });
+    }
+
+    private void openArtist(Artist artist) {
+        // The artist screen pages its own songs
+        ((com.example.beat.MainActivity) requireActivity())
+                .navigateToFragment(ArtistSongsFragment.newInstance(artist));
     }
 
     public void refreshArtists() {
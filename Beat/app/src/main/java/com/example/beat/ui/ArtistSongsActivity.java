@@ -5,18 +5,19 @@ import android.view.View;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.paging.LoadState;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.beat.R;
 import com.example.beat.adapter.SongAdapter;
-import com.example.beat.data.dao.MusicDao;
-import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.Artist;
-import com.example.beat.data.entities.LocalSong;
-import java.util.List;
+
+import kotlin.Unit;
 
 public class ArtistSongsActivity extends AppCompatActivity {
-    private MusicDao musicDao;
+    private MusicRepository repository;
     private RecyclerView recyclerView;
     private SongAdapter adapter;
     private Artist artist;
@@ -37,7 +38,7 @@ public class ArtistSongsActivity extends AppCompatActivity {
         }
 
         // Initialize Room database
-        musicDao = AppDatabase.getInstance(this).musicDao();
+        repository = MusicRepository.getInstance(this);
 
         // Set up RecyclerView
         recyclerView = findViewById(R.id.recycler_view);
@@ -49,37 +50,34 @@ public class ArtistSongsActivity extends AppCompatActivity {
             loadingProgress.setVisibility(View.VISIBLE);
         }
 
-        // Move database operations to background thread
-        new Thread(() -> {
-            try {
-                List<LocalSong> songs = musicDao.getSongsByArtistAndUser(artist.artistId, userId);
-                runOnUiThread(() -> {
-                    if (songs != null && !songs.isEmpty()) {
-                        adapter = new SongAdapter(songs);
-                        recyclerView.setAdapter(adapter);
-                        loadingProgress.setVisibility(View.GONE);
-                    } else {
-                        // Show message if no songs found
-                        TextView noSongs = findViewById(R.id.no_songs_text);
-                        if (noSongs != null) {
-                            noSongs.setVisibility(View.VISIBLE);
-                        }
-                        loadingProgress.setVisibility(View.GONE);
-                    }
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(() -> {
-                    // Show error message
-                    TextView errorText = findViewById(R.id.error_text);
-                    if (errorText != null) {
-                        errorText.setVisibility(View.VISIBLE);
-                        errorText.setText("Error loading songs: " + e.getMessage());
-                    }
-                    loadingProgress.setVisibility(View.GONE);
-                });
+        adapter = new SongAdapter("ARTIST_SONGS", artist.artistId);
+        recyclerView.setAdapter(adapter);
+        adapter.addLoadStateListener(loadStates -> {
+            LoadState refresh = loadStates.getRefresh();
+            if (refresh instanceof LoadState.Loading) {
+                return Unit.INSTANCE;
+            }
+            loadingProgress.setVisibility(View.GONE);
+            if (refresh instanceof LoadState.Error) {
+                // Show error message
+                TextView errorText = findViewById(R.id.error_text);
+                if (errorText != null) {
+                    errorText.setVisibility(View.VISIBLE);
+                    errorText.setText("Error loading songs: " + ((LoadState.Error) refresh).getError().getMessage());
+                }
+            } else if (adapter.getItemCount() == 0) {
+                // Show message if no songs found
+                TextView noSongs = findViewById(R.id.no_songs_text);
+                if (noSongs != null) {
+                    noSongs.setVisibility(View.VISIBLE);
+                }
             }
-        }).start();
+            return Unit.INSTANCE;
+        });
+
+        // Pages load as the list scrolls
+        PagingLiveData.cachedIn(repository.pageSongsByArtist(artist.artistId, userId), getLifecycle())
+                .observe(this, pagingData -> adapter.submitData(getLifecycle(), pagingData));
 
         // Set artist name in title
         TextView artistName = findViewById(R.id.artist_name);
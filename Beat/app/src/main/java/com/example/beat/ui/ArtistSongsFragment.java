@@ -9,23 +9,23 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
 import com.example.beat.adapter.SongAdapter;
-import com.example.beat.data.entities.ArtistWithSongs;
-
-import java.util.List;
+import com.example.beat.data.MusicRepository;
+import com.example.beat.data.entities.Artist;
 
 public class ArtistSongsFragment extends Fragment {
     private TextView artistName;
+    private TextView artistTotals;
     private RecyclerView recyclerView;
     private SongAdapter songAdapter;
-    // Make complex object transient to avoid serialization issues
-    private transient ArtistWithSongs artist;
+    private Artist artist;
 
-    public static ArtistSongsFragment newInstance(ArtistWithSongs artist) {
+    public static ArtistSongsFragment newInstance(Artist artist) {
         ArtistSongsFragment fragment = new ArtistSongsFragment();
         Bundle args = new Bundle();
         args.putParcelable("artist", artist);
@@ -38,29 +38,44 @@ public class ArtistSongsFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_artist_songs, container, false);
         artistName = view.findViewById(R.id.artist_name);
+        artistTotals = view.findViewById(R.id.artist_totals);
         recyclerView = view.findViewById(R.id.recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        setupRecyclerView();
         return view;
     }
 
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        setupRecyclerView();
+    }
+
     private void setupRecyclerView() {
         if (getArguments() != null) {
             artist = getArguments().getParcelable("artist");
             if (artist != null) {
-                artistName.setText(artist.artist.name);
+                artistName.setText(artist.name);
                 // Pass artist context to SongAdapter
-                songAdapter = new SongAdapter(artist.songs, "ARTIST_SONGS", artist.artist.artistId);
+                songAdapter = new SongAdapter("ARTIST_SONGS", artist.artistId);
                 recyclerView.setAdapter(songAdapter);
-            }
-        }
-    }
 
-    public void updateArtist(ArtistWithSongs artist) {
-        if (songAdapter != null) {
-            this.artist = artist;
-            artistName.setText(artist.artist.name);
-            songAdapter.updateSongs(artist.songs);
+                // Pages load as the list scrolls, and reload when the library changes;
+                // the totals are read again with them
+                int userId = requireActivity().getSharedPreferences("UserPrefs", 0)
+                        .getInt("userId", -1);
+                MusicRepository repository = MusicRepository.getInstance(requireContext());
+                PagingLiveData.cachedIn(
+                        repository.pageSongsByArtist(artist.artistId, userId),
+                        getViewLifecycleOwner().getLifecycle())
+                        .observe(getViewLifecycleOwner(), pagingData -> {
+                            songAdapter.submitData(getViewLifecycleOwner().getLifecycle(), pagingData);
+                            repository.getArtistTotals(artist.artistId, userId, totals -> {
+                                if (isAdded()) {
+                                    artistTotals.setText(totals.describe());
+                                }
+                            });
+                        });
+            }
         }
     }
 }
@@ -25,10 +25,12 @@ import com.example.beat.ApiArtistAdapter;
 import com.example.beat.ApiInterface;
 import com.example.beat.CircularProfileView;
 import com.example.beat.LoginActivity;
+import com.example.beat.MainActivity;
 import com.example.beat.R;
 import com.example.beat.Track;
 import com.example.beat.TrackAdapter;
 import com.example.beat.mydata;
+import com.example.beat.utils.SharedHttpClient;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -141,6 +143,7 @@ public class HomeFragment extends Fragment implements TrackAdapter.OnTrackClickL
     private void setupDeezerApi() {
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl("https://deezerdevs-deezer.p.rapidapi.com/")
+                .client(SharedHttpClient.get())
                 .addConverterFactory(JacksonConverterFactory.create())
                 .build();
 
@@ -217,6 +220,12 @@ public class HomeFragment extends Fragment implements TrackAdapter.OnTrackClickL
             if (item.getItemId() == R.id.menu_logout) {
                 logout();
                 return true;
+            } else if (item.getItemId() == R.id.menu_rescan_library) {
+                if (requireActivity() instanceof MainActivity) {
+                    ((MainActivity) requireActivity()).rescanLibrary();
+                    Toast.makeText(requireActivity(), "Rescanning music library", Toast.LENGTH_SHORT).show();
+                }
+                return true;
             }
             return false;
         });
@@ -17,16 +17,14 @@ import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.resource.drawable.DrawableTransitionOptions;
 import com.example.beat.R;
-import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.LocalSong;
 import com.example.beat.data.entities.Playlist;
-import com.example.beat.data.dao.PlaylistDao;
-import com.example.beat.data.entities.PlaylistSong;
+import com.example.beat.glide.AlbumArtRequests;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -132,23 +130,8 @@ public class LocalMusicPlayerActivity extends AppCompatActivity {
         if (currentSong != null) {
             songTitle.setText(currentSong.getTitle());
 
-            // Load album art using Glide
-            String albumArtUri = currentSong.getAlbumArtUri();
-            if (albumArtUri != null && !albumArtUri.isEmpty()) {
-                try {
-                    Glide.with(this)
-                            .load(albumArtUri)
-                            .placeholder(R.drawable.default_album_art)
-                            .error(R.drawable.default_album_art)
-                            .transition(DrawableTransitionOptions.withCrossFade())
-                            .into(albumArtImageView);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    albumArtImageView.setImageResource(R.drawable.default_album_art);
-                }
-            } else {
-                albumArtImageView.setImageResource(R.drawable.default_album_art);
-            }
+            // Load album art, falling back to what is embedded in the file
+            AlbumArtRequests.load(albumArtImageView, currentSong.getAlbumArtUri(), currentSong.getFilePath());
 
             if (mediaPlayer != null) {
                 seekBar.setMax(mediaPlayer.getDuration());
@@ -262,44 +245,39 @@ public class LocalMusicPlayerActivity extends AppCompatActivity {
         if (currentSong == null) return;
 
         // Get all playlists for the current user
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(this);
-                PlaylistDao playlistDao = db.playlistDao();
-                List<Playlist> playlists = playlistDao.getPlaylistsByUser(userId);
-
-                // Create dialog on UI thread
-                runOnUiThread(() -> {
-                    if (playlists == null || playlists.isEmpty()) {
-                        showCreatePlaylistDialog();
-                        return;
-                    }
+        MusicRepository.getInstance(this).getPlaylists(userId, new MusicRepository.Callback<List<Playlist>>() {
+            @Override
+            public void onResult(List<Playlist> playlists) {
+                if (playlists == null || playlists.isEmpty()) {
+                    showCreatePlaylistDialog();
+                    return;
+                }
 
-                    // Create dialog with playlist options
-                    AlertDialog.Builder builder = new AlertDialog.Builder(this);
-                    builder.setTitle("Add to Playlist");
-                    
-                    String[] playlistNames = new String[playlists.size()];
-                    for (int i = 0; i < playlists.size(); i++) {
-                        playlistNames[i] = playlists.get(i).getName();
-                    }
+                // Create dialog with playlist options
+                AlertDialog.Builder builder = new AlertDialog.Builder(LocalMusicPlayerActivity.this);
+                builder.setTitle("Add to Playlist");
 
-                    builder.setItems(playlistNames, (dialog, which) -> {
-                        Playlist selectedPlaylist = playlists.get(which);
-                        addToPlaylist(selectedPlaylist);
-                    });
+                String[] playlistNames = new String[playlists.size()];
+                for (int i = 0; i < playlists.size(); i++) {
+                    playlistNames[i] = playlists.get(i).getName();
+                }
 
-                    builder.setPositiveButton("Create New", (dialog, which) -> showCreatePlaylistDialog());
-                    builder.setNegativeButton("Cancel", null);
-                    builder.show();
+                builder.setItems(playlistNames, (dialog, which) -> {
+                    Playlist selectedPlaylist = playlists.get(which);
+                    addToPlaylist(selectedPlaylist);
                 });
-            } catch (Exception e) {
+
+                builder.setPositiveButton("Create New", (dialog, which) -> showCreatePlaylistDialog());
+                builder.setNegativeButton("Cancel", null);
+                builder.show();
+            }
+
+            @Override
+            public void onError(Exception e) {
                 e.printStackTrace();
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Error loading playlists", Toast.LENGTH_SHORT).show();
-                });
+                Toast.makeText(LocalMusicPlayerActivity.this, "Error loading playlists", Toast.LENGTH_SHORT).show();
             }
-        }).start();
+        });
     }
 
     private void showCreatePlaylistDialog() {
@@ -321,34 +299,20 @@ public class LocalMusicPlayerActivity extends AppCompatActivity {
                 return;
             }
 
-            // Create new playlist
-            new Thread(() -> {
-                try {
-                    AppDatabase db = AppDatabase.getInstance(this);
-                    PlaylistDao playlistDao = db.playlistDao();
-                    
-                    Playlist newPlaylist = new Playlist();
-                    newPlaylist.setName(playlistName);
-                    newPlaylist.setUserId(userId);
-                    
-                    long playlistId = playlistDao.insert(newPlaylist);
-                    
-                    // Add current song to playlist
-                    PlaylistSong playlistSong = new PlaylistSong();
-                    playlistSong.setPlaylistId((int) playlistId);
-                    playlistSong.setSongId(currentSong.getSongId());
-                    playlistDao.insertPlaylistSong(playlistSong);
-
-                    runOnUiThread(() -> {
-                        Toast.makeText(this, "Added to new playlist: " + playlistName, Toast.LENGTH_SHORT).show();
-                    });
-                } catch (Exception e) {
+            // Create new playlist holding the current song
+            List<Integer> songIds = Collections.singletonList(currentSong.getSongId());
+            MusicRepository.getInstance(this).createPlaylistWithSongs(playlistName, userId, songIds, new MusicRepository.Callback<Long>() {
+                @Override
+                public void onResult(Long playlistId) {
+                    Toast.makeText(LocalMusicPlayerActivity.this, "Added to new playlist: " + playlistName, Toast.LENGTH_SHORT).show();
+                }
+
+                @Override
+                public void onError(Exception e) {
                     e.printStackTrace();
-                    runOnUiThread(() -> {
-                        Toast.makeText(this, "Error creating playlist", Toast.LENGTH_SHORT).show();
-                    });
+                    Toast.makeText(LocalMusicPlayerActivity.this, "Error creating playlist", Toast.LENGTH_SHORT).show();
                 }
-            }).start();
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -356,27 +320,19 @@ public class LocalMusicPlayerActivity extends AppCompatActivity {
     }
 
     private void addToPlaylist(Playlist playlist) {
-        new Thread(() -> {
-            try {
-                AppDatabase db = AppDatabase.getInstance(this);
-                PlaylistDao playlistDao = db.playlistDao();
-                
-                PlaylistSong playlistSong = new PlaylistSong();
-                playlistSong.setPlaylistId(playlist.getPlaylistId());
-                playlistSong.setSongId(currentSong.getSongId());
-                
-                playlistDao.insertPlaylistSong(playlistSong);
-                
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Added to playlist: " + playlist.getName(), Toast.LENGTH_SHORT).show();
-                });
-            } catch (Exception e) {
+        List<Integer> songIds = Collections.singletonList(currentSong.getSongId());
+        MusicRepository.getInstance(this).addSongsToPlaylist(playlist.getPlaylistId(), songIds, new MusicRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer added) {
+                Toast.makeText(LocalMusicPlayerActivity.this, "Added to playlist: " + playlist.getName(), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
                 e.printStackTrace();
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "Error adding to playlist", Toast.LENGTH_SHORT).show();
-                });
+                Toast.makeText(LocalMusicPlayerActivity.this, "Error adding to playlist", Toast.LENGTH_SHORT).show();
             }
-        }).start();
+        });
     }
 
     private String formatTime(int milliseconds) {
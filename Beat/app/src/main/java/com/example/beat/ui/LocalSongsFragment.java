@@ -4,30 +4,31 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ProgressBar;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
 import com.example.beat.adapter.SongAdapter;
-import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.LocalSong;
-import com.example.beat.data.dao.MusicDao;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.example.beat.scanner.MediaLibraryObserver;
 
 public class  LocalSongsFragment extends Fragment {
     // Make database references transient to avoid serialization issues
-    private transient AppDatabase database;
-    private transient MusicDao musicDao;
+    private transient MusicRepository repository;
     private int userId;
     private RecyclerView recyclerView;
     private SongAdapter songAdapter;
-    private List<LocalSong> allSongs;  // Store all songs for filtering
+    private PagingData<LocalSong> libraryPages;  // Shown again when the search is cleared
+    private String currentQuery = "";
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -50,11 +51,26 @@ public class  LocalSongsFragment extends Fragment {
         recyclerView = view.findViewById(R.id.recycler_view);
         setupSearchView(view);
         setupRecyclerView();
+        setupScanProgress(view);
+    }
+
+    // How far a running library sync has got; the list fills in as its batches land
+    private void setupScanProgress(View view) {
+        ProgressBar scanProgress = view.findViewById(R.id.scan_progress);
+        MediaLibraryObserver.getInstance(requireContext()).getScanProgress()
+                .observe(getViewLifecycleOwner(), percent -> {
+                    if (percent == null || percent == MediaLibraryObserver.IDLE) {
+                        scanProgress.setVisibility(View.GONE);
+                    } else {
+                        scanProgress.setProgress(percent);
+                        scanProgress.setVisibility(View.VISIBLE);
+                    }
+                });
     }
 
     private void setupRecyclerView() {
         recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
-        songAdapter = new SongAdapter(new ArrayList<>());
+        songAdapter = new SongAdapter();
         recyclerView.setAdapter(songAdapter);
         loadSongs();
     }
@@ -69,54 +85,41 @@ public class  LocalSongsFragment extends Fragment {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                if (allSongs != null) {
-                    List<LocalSong> filteredSongs = filterSongs(newText);
-                    songAdapter.updateSongs(filteredSongs);
-                }
+                currentQuery = newText;
+                filterSongs(newText);
                 return true;
             }
         });
     }
 
-    private List<LocalSong> filterSongs(String query) {
-        if (query.isEmpty()) {
-            return new ArrayList<>(allSongs);
-        }
-        query = query.toLowerCase();
-        List<LocalSong> filteredList = new ArrayList<>();
-        for (LocalSong song : allSongs) {
-            if (song.getTitle().toLowerCase().contains(query) ||
-                (song.getArtistId() != null && String.valueOf(song.getArtistId()).contains(query))) {
-                filteredList.add(song);
+    private void filterSongs(String query) {
+        if (query.trim().isEmpty()) {
+            if (libraryPages != null) {
+                songAdapter.submitData(getViewLifecycleOwner().getLifecycle(), libraryPages);
             }
+            return;
         }
-        return filteredList;
-    }
-
-    private void loadSongs() {
-        new Thread(() -> {
-            try {
-                database = AppDatabase.getInstance(requireContext());
-                musicDao = database.musicDao();
-
-                List<LocalSong> songs = musicDao.getSongsByUser(userId);
-                if (songs == null) {
-                    songs = new ArrayList<>();
-                }
-
-                allSongs = new ArrayList<>(songs);  // Store all songs
-                final List<LocalSong> finalSongs = new ArrayList<>(songs);
-                requireActivity().runOnUiThread(() -> {
-                    songAdapter.updateSongs(finalSongs);
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
+        // Matched by the full-text index on title, artist and album, best matches first
+        repository.searchSongs(query, userId, songs -> {
+            if (!isAdded() || getView() == null || !query.equals(currentQuery)) {
+                return;  // A newer query is on its way
             }
-        }).start();
+            songAdapter.submitData(getViewLifecycleOwner().getLifecycle(), PagingData.from(songs));
+        });
     }
 
-    public void refreshSongs() {
-        loadSongs();
+    private void loadSongs() {
+        repository = MusicRepository.getInstance(requireContext());
+
+        // Pages are loaded as the list scrolls. Each change to the library (e.g. a background
+        // sync) emits a new generation that reloads around the rows on screen.
+        LiveData<PagingData<LocalSong>> pages = PagingLiveData.cachedIn(
+                repository.pageSongsByUser(userId), getViewLifecycleOwner().getLifecycle());
+        pages.observe(getViewLifecycleOwner(), pagingData -> {
+            libraryPages = pagingData;
+            // While searching, re-run the search so the results follow the library too
+            filterSongs(currentQuery);
+        });
     }
 
     @Override
@@ -124,13 +127,4 @@ public class  LocalSongsFragment extends Fragment {
         // Don't save any state to avoid serialization issues
         // super.onSaveInstanceState(outState);
     }
-
-    @Override
-    public void onViewStateRestored(Bundle savedInstanceState) {
-        super.onViewStateRestored(savedInstanceState);
-        // Reload data instead of restoring state
-        if (isAdded() && getContext() != null) {
-            loadSongs();
-        }
-    }
 }
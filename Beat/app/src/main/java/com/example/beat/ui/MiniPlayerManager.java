@@ -10,8 +10,8 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
 import com.example.beat.R;
+import com.example.beat.glide.AlbumArtRequests;
 import com.example.beat.service.MusicService;
 import com.example.beat.service.MusicServiceConnection;
 
@@ -223,16 +223,8 @@ public class MiniPlayerManager implements MusicServiceConnection.ServiceConnecti
         miniTrackTitle.setText(currentTitle);
         miniArtistName.setText(currentArtist);
         
-        // Load album art
-        if (currentAlbumArt != null && !currentAlbumArt.isEmpty()) {
-            Glide.with(context)
-                    .load(currentAlbumArt)
-                    .placeholder(R.drawable.default_album_art)
-                    .error(R.drawable.default_album_art)
-                    .into(miniAlbumArt);
-        } else {
-            miniAlbumArt.setImageResource(R.drawable.default_album_art);
-        }
+        // Load album art, falling back to what is embedded in a local file
+        AlbumArtRequests.loadThumbnail(miniAlbumArt, currentAlbumArt, currentStreamUrl);
         
         updatePlayPauseButton();
     }
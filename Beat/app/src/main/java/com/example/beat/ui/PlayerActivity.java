@@ -8,8 +8,8 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
-import com.bumptech.glide.Glide;
 import com.example.beat.R;
+import com.example.beat.glide.AlbumArtRequests;
 import com.example.beat.viewmodel.PlayerViewModel;
 import com.google.android.material.imageview.ShapeableImageView;
 
@@ -66,20 +66,9 @@ public class PlayerActivity extends AppCompatActivity {
     private void setupObservers() {
         playerViewModel.getTrackTitle().observe(this, title -> trackTitleTextView.setText(title));
         playerViewModel.getArtistName().observe(this, artist -> artistNameTextView.setText(artist));
-        playerViewModel.getAlbumArtUrl().observe(this, url -> {
-            if (url != null && !url.isEmpty()) {
-                Glide.with(this)
-                        .load(url)
-                        .placeholder(R.drawable.default_album_art) // Use new default drawable
-                        .error(R.drawable.default_album_art)     // Use new default drawable on error
-                        .into(albumArtImageView);
-            } else {
-                // Load default placeholder if URL is null or empty
-                Glide.with(this)
-                        .load(R.drawable.default_album_art)
-                        .into(albumArtImageView);
-            }
-        });
+        // A Deezer cover has no file behind it; the list-size thumbnail shows while it loads
+        playerViewModel.getAlbumArtUrl().observe(this, url ->
+                AlbumArtRequests.load(albumArtImageView, url, null));
 
         playerViewModel.getTotalDuration().observe(this, duration -> seekBar.setMax(duration));
         playerViewModel.getCurrentPosition().observe(this, position -> {
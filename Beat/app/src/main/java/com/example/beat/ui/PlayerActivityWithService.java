@@ -9,8 +9,8 @@ import android.widget.SeekBar;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.bumptech.glide.Glide;
 import com.example.beat.R;
+import com.example.beat.glide.AlbumArtRequests;
 import com.example.beat.service.MusicService;
 import com.example.beat.service.MusicServiceConnection;
 import com.google.android.material.imageview.ShapeableImageView;
@@ -135,18 +135,22 @@ public class PlayerActivityWithService extends AppCompatActivity implements Musi
             int totalSongs = intent.getIntExtra("TOTAL_SONGS", 0);
             String contextType = intent.getStringExtra("CONTEXT_TYPE");
             int contextId = intent.getIntExtra("CONTEXT_ID", -1);
+            // Paged lists only know the clicked song, not its index in the whole context
+            int songId = intent.getIntExtra("SONG_ID", -1);
 
             android.util.Log.d("PlayerActivity", "Position: " + currentPosition + ", Total songs: " + totalSongs +
-                ", Context: " + contextType + ", ID: " + contextId);
+                ", Context: " + contextType + ", ID: " + contextId + ", Song ID: " + songId);
 
-            if (totalSongs > 1) {
+            if (songId != -1) {
+                loadPlaylistFromDatabase(contextType, contextId, songId);
+            } else if (totalSongs > 1) {
                 // Check if this is an API search context
                 if ("API_SEARCH".equals(contextType)) {
                     // Load API playlist from intent extras
                     loadApiPlaylistFromIntent(intent);
                 } else {
                     // Load playlist from database based on context
-                    loadPlaylistFromDatabase(contextType, contextId);
+                    loadPlaylistFromDatabase(contextType, contextId, -1);
                 }
             } else {
                 android.util.Log.d("PlayerActivity", "Single song mode");
@@ -172,74 +176,74 @@ public class PlayerActivityWithService extends AppCompatActivity implements Musi
         trackTitleTextView.setText(trackTitle != null ? trackTitle : "Unknown Track");
         artistNameTextView.setText(artistName != null ? artistName : "Unknown Artist");
         
-        // Load album art
-        if (albumArtUrl != null && !albumArtUrl.isEmpty()) {
-            Glide.with(this)
-                    .load(albumArtUrl)
-                    .placeholder(R.drawable.default_album_art)
-                    .error(R.drawable.default_album_art)
-                    .into(albumArtImageView);
-        } else {
-            Glide.with(this)
-                    .load(R.drawable.default_album_art)
-                    .into(albumArtImageView);
-        }
+        // Load album art, falling back to what is embedded in a local file
+        AlbumArtRequests.load(albumArtImageView, albumArtUrl, streamUrl);
     }
 
-    private void loadPlaylistFromDatabase(String contextType, int contextId) {
-        new Thread(() -> {
-            try {
-                com.example.beat.data.database.AppDatabase db = com.example.beat.data.database.AppDatabase.getInstance(this);
-                com.example.beat.data.dao.MusicDao musicDao = db.musicDao();
-
-                java.util.List<com.example.beat.data.entities.LocalSong> songs = null;
-
-                // Load songs based on context type
-                if ("ARTIST_SONGS".equals(contextType) && contextId != -1) {
-                    android.util.Log.d("PlayerActivity", "Loading songs for artist ID: " + contextId);
-                    songs = musicDao.getSongsByArtistAndUser(contextId, 1); // Using userId = 1 for now
-                } else if ("PLAYLIST_SONGS".equals(contextType) && contextId != -1) {
-                    android.util.Log.d("PlayerActivity", "Loading songs for playlist ID: " + contextId);
-                    // Get playlist with songs
-                    com.example.beat.data.dao.PlaylistDao playlistDao = db.playlistDao();
-                    com.example.beat.data.entities.PlaylistWithSongs playlistWithSongs = playlistDao.getPlaylistWithSongs(contextId);
-                    if (playlistWithSongs != null) {
-                        songs = playlistWithSongs.songs;
-                    }
-                } else if ("ALBUM_SONGS".equals(contextType) && contextId != -1) {
-                    android.util.Log.d("PlayerActivity", "Loading songs for album ID: " + contextId);
-                    songs = musicDao.getSongsByAlbumAndUser(contextId, 1); // Using userId = 1 for now
-                    android.util.Log.d("PlayerActivity", "Found " + (songs != null ? songs.size() : "null") + " songs for album ID: " + contextId);
-                } else {
-                    // Default: load all songs for the user (LOCAL_SONGS context)
-                    android.util.Log.d("PlayerActivity", "Loading all local songs for user");
-                    songs = musicDao.getSongsByUser(1); // Using userId = 1 for now
-                }
-
-                if (songs != null && !songs.isEmpty()) {
-                    // Create playlist arrays
-                    songList = new java.util.ArrayList<>();
-                    titleList = new java.util.ArrayList<>();
-                    artistList = new java.util.ArrayList<>();
-                    albumArtList = new java.util.ArrayList<>();
-
-                    for (com.example.beat.data.entities.LocalSong song : songs) {
-                        if (song.getFilePath() != null && !song.getFilePath().trim().isEmpty()) {
-                            songList.add(song.getFilePath());
-                            titleList.add(song.getTitle() != null ? song.getTitle() : "Unknown Track");
-                            artistList.add("Local Artist");
-                            albumArtList.add(song.getAlbumArtUri() != null ? song.getAlbumArtUri() : "");
+    /**
+     * Loads the queue for {@code contextType}. When {@code songId} is set, the current position is
+     * taken from where that song sits in the loaded queue rather than from the intent.
+     */
+    private void loadPlaylistFromDatabase(String contextType, int contextId, int songId) {
+        com.example.beat.data.MusicRepository repository = com.example.beat.data.MusicRepository.getInstance(this);
+
+        // Results arrive on the main thread, where the playlist arrays are read
+        com.example.beat.data.MusicRepository.Callback<java.util.List<com.example.beat.data.entities.LocalSong>> onSongs = songs -> {
+            if (songs != null && !songs.isEmpty()) {
+                // Create playlist arrays
+                songList = new java.util.ArrayList<>();
+                titleList = new java.util.ArrayList<>();
+                artistList = new java.util.ArrayList<>();
+                albumArtList = new java.util.ArrayList<>();
+                int songIndex = -1;
+
+                for (com.example.beat.data.entities.LocalSong song : songs) {
+                    if (song.getFilePath() != null && !song.getFilePath().trim().isEmpty()) {
+                        if (song.getSongId() == songId) {
+                            songIndex = songList.size();
                         }
+                        songList.add(song.getFilePath());
+                        titleList.add(song.getTitle() != null ? song.getTitle() : "Unknown Track");
+                        artistList.add("Local Artist");
+                        albumArtList.add(song.getAlbumArtUri() != null ? song.getAlbumArtUri() : "");
                     }
+                }
 
-                    android.util.Log.d("PlayerActivity", "Loaded " + contextType + " playlist from database: " + songList.size() + " songs");
-                } else {
-                    android.util.Log.d("PlayerActivity", "No songs found for context: " + contextType);
+                if (songIndex != -1) {
+                    currentPosition = songIndex;
+                } else if (songId != -1) {
+                    // The clicked song is not in this context's queue; play it on its own
+                    android.util.Log.w("PlayerActivity", "Song " + songId + " not found in " + contextType + " playlist");
+                    songList = null;
+                    titleList = null;
+                    artistList = null;
+                    albumArtList = null;
+                    return;
                 }
-            } catch (Exception e) {
-                android.util.Log.e("PlayerActivity", "Error loading playlist from database", e);
+
+                android.util.Log.d("PlayerActivity", "Loaded " + contextType + " playlist from database: " + songList.size() + " songs");
+            } else {
+                android.util.Log.d("PlayerActivity", "No songs found for context: " + contextType);
             }
-        }).start();
+        };
+
+        // Load songs based on context type
+        if ("ARTIST_SONGS".equals(contextType) && contextId != -1) {
+            android.util.Log.d("PlayerActivity", "Loading songs for artist ID: " + contextId);
+            repository.getSongsByArtist(contextId, 1, onSongs); // Using userId = 1 for now
+        } else if ("PLAYLIST_SONGS".equals(contextType) && contextId != -1) {
+            android.util.Log.d("PlayerActivity", "Loading songs for playlist ID: " + contextId);
+            // Get playlist with songs
+            repository.getPlaylistWithSongs(contextId, playlistWithSongs ->
+                    onSongs.onResult(playlistWithSongs != null ? playlistWithSongs.songs : null));
+        } else if ("ALBUM_SONGS".equals(contextType) && contextId != -1) {
+            android.util.Log.d("PlayerActivity", "Loading songs for album ID: " + contextId);
+            repository.getSongsByAlbum(contextId, 1, onSongs); // Using userId = 1 for now
+        } else {
+            // Default: load all songs for the user (LOCAL_SONGS context)
+            android.util.Log.d("PlayerActivity", "Loading all local songs for user");
+            repository.getSongsByUser(1, onSongs); // Using userId = 1 for now
+        }
     }
 
     // ✅ ADD: Load API playlist from intent extras
@@ -538,20 +542,8 @@ public class PlayerActivityWithService extends AppCompatActivity implements Musi
             trackTitleTextView.setText(trackTitle);
             artistNameTextView.setText(artistName);
 
-            // Load album art
-            if (albumArtUrl != null && !albumArtUrl.isEmpty()) {
-                try {
-                    com.bumptech.glide.Glide.with(this)
-                            .load(albumArtUrl)
-                            .placeholder(com.example.beat.R.drawable.default_album_art)
-                            .error(com.example.beat.R.drawable.default_album_art)
-                            .into(albumArtImageView);
-                } catch (Exception e) {
-                    albumArtImageView.setImageResource(com.example.beat.R.drawable.default_album_art);
-                }
-            } else {
-                albumArtImageView.setImageResource(com.example.beat.R.drawable.default_album_art);
-            }
+            // Load album art, falling back to what is embedded in a local file
+            AlbumArtRequests.load(albumArtImageView, albumArtUrl, streamUrl);
 
             // Play the new song
             if (musicServiceConnection != null && streamUrl != null) {
@@ -597,44 +589,40 @@ public class PlayerActivityWithService extends AppCompatActivity implements Musi
         if (streamUrl == null) return;
 
         // Get all playlists for the current user
-        new Thread(() -> {
-            try {
-                com.example.beat.data.database.AppDatabase db = com.example.beat.data.database.AppDatabase.getInstance(this);
-                com.example.beat.data.dao.PlaylistDao playlistDao = db.playlistDao();
-                java.util.List<com.example.beat.data.entities.Playlist> playlists = playlistDao.getPlaylistsByUser(1); // Using userId = 1 for now
-
-                // Create dialog on UI thread
-                runOnUiThread(() -> {
-                    if (playlists == null || playlists.isEmpty()) {
-                        showCreatePlaylistDialog();
-                        return;
-                    }
-
-                    // Create dialog with playlist options
-                    androidx.appcompat.app.AlertDialog.Builder builder = new androidx.appcompat.app.AlertDialog.Builder(this);
-                    builder.setTitle("Add to Playlist");
+        com.example.beat.data.MusicRepository.getInstance(this).getPlaylists(1, // Using userId = 1 for now
+                new com.example.beat.data.MusicRepository.Callback<java.util.List<com.example.beat.data.entities.Playlist>>() {
+            @Override
+            public void onResult(java.util.List<com.example.beat.data.entities.Playlist> playlists) {
+                if (playlists == null || playlists.isEmpty()) {
+                    showCreatePlaylistDialog();
+                    return;
+                }
 
-                    String[] playlistNames = new String[playlists.size()];
-                    for (int i = 0; i < playlists.size(); i++) {
-                        playlistNames[i] = playlists.get(i).getName();
-                    }
+                // Create dialog with playlist options
+                androidx.appcompat.app.AlertDialog.Builder builder = new androidx.appcompat.app.AlertDialog.Builder(PlayerActivityWithService.this);
+                builder.setTitle("Add to Playlist");
 
-                    builder.setItems(playlistNames, (dialog, which) -> {
-                        com.example.beat.data.entities.Playlist selectedPlaylist = playlists.get(which);
-                        addToPlaylist(selectedPlaylist);
-                    });
+                String[] playlistNames = new String[playlists.size()];
+                for (int i = 0; i < playlists.size(); i++) {
+                    playlistNames[i] = playlists.get(i).getName();
+                }
 
-                    builder.setPositiveButton("Create New", (dialog, which) -> showCreatePlaylistDialog());
-                    builder.setNegativeButton("Cancel", null);
-                    builder.show();
+                builder.setItems(playlistNames, (dialog, which) -> {
+                    com.example.beat.data.entities.Playlist selectedPlaylist = playlists.get(which);
+                    addToPlaylist(selectedPlaylist.getPlaylistId(), "Added to playlist: " + selectedPlaylist.getName());
                 });
-            } catch (Exception e) {
+
+                builder.setPositiveButton("Create New", (dialog, which) -> showCreatePlaylistDialog());
+                builder.setNegativeButton("Cancel", null);
+                builder.show();
+            }
+
+            @Override
+            public void onError(Exception e) {
                 e.printStackTrace();
-                runOnUiThread(() -> {
-                    android.widget.Toast.makeText(this, "Error loading playlists", android.widget.Toast.LENGTH_SHORT).show();
-                });
+                android.widget.Toast.makeText(PlayerActivityWithService.this, "Error loading playlists", android.widget.Toast.LENGTH_SHORT).show();
             }
-        }).start();
+        });
     }
 
     private void showCreatePlaylistDialog() {
@@ -656,100 +644,45 @@ public class PlayerActivityWithService extends AppCompatActivity implements Musi
                 return;
             }
 
-            // Create new playlist
-            new Thread(() -> {
-                try {
-                    com.example.beat.data.database.AppDatabase db = com.example.beat.data.database.AppDatabase.getInstance(this);
-                    com.example.beat.data.dao.PlaylistDao playlistDao = db.playlistDao();
-
-                    com.example.beat.data.entities.Playlist newPlaylist = new com.example.beat.data.entities.Playlist();
-                    newPlaylist.setName(playlistName);
-                    newPlaylist.setUserId(1); // Using userId = 1 for now
-
-                    long playlistId = playlistDao.insert(newPlaylist);
-
-                    // Find current song in database and add to playlist
-                    findCurrentSongAndAddToPlaylist((int) playlistId, playlistName);
+            // Create new playlist, then add the current song to it
+            com.example.beat.data.MusicRepository.getInstance(this).createPlaylist(playlistName, 1, // Using userId = 1 for now
+                    new com.example.beat.data.MusicRepository.Callback<Long>() {
+                @Override
+                public void onResult(Long playlistId) {
+                    addToPlaylist(playlistId.intValue(), "Added to new playlist: " + playlistName);
+                }
 
-                } catch (Exception e) {
+                @Override
+                public void onError(Exception e) {
                     e.printStackTrace();
-                    runOnUiThread(() -> {
-                        android.widget.Toast.makeText(this, "Error creating playlist", android.widget.Toast.LENGTH_SHORT).show();
-                    });
+                    android.widget.Toast.makeText(PlayerActivityWithService.this, "Error creating playlist", android.widget.Toast.LENGTH_SHORT).show();
                 }
-            }).start();
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
         builder.show();
     }
 
-    private void addToPlaylist(com.example.beat.data.entities.Playlist playlist) {
-        new Thread(() -> {
-            try {
-                com.example.beat.data.database.AppDatabase db = com.example.beat.data.database.AppDatabase.getInstance(this);
-                com.example.beat.data.dao.MusicDao musicDao = db.musicDao();
-
-                // Find the current song in database by file path
-                com.example.beat.data.entities.LocalSong currentSong = musicDao.getSongByFilePath(streamUrl);
-
-                if (currentSong != null) {
-                    com.example.beat.data.dao.PlaylistDao playlistDao = db.playlistDao();
-
-                    com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                    playlistSong.setPlaylistId(playlist.getPlaylistId());
-                    playlistSong.setSongId(currentSong.getSongId());
-
-                    playlistDao.insertPlaylistSong(playlistSong);
-
-                    runOnUiThread(() -> {
-                        android.widget.Toast.makeText(this, "Added to playlist: " + playlist.getName(), android.widget.Toast.LENGTH_SHORT).show();
-                    });
+    private void addToPlaylist(int playlistId, String successMessage) {
+        // Find the current song in database by file path
+        com.example.beat.data.MusicRepository.getInstance(this).addSongToPlaylistByPath(playlistId, streamUrl,
+                new com.example.beat.data.MusicRepository.Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean added) {
+                if (added) {
+                    android.widget.Toast.makeText(PlayerActivityWithService.this, successMessage, android.widget.Toast.LENGTH_SHORT).show();
                 } else {
-                    runOnUiThread(() -> {
-                        android.widget.Toast.makeText(this, "Song not found in database", android.widget.Toast.LENGTH_SHORT).show();
-                    });
+                    android.widget.Toast.makeText(PlayerActivityWithService.this, "Song not found in database", android.widget.Toast.LENGTH_SHORT).show();
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(() -> {
-                    android.widget.Toast.makeText(this, "Error adding to playlist", android.widget.Toast.LENGTH_SHORT).show();
-                });
             }
-        }).start();
-    }
-
-    private void findCurrentSongAndAddToPlaylist(int playlistId, String playlistName) {
-        try {
-            com.example.beat.data.database.AppDatabase db = com.example.beat.data.database.AppDatabase.getInstance(this);
-            com.example.beat.data.dao.MusicDao musicDao = db.musicDao();
-
-            // Find the current song in database by file path
-            com.example.beat.data.entities.LocalSong currentSong = musicDao.getSongByFilePath(streamUrl);
 
-            if (currentSong != null) {
-                com.example.beat.data.dao.PlaylistDao playlistDao = db.playlistDao();
-
-                com.example.beat.data.entities.PlaylistSong playlistSong = new com.example.beat.data.entities.PlaylistSong();
-                playlistSong.setPlaylistId(playlistId);
-                playlistSong.setSongId(currentSong.getSongId());
-
-                playlistDao.insertPlaylistSong(playlistSong);
-
-                runOnUiThread(() -> {
-                    android.widget.Toast.makeText(this, "Added to new playlist: " + playlistName, android.widget.Toast.LENGTH_SHORT).show();
-                });
-            } else {
-                runOnUiThread(() -> {
-                    android.widget.Toast.makeText(this, "Song not found in database", android.widget.Toast.LENGTH_SHORT).show();
-                });
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                android.widget.Toast.makeText(PlayerActivityWithService.this, "Error adding to playlist", android.widget.Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            runOnUiThread(() -> {
-                android.widget.Toast.makeText(this, "Error adding to playlist", android.widget.Toast.LENGTH_SHORT).show();
-            });
-        }
+        });
     }
 
 
@@ -799,21 +732,8 @@ public class PlayerActivityWithService extends AppCompatActivity implements Musi
             artistNameTextView.setText(artistName != null ? artistName : "Unknown Artist");
         }
 
-        // Load album art
-        if (albumArtUrl != null && !albumArtUrl.isEmpty()) {
-            try {
-                com.bumptech.glide.Glide.with(this)
-                    .load(albumArtUrl)
-                    .placeholder(R.drawable.default_album_art)
-                    .error(R.drawable.default_album_art)
-                    .into(albumArtImageView);
-            } catch (Exception e) {
-                android.util.Log.e("PlayerActivity", "Error loading album art", e);
-                albumArtImageView.setImageResource(R.drawable.default_album_art);
-            }
-        } else {
-            albumArtImageView.setImageResource(R.drawable.default_album_art);
-        }
+        // Load album art, falling back to what is embedded in a local file
+        AlbumArtRequests.load(albumArtImageView, albumArtUrl, streamUrl);
     }
 
     private void updateMiniPlayer() {
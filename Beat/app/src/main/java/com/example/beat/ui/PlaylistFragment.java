@@ -17,12 +17,8 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
 import com.example.beat.adapter.PlaylistAdapter;
-import com.example.beat.data.dao.MusicDao;
-import com.example.beat.data.dao.PlaylistDao;
-import com.example.beat.data.database.AppDatabase;
-import com.example.beat.data.entities.Playlist;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.PlaylistWithSongs;
-import com.example.beat.data.entities.UserWithPlaylists;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.util.ArrayList;
@@ -33,28 +29,22 @@ public class PlaylistFragment extends Fragment {
     private PlaylistAdapter playlistAdapter;
     private int userId;
     // Make database reference transient to avoid serialization issues
-    private transient AppDatabase database;
+    private transient MusicRepository repository;
 
     private void createNewPlaylist(String name) {
-        new Thread(() -> {
-            try {
-                MusicDao musicDao = database.musicDao();
-                Playlist playlist = new Playlist();
-                playlist.name = name;
-                playlist.userId = userId;
-                musicDao.insertPlaylist(playlist);
-                
+        repository.createPlaylist(name, userId, new MusicRepository.Callback<Long>() {
+            @Override
+            public void onResult(Long playlistId) {
                 // Refresh the playlists list
-                requireActivity().runOnUiThread(() -> {
-                    loadPlaylists();
-                });
-            } catch (Exception e) {
+                loadPlaylists();
+            }
+
+            @Override
+            public void onError(Exception e) {
                 e.printStackTrace();
-                requireActivity().runOnUiThread(() -> {
-                    Toast.makeText(getContext(), "Error creating playlist: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+                Toast.makeText(getContext(), "Error creating playlist: " + e.getMessage(), Toast.LENGTH_SHORT).show();
             }
-        }).start();
+        });
     }
 
     @Override
@@ -62,7 +52,7 @@ public class PlaylistFragment extends Fragment {
         super.onCreate(savedInstanceState);
         userId = requireActivity().getSharedPreferences("UserPrefs", 0)
                 .getInt("userId", -1);
-        database = AppDatabase.getInstance(getContext());
+        repository = MusicRepository.getInstance(requireContext());
     }
 
     @Nullable
@@ -100,22 +90,19 @@ public class PlaylistFragment extends Fragment {
     }
 
     private void loadPlaylists() {
-        new Thread(() -> {
-            try {
-                PlaylistDao playlistDao = database.playlistDao();
-                List<PlaylistWithSongs> playlists = playlistDao.getUserPlaylistsWithSongs(userId);
-                
-                requireActivity().runOnUiThread(() -> {
-                    playlistAdapter.updatePlaylists(playlists);
-                });
-            } catch (Exception e) {
+        repository.getPlaylistsWithSongs(userId, new MusicRepository.Callback<List<PlaylistWithSongs>>() {
+            @Override
+            public void onResult(List<PlaylistWithSongs> playlists) {
+                playlistAdapter.updatePlaylists(playlists);
+            }
+
+            @Override
+            public void onError(Exception e) {
                 e.printStackTrace();
-                requireActivity().runOnUiThread(() -> {
-                    Toast.makeText(getContext(), "Error loading playlists: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    playlistAdapter.updatePlaylists(new ArrayList<>());
-                });
+                Toast.makeText(getContext(), "Error loading playlists: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                playlistAdapter.updatePlaylists(new ArrayList<>());
             }
-        }).start();
+        });
     }
 
     public void refreshPlaylists() {
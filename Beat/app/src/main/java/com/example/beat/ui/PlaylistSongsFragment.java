@@ -10,11 +10,13 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.beat.R;
 import com.example.beat.adapter.SongAdapter;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.PlaylistWithSongs;
 import com.example.beat.data.entities.LocalSong;
 
@@ -22,6 +24,7 @@ import java.util.List;
 
 public class PlaylistSongsFragment extends Fragment {
     private TextView playlistName;
+    private TextView playlistTotals;
     private RecyclerView recyclerView;
     private SongAdapter songAdapter;
     // Make complex object transient to avoid serialization issues
@@ -40,6 +43,7 @@ public class PlaylistSongsFragment extends Fragment {
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_playlist_songs, container, false);
         playlistName = view.findViewById(R.id.playlist_name);
+        playlistTotals = view.findViewById(R.id.playlist_totals);
         recyclerView = view.findViewById(R.id.recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         setupRecyclerView();
@@ -52,8 +56,12 @@ public class PlaylistSongsFragment extends Fragment {
             if (playlist != null) {
                 playlistName.setText(playlist.playlist.name);
                 // Pass playlist context to SongAdapter
-                songAdapter = new SongAdapter(playlist.songs, "PLAYLIST_SONGS", playlist.playlist.playlistId);
+                songAdapter = new SongAdapter("PLAYLIST_SONGS", playlist.playlist.playlistId);
+                // Playlist songs are already in memory; reload them after one leaves the library
+                songAdapter.setOnSongRemovedListener(this::reloadPlaylist);
                 recyclerView.setAdapter(songAdapter);
+                songAdapter.submitData(getLifecycle(), PagingData.from(playlist.songs));
+                loadTotals();
             }
         }
     }
@@ -62,7 +70,26 @@ public class PlaylistSongsFragment extends Fragment {
         if (songAdapter != null) {
             this.playlist = playlist;
             playlistName.setText(playlist.playlist.name);
-            songAdapter.updateSongs(playlist.songs);
+            songAdapter.submitData(getLifecycle(), PagingData.from(playlist.songs));
+            loadTotals();
         }
     }
+
+    private void loadTotals() {
+        MusicRepository.getInstance(requireContext()).getPlaylistTotals(
+                playlist.playlist.playlistId, totals -> {
+                    if (isAdded()) {
+                        playlistTotals.setText(totals.describe());
+                    }
+                });
+    }
+
+    private void reloadPlaylist() {
+        MusicRepository.getInstance(requireContext()).getPlaylistWithSongs(
+                playlist.playlist.playlistId, reloaded -> {
+                    if (isAdded() && reloaded != null) {
+                        updatePlaylist(reloaded);
+                    }
+                });
+    }
 }
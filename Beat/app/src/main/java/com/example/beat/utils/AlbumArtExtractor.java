@@ -5,9 +5,18 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.media.MediaMetadataRetriever;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AlbumArtExtractor {
     private static final String TAG = "AlbumArtExtractor";
@@ -19,60 +28,81 @@ public class AlbumArtExtractor {
      * @return Bitmap of album art or null if not found
      */
     public static Bitmap extractAlbumArt(Context context, String filePath) {
+        byte[] albumArtBytes = extractEmbeddedPicture(context, filePath);
+        if (albumArtBytes == null) {
+            return null;
+        }
+
+        // Decode with options to avoid memory issues
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = 2; // Scale down to reduce memory usage
+        options.inPreferredConfig = Bitmap.Config.RGB_565; // Use less memory
+
+        return BitmapFactory.decodeByteArray(albumArtBytes, 0, albumArtBytes.length, options);
+    }
+
+    /**
+     * Raw bytes of the picture embedded in a music file, undecoded.
+     * @param context Application context
+     * @param filePath Path to the music file, or a content:// or file:// URI
+     * @return the picture bytes, or null if there is none or the file can't be read
+     */
+    public static byte[] extractEmbeddedPicture(Context context, String filePath) {
         if (filePath == null || filePath.isEmpty()) {
             return null;
         }
 
-        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
         try {
-            // Handle different URI formats
-            if (filePath.startsWith("content://")) {
-                retriever.setDataSource(context, Uri.parse(filePath));
-            } else if (filePath.startsWith("file://")) {
-                String actualPath = filePath.substring(7); // Remove "file://" prefix
-                File file = new File(actualPath);
-                if (file.exists()) {
-                    retriever.setDataSource(actualPath);
-                } else {
-                    Log.w(TAG, "File does not exist: " + actualPath);
-                    return null;
-                }
-            } else {
-                // Assume it's a direct file path
-                File file = new File(filePath);
-                if (file.exists()) {
-                    retriever.setDataSource(filePath);
-                } else {
-                    Log.w(TAG, "File does not exist: " + filePath);
-                    return null;
-                }
-            }
+            return readEmbeddedPicture(context, filePath, null);
+        } catch (IOException e) {
+            Log.e(TAG, "Error extracting album art from: " + filePath + " - " + e.getMessage());
+            return null;
+        }
+    }
 
-            // Extract embedded album art
-            byte[] albumArtBytes = retriever.getEmbeddedPicture();
-            if (albumArtBytes != null) {
-                Log.d(TAG, "✅ Successfully extracted embedded album art from: " + filePath);
-                
-                // Decode with options to avoid memory issues
-                BitmapFactory.Options options = new BitmapFactory.Options();
-                options.inSampleSize = 2; // Scale down to reduce memory usage
-                options.inPreferredConfig = Bitmap.Config.RGB_565; // Use less memory
-                
-                return BitmapFactory.decodeByteArray(albumArtBytes, 0, albumArtBytes.length, options);
-            } else {
-                Log.d(TAG, "❌ No embedded album art found in: " + filePath);
+    /**
+     * Raw bytes of the picture embedded in a music file, telling a file without one apart
+     * from a file that couldn't be read.
+     * @param context Application context
+     * @param filePath Path to the music file, or a content:// or file:// URI
+     * @param cancelled checked between the steps of the read, may be null
+     * @return the picture bytes, or null if the file was read and has no picture
+     * @throws IOException if the file is missing or can't be read, or
+     *         {@link InterruptedIOException} once cancelled is set
+     */
+    public static byte[] readEmbeddedPicture(Context context, String filePath,
+                                             @Nullable AtomicBoolean cancelled) throws IOException {
+        FileInputStream opened = open(context, filePath);
+        if (opened == null) {
+            throw new FileNotFoundException("No file at " + filePath);
+        }
+
+        // The tags are read directly; the retriever only gets files the reader can't handle
+        try (FileInputStream in = opened) {
+            FileChannel channel = in.getChannel();
+            EmbeddedPictureReader.Picture picture = EmbeddedPictureReader.find(channel);
+            if (picture == null) {
                 return null;
             }
+            // Finding the picture is a few small reads; its bytes may be megabytes
+            checkCancelled(cancelled, filePath);
+            return picture.read(channel);
+        } catch (EmbeddedPictureReader.UnsupportedFormatException e) {
+            Log.d(TAG, "Tags not readable directly, using retriever: " + filePath + " - " + e.getMessage());
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            // Whatever goes wrong reading the tags, the retriever still gets its try
+            Log.w(TAG, "Error reading tags of: " + filePath + " - " + e.getMessage());
+        }
+        checkCancelled(cancelled, filePath);
+        return retrieve(context, filePath);
+    }
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error extracting album art from: " + filePath + " - " + e.getMessage());
-            return null;
-        } finally {
-            try {
-                retriever.release();
-            } catch (Exception e) {
-                Log.e(TAG, "Error releasing MediaMetadataRetriever: " + e.getMessage());
-            }
+    private static void checkCancelled(@Nullable AtomicBoolean cancelled, String filePath)
+            throws InterruptedIOException {
+        if (cancelled != null && cancelled.get()) {
+            throw new InterruptedIOException("Cancelled reading art of " + filePath);
         }
     }
 
@@ -87,23 +117,75 @@ public class AlbumArtExtractor {
             return false;
         }
 
+        // Finding the picture frame is enough; its bytes aren't read
+        try (FileInputStream in = open(context, filePath)) {
+            if (in == null) {
+                return false;
+            }
+            return EmbeddedPictureReader.find(in.getChannel()) != null;
+        } catch (EmbeddedPictureReader.UnsupportedFormatException e) {
+            Log.d(TAG, "Tags not readable directly, using retriever: " + filePath + " - " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Error reading tags of: " + filePath + " - " + e.getMessage());
+        }
+        byte[] albumArtBytes = retrieveEmbeddedPicture(context, filePath);
+        return albumArtBytes != null && albumArtBytes.length > 0;
+    }
+
+    // The file behind a path or URI, or null (logged) when a path points at nothing
+    private static FileInputStream open(Context context, String filePath) throws IOException {
+        if (filePath.startsWith("content://")) {
+            ParcelFileDescriptor descriptor = context.getContentResolver()
+                    .openFileDescriptor(Uri.parse(filePath), "r");
+            return descriptor != null ? new ParcelFileDescriptor.AutoCloseInputStream(descriptor) : null;
+        }
+        String actualPath = filePath.startsWith("file://") ? filePath.substring(7) : filePath;
+        File file = new File(actualPath);
+        if (!file.exists()) {
+            Log.w(TAG, "File does not exist: " + actualPath);
+            return null;
+        }
+        return new FileInputStream(file);
+    }
+
+    /**
+     * The embedded picture as MediaMetadataRetriever finds it, for formats
+     * {@link EmbeddedPictureReader} doesn't read.
+     */
+    static byte[] retrieveEmbeddedPicture(Context context, String filePath) {
+        try {
+            return retrieve(context, filePath);
+        } catch (IOException e) {
+            Log.e(TAG, "Error extracting album art from: " + filePath + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Null only when the retriever read the file and found no picture
+    private static byte[] retrieve(Context context, String filePath) throws IOException {
         MediaMetadataRetriever retriever = new MediaMetadataRetriever();
         try {
+            // Handle different URI formats
             if (filePath.startsWith("content://")) {
                 retriever.setDataSource(context, Uri.parse(filePath));
             } else if (filePath.startsWith("file://")) {
-                String actualPath = filePath.substring(7);
-                retriever.setDataSource(actualPath);
+                retriever.setDataSource(filePath.substring(7)); // Remove "file://" prefix
             } else {
                 retriever.setDataSource(filePath);
             }
 
+            // Extract embedded album art
             byte[] albumArtBytes = retriever.getEmbeddedPicture();
-            return albumArtBytes != null && albumArtBytes.length > 0;
+            if (albumArtBytes != null) {
+                Log.d(TAG, "✅ Successfully extracted embedded album art from: " + filePath);
+            } else {
+                Log.d(TAG, "❌ No embedded album art found in: " + filePath);
+            }
+            return albumArtBytes;
 
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking album art in: " + filePath + " - " + e.getMessage());
-            return false;
+        } catch (RuntimeException e) {
+            // setDataSource rejects files it can't open or parse
+            throw new IOException("Retriever can't read " + filePath, e);
         } finally {
             try {
                 retriever.release();
@@ -0,0 +1,92 @@
+package com.example.beat.utils;
+
+import android.content.ContentUris;
+import android.net.Uri;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, once per MediaStore album, whether the provider has a cover for it.
+ *
+ * The scanner stores the MediaStore album art URI without checking it, so the first
+ * time a row of an album is loaded Glide finds out whether the provider really has a
+ * cover, or whether only the audio files may carry embedded art. Only the provider's
+ * answer is recorded: each file's embedded art is its own, and Glide caches those. The
+ * answer is cached by MediaStore album id for the lifetime of the process.
+ */
+public class AlbumArtResolver {
+    public static final String ALBUM_ART_BASE_URI = "content://media/external/audio/albumart";
+
+    public enum ArtState {
+        UNKNOWN,
+        // The provider has a cover for the album
+        PRESENT,
+        // The provider has none; covers can only come from the files
+        EMBEDDED_ONLY
+    }
+
+    private static volatile AlbumArtResolver instance;
+
+    private final ConcurrentHashMap<Long, ArtState> states = new ConcurrentHashMap<>();
+
+    private AlbumArtResolver() {
+    }
+
+    public static AlbumArtResolver getInstance() {
+        if (instance == null) {
+            synchronized (AlbumArtResolver.class) {
+                if (instance == null) {
+                    instance = new AlbumArtResolver();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * URI the scanner stores for a MediaStore album, or null when the row has no album.
+     */
+    public static String albumArtUriFor(long mediaStoreAlbumId) {
+        if (mediaStoreAlbumId <= 0) {
+            return null;
+        }
+        return ContentUris.withAppendedId(Uri.parse(ALBUM_ART_BASE_URI), mediaStoreAlbumId).toString();
+    }
+
+    /**
+     * MediaStore album id encoded in an album art URI, or -1 for anything else.
+     */
+    public static long albumIdFromUri(String albumArtUri) {
+        if (albumArtUri == null || !albumArtUri.startsWith(ALBUM_ART_BASE_URI + "/")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(albumArtUri.substring(ALBUM_ART_BASE_URI.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Cached state for an album art URI, without doing any I/O.
+     */
+    public ArtState peek(String albumArtUri) {
+        long albumId = albumIdFromUri(albumArtUri);
+        if (albumId <= 0) {
+            return ArtState.UNKNOWN;
+        }
+        ArtState state = states.get(albumId);
+        return state != null ? state : ArtState.UNKNOWN;
+    }
+
+    /**
+     * Record what a loader found out about the provider URI, e.g. after Glide failed to open
+     * it because the album has no cover.
+     */
+    public void remember(String albumArtUri, ArtState state) {
+        long albumId = albumIdFromUri(albumArtUri);
+        if (albumId > 0 && state != ArtState.UNKNOWN) {
+            states.put(albumId, state);
+        }
+    }
+}
@@ -0,0 +1,890 @@
+package com.example.beat.utils;
+
+import androidx.annotation.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds the cover picture in an audio file's tags without a media extractor: ID3v2 APIC
+ * (MP3, and FLAC files with an ID3 tag in front), FLAC PICTURE blocks, MP4 covr atoms (M4A)
+ * and Vorbis comment METADATA_BLOCK_PICTURE (Ogg Vorbis and Opus).
+ *
+ * Only tag structures are read, with positioned reads on the channel: {@link #find} walks
+ * the headers and stops at the picture, so asking whether there is one costs a handful of
+ * small reads, and {@link Picture#read} then reads just the picture's bytes. Audio data is
+ * never touched; in an M4A with its mdat ahead of the moov atom it is seeked over.
+ *
+ * A front cover is preferred when a file carries several pictures. Files in a container
+ * this doesn't know, or whose picture is compressed or encrypted inside the tag, throw
+ * {@link UnsupportedFormatException}; callers fall back to MediaMetadataRetriever for those.
+ *
+ * Plain Java with no Android dependency, so it runs in JVM unit tests.
+ */
+public final class EmbeddedPictureReader {
+    // ID3v2 and FLAC picture type of the front cover
+    public static final int FRONT_COVER = 3;
+
+    // Larger than any real cover; a bigger length is a corrupt tag, not a picture to allocate
+    static final int MAX_PICTURE_BYTES = 32 * 1024 * 1024;
+
+    // How much of a picture frame is read to get past its mime type and description
+    private static final int PICTURE_HEADER_BYTES = 4096;
+
+    private static final String OGG_PICTURE_KEY = "METADATA_BLOCK_PICTURE=";
+
+    private EmbeddedPictureReader() {
+    }
+
+    /**
+     * The container holds nothing this reader understands, or the picture is stored in a
+     * way it can't undo. Not a statement that the file has no picture.
+     */
+    public static class UnsupportedFormatException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public UnsupportedFormatException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Where a file's picture is and what it is. Reading it is a separate step, so checking
+     * for a cover doesn't pay for loading one.
+     */
+    public static final class Picture {
+        private final String mimeType;
+        private final int pictureType;
+        private final long offset;
+        private final int length;
+        private final Loader loader;
+
+        Picture(String mimeType, int pictureType, long offset, int length, Loader loader) {
+            this.mimeType = mimeType;
+            this.pictureType = pictureType;
+            this.offset = offset;
+            this.length = length;
+            this.loader = loader;
+        }
+
+        // A picture stored as-is, one region of the file
+        static Picture stored(String mimeType, int pictureType, long offset, int length) {
+            return new Picture(mimeType, pictureType, offset, length,
+                    channel -> readFully(channel, offset, length));
+        }
+
+        /** e.g. image/jpeg, or null when the tag doesn't say. */
+        @Nullable
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /** ID3v2/FLAC picture type; MP4 covers have none and report {@link #FRONT_COVER}. */
+        public int getPictureType() {
+            return pictureType;
+        }
+
+        /**
+         * File offset of the image bytes when they are stored as-is, or -1 when they have to
+         * be decoded out of the tag (unsynchronised ID3 frames, Vorbis comments).
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /** Length of the stored image bytes, or -1 along with {@link #getOffset()}. */
+        public int getLength() {
+            return length;
+        }
+
+        /** The image's bytes, undecoded, from the channel {@link #find} was given. */
+        public byte[] read(FileChannel channel) throws IOException {
+            return loader.load(channel);
+        }
+    }
+
+    interface Loader {
+        byte[] load(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * @return the file's picture, or null when the file is of a known format and has none
+     * @throws UnsupportedFormatException when the format, or the way the picture is stored,
+     *         isn't one this reads
+     */
+    @Nullable
+    public static Picture find(FileChannel channel) throws IOException {
+        long position = 0;
+        boolean id3 = false;
+        Picture picture = null;
+        // Some taggers stack several ID3 tags, and some put one in front of a FLAC stream
+        while (true) {
+            byte[] head = readAtMost(channel, position, 10);
+            if (head.length < 10 || !startsWith(head, "ID3")) {
+                break;
+            }
+            id3 = true;
+            Id3Result result = findInId3(channel, position, head);
+            picture = better(picture, result.picture);
+            if (result.unsupported && picture == null) {
+                throw new UnsupportedFormatException("Picture in a compressed or encrypted ID3 frame");
+            }
+            position = result.end;
+        }
+        if (picture != null && picture.pictureType == FRONT_COVER) {
+            return picture;
+        }
+
+        byte[] head = readAtMost(channel, position, 12);
+        if (startsWith(head, "fLaC")) {
+            return better(picture, findInFlac(channel, position + 4));
+        }
+        if (picture != null || id3) {
+            // MPEG audio after the tag; nothing else in it holds a picture
+            return picture;
+        }
+        if (startsWith(head, "OggS")) {
+            return findInOgg(channel, position);
+        }
+        if (head.length >= 8 && head[4] == 'f' && head[5] == 't' && head[6] == 'y' && head[7] == 'p') {
+            return findInMp4(channel);
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xE0) == 0xE0) {
+            // Bare MPEG audio frames, no tag
+            return null;
+        }
+        throw new UnsupportedFormatException("Not an MP3, FLAC, MP4 or Ogg file");
+    }
+
+    // The front cover if either is one, else the first found
+    private static Picture better(@Nullable Picture found, @Nullable Picture candidate) {
+        if (found == null) {
+            return candidate;
+        }
+        if (candidate != null && found.pictureType != FRONT_COVER && candidate.pictureType == FRONT_COVER) {
+            return candidate;
+        }
+        return found;
+    }
+
+    // ---- ID3v2 ----
+
+    private static final class Id3Result {
+        Picture picture;
+        boolean unsupported;
+        long end;
+    }
+
+    private static Id3Result findInId3(FileChannel channel, long start, byte[] header) throws IOException {
+        Id3Result result = new Id3Result();
+        int major = header[3];
+        int flags = header[5] & 0xFF;
+        int size = synchsafe(header, 6);
+        long bodyStart = start + 10;
+        long end = bodyStart + size;
+        result.end = end + (major == 4 && (flags & 0x10) != 0 ? 10 : 0);
+        if (major < 2 || major > 4) {
+            return result;
+        }
+
+        if (major < 4 && (flags & 0x80) != 0) {
+            // v2.2/2.3 unsynchronise the whole tag, frame headers included, so nothing in it
+            // can be located on disk; decode it all and read the frames from memory
+            if (size > MAX_PICTURE_BYTES) {
+                return result;
+            }
+            byte[] tag = resynchronise(readFully(channel, bodyStart, size), size);
+            byte[] picture = findInDecodedId3(tag, major, flags);
+            if (picture != null) {
+                PictureHeader h = parseId3PictureHeader(picture, major);
+                if (h != null) {
+                    byte[] data = copyOfRange(picture, h.headerLength, picture.length);
+                    result.picture = new Picture(h.mimeType, h.pictureType, -1, -1, ch -> data);
+                }
+            }
+            return result;
+        }
+
+        long position = bodyStart;
+        if ((flags & 0x40) != 0) {
+            byte[] extended = readFully(channel, position, 4);
+            // v2.3 counts the size field out, v2.4 counts it in
+            position += major == 4 ? synchsafe(extended, 0) : 4 + (int32(extended, 0) & 0xFFFFFFFFL);
+        }
+        int headerSize = major == 2 ? 6 : 10;
+        while (position + headerSize <= end) {
+            byte[] frame = readFully(channel, position, headerSize);
+            if (frame[0] == 0) {
+                break; // padding
+            }
+            int frameSize;
+            int frameFlags = 0;
+            if (major == 2) {
+                frameSize = int24(frame, 3);
+            } else {
+                frameSize = major == 4 ? synchsafe(frame, 4) : int32(frame, 4);
+                frameFlags = frame[9] & 0xFF;
+            }
+            long body = position + headerSize;
+            if (frameSize <= 0 || body + frameSize > end) {
+                break;
+            }
+            boolean isPicture = major == 2 ? startsWith(frame, "PIC") : startsWith(frame, "APIC");
+            if (isPicture) {
+                Picture picture = id3Picture(channel, major, flags, frameFlags, body, frameSize);
+                if (picture == null) {
+                    result.unsupported |= isUnreadable(major, frameFlags);
+                } else {
+                    result.picture = better(result.picture, picture);
+                    if (picture.pictureType == FRONT_COVER) {
+                        break;
+                    }
+                }
+            }
+            position = body + frameSize;
+        }
+        return result;
+    }
+
+    private static boolean isUnreadable(int major, int frameFlags) {
+        if (major == 3) {
+            return (frameFlags & 0xC0) != 0; // compression, encryption
+        }
+        return major == 4 && (frameFlags & 0x0C) != 0;
+    }
+
+    @Nullable
+    private static Picture id3Picture(FileChannel channel, int major, int tagFlags, int frameFlags,
+                                      long body, int size) throws IOException {
+        if (isUnreadable(major, frameFlags)) {
+            return null;
+        }
+        boolean unsynchronised = false;
+        if (major == 3 && (frameFlags & 0x20) != 0) {
+            body += 1; // group id
+            size -= 1;
+        } else if (major == 4) {
+            if ((frameFlags & 0x40) != 0) {
+                body += 1; // group id
+                size -= 1;
+            }
+            if ((frameFlags & 0x01) != 0) {
+                body += 4; // data length indicator
+                size -= 4;
+            }
+            unsynchronised = (frameFlags & 0x02) != 0 || (tagFlags & 0x80) != 0;
+        }
+        if (size <= 0 || size > MAX_PICTURE_BYTES) {
+            return null;
+        }
+
+        PictureHeader header = null;
+        // Past the description in one small read, unless the description is longer
+        for (int read = Math.min(size, PICTURE_HEADER_BYTES); header == null; read = size) {
+            byte[] prefix = readFully(channel, body, read);
+            if (unsynchronised) {
+                prefix = resynchronise(prefix, prefix.length);
+            }
+            header = parseId3PictureHeader(prefix, major);
+            if (header == null && read == size) {
+                return null;
+            }
+        }
+        if (!unsynchronised) {
+            return Picture.stored(header.mimeType, header.pictureType,
+                    body + header.headerLength, size - header.headerLength);
+        }
+        long frameBody = body;
+        int frameSize = size;
+        int headerLength = header.headerLength;
+        return new Picture(header.mimeType, header.pictureType, -1, -1, ch -> {
+            byte[] frame = resynchronise(readFully(ch, frameBody, frameSize), frameSize);
+            return copyOfRange(frame, headerLength, frame.length);
+        });
+    }
+
+    // The body of the preferred picture frame of a decoded tag, or null
+    @Nullable
+    private static byte[] findInDecodedId3(byte[] tag, int major, int flags) throws UnsupportedFormatException {
+        int position = 0;
+        if ((flags & 0x40) != 0 && tag.length >= 4) {
+            long extended = 4 + (int32(tag, 0) & 0xFFFFFFFFL);
+            if (extended > tag.length) {
+                throw new UnsupportedFormatException("ID3 extended header larger than its tag");
+            }
+            position = (int) extended;
+        }
+        int headerSize = major == 2 ? 6 : 10;
+        byte[] found = null;
+        int foundType = -1;
+        while (position + headerSize <= tag.length && tag[position] != 0) {
+            int frameSize = major == 2 ? int24(tag, position + 3) : int32(tag, position + 4);
+            int body = position + headerSize;
+            if (frameSize <= 0 || body + (long) frameSize > tag.length) {
+                break;
+            }
+            boolean isPicture = major == 2 ? regionMatches(tag, position, "PIC") : regionMatches(tag, position, "APIC");
+            int frameFlags = major == 2 ? 0 : tag[position + 9] & 0xFF;
+            if (isPicture && !isUnreadable(major, frameFlags)) {
+                int skip = major == 3 && (frameFlags & 0x20) != 0 ? 1 : 0;
+                byte[] frame = copyOfRange(tag, body + skip, body + frameSize);
+                PictureHeader header = parseId3PictureHeader(frame, major);
+                if (header != null && (found == null || (foundType != FRONT_COVER && header.pictureType == FRONT_COVER))) {
+                    found = frame;
+                    foundType = header.pictureType;
+                }
+            }
+            position = body + frameSize;
+        }
+        return found;
+    }
+
+    private static final class PictureHeader {
+        String mimeType;
+        int pictureType;
+        int headerLength;
+    }
+
+    // Text encoding, mime type (v2.2: a three letter format), picture type and description
+    @Nullable
+    private static PictureHeader parseId3PictureHeader(byte[] frame, int major) {
+        if (frame.length < 4) {
+            return null;
+        }
+        int encoding = frame[0] & 0xFF;
+        PictureHeader header = new PictureHeader();
+        int position;
+        if (major == 2) {
+            String format = new String(frame, 1, 3, StandardCharsets.ISO_8859_1);
+            header.mimeType = format.equalsIgnoreCase("PNG") ? "image/png"
+                    : format.equalsIgnoreCase("JPG") ? "image/jpeg" : null;
+            position = 4;
+        } else {
+            int end = indexOf(frame, 1, (byte) 0);
+            if (end < 0) {
+                return null;
+            }
+            header.mimeType = end > 1 ? new String(frame, 1, end - 1, StandardCharsets.ISO_8859_1) : null;
+            position = end + 1;
+        }
+        if (position >= frame.length) {
+            return null;
+        }
+        header.pictureType = frame[position++] & 0xFF;
+
+        // Description, terminated by one zero byte, or two for the UTF-16 encodings
+        if (encoding == 1 || encoding == 2) {
+            int i = position;
+            while (i + 1 < frame.length && (frame[i] != 0 || frame[i + 1] != 0)) {
+                i += 2;
+            }
+            if (i + 1 >= frame.length) {
+                return null;
+            }
+            position = i + 2;
+        } else {
+            int end = indexOf(frame, position, (byte) 0);
+            if (end < 0) {
+                return null;
+            }
+            position = end + 1;
+        }
+        header.headerLength = position;
+        return header;
+    }
+
+    // Undo ID3 unsynchronisation: every 0xFF 0x00 pair was written for a 0xFF
+    private static byte[] resynchronise(byte[] data, int length) {
+        byte[] out = new byte[length];
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            out[n++] = data[i];
+            if ((data[i] & 0xFF) == 0xFF && i + 1 < length && data[i + 1] == 0) {
+                i++;
+            }
+        }
+        return n == length ? out : copyOfRange(out, 0, n);
+    }
+
+    // ---- FLAC ----
+
+    @Nullable
+    private static Picture findInFlac(FileChannel channel, long position) throws IOException {
+        Picture picture = null;
+        while (true) {
+            byte[] header = readAtMost(channel, position, 4);
+            if (header.length < 4) {
+                return picture;
+            }
+            boolean last = (header[0] & 0x80) != 0;
+            int type = header[0] & 0x7F;
+            int length = int24(header, 1);
+            long body = position + 4;
+            if (type == 6) {
+                picture = better(picture, flacPicture(channel, body, length));
+                if (picture != null && picture.pictureType == FRONT_COVER) {
+                    return picture;
+                }
+            }
+            if (last || type == 127) {
+                return picture;
+            }
+            position = body + length;
+        }
+    }
+
+    // A FLAC PICTURE block; the same structure is base64 encoded in Vorbis comments
+    @Nullable
+    private static Picture flacPicture(FileChannel channel, long body, int length) throws IOException {
+        if (length <= 0) {
+            return null;
+        }
+        FlacPictureHeader header = null;
+        for (int read = Math.min(length, PICTURE_HEADER_BYTES); header == null; read = length) {
+            header = parseFlacPictureHeader(readFully(channel, body, read));
+            if (header == null && read == length) {
+                return null;
+            }
+        }
+        if (header.headerLength + (long) header.dataLength > length) {
+            return null;
+        }
+        return Picture.stored(header.mimeType, header.pictureType, body + header.headerLength, header.dataLength);
+    }
+
+    private static final class FlacPictureHeader {
+        String mimeType;
+        int pictureType;
+        int headerLength;
+        int dataLength;
+    }
+
+    // Picture type, mime type, description, four 32-bit image properties, data length; null
+    // when they run past the bytes given
+    @Nullable
+    private static FlacPictureHeader parseFlacPictureHeader(byte[] block) throws UnsupportedFormatException {
+        if (block.length < 8) {
+            return null;
+        }
+        FlacPictureHeader header = new FlacPictureHeader();
+        header.pictureType = int32(block, 0);
+        int mimeLength = flacLength(block, 4);
+        int position = 8;
+        if (position + (long) mimeLength + 4 > block.length) {
+            return null;
+        }
+        header.mimeType = mimeLength > 0 ? new String(block, position, mimeLength, StandardCharsets.US_ASCII) : null;
+        position += mimeLength;
+        int descriptionLength = flacLength(block, position);
+        position += 4;
+        if (position + (long) descriptionLength + 20 > block.length) {
+            return null;
+        }
+        position += descriptionLength + 16; // width, height, depth, colours
+        header.dataLength = int32(block, position);
+        header.headerLength = position + 4;
+        if (header.dataLength <= 0 || header.dataLength > MAX_PICTURE_BYTES) {
+            return null;
+        }
+        return header;
+    }
+
+    // A length inside a picture block; no block holds more than a picture's worth, so a
+    // larger one is a corrupt block rather than one to read further into
+    private static int flacLength(byte[] block, int position) throws UnsupportedFormatException {
+        long length = int32(block, position) & 0xFFFFFFFFL;
+        if (length > MAX_PICTURE_BYTES) {
+            throw new UnsupportedFormatException("Corrupt FLAC picture block");
+        }
+        return (int) length;
+    }
+
+    // ---- MP4 ----
+
+    // moov/udta/meta/ilst/covr/data
+    @Nullable
+    private static Picture findInMp4(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] moov = findAtom(channel, 0, size, "moov");
+        long[] udta = moov == null ? null : findAtom(channel, moov[0], moov[1], "udta");
+        long[] meta = udta == null ? null : findAtom(channel, udta[0], udta[1], "meta");
+        if (meta == null) {
+            return null;
+        }
+        // meta is a full box (version and flags ahead of its children) except in some
+        // QuickTime files, where a child's size comes first
+        long metaChildren = meta[0];
+        byte[] versionAndFlags = readFully(channel, metaChildren, 4);
+        if (int32(versionAndFlags, 0) == 0) {
+            metaChildren += 4;
+        }
+        long[] ilst = findAtom(channel, metaChildren, meta[1], "ilst");
+        long[] covr = ilst == null ? null : findAtom(channel, ilst[0], ilst[1], "covr");
+        long[] data = covr == null ? null : findAtom(channel, covr[0], covr[1], "data");
+        if (data == null || data[1] - data[0] < 8) {
+            return null;
+        }
+        // Type indicator, then locale, then the image
+        byte[] header = readFully(channel, data[0], 8);
+        int type = int24(header, 1);
+        String mimeType = type == 13 ? "image/jpeg" : type == 14 ? "image/png" : type == 27 ? "image/bmp" : null;
+        long length = data[1] - data[0] - 8;
+        if (length <= 0 || length > MAX_PICTURE_BYTES) {
+            return null;
+        }
+        return Picture.stored(mimeType, FRONT_COVER, data[0] + 8, (int) length);
+    }
+
+    // Start and end of the named child's contents between start and end, or null
+    @Nullable
+    private static long[] findAtom(FileChannel channel, long start, long end, String name) throws IOException {
+        long position = start;
+        while (position + 8 <= end) {
+            byte[] header = readFully(channel, position, 8);
+            long atomSize = int32(header, 0) & 0xFFFFFFFFL;
+            int headerSize = 8;
+            if (atomSize == 1) {
+                atomSize = int64(readFully(channel, position + 8, 8));
+                headerSize = 16;
+            } else if (atomSize == 0) {
+                atomSize = end - position; // runs to the end
+            }
+            if (atomSize < headerSize || atomSize > end - position) {
+                return null;
+            }
+            if (regionMatches(header, 4, name)) {
+                return new long[]{position + headerSize, position + atomSize};
+            }
+            position += atomSize;
+        }
+        return null;
+    }
+
+    // ---- Ogg ----
+
+    // The second packet of the first logical stream holds the comments
+    @Nullable
+    private static Picture findInOgg(FileChannel channel, long start) throws IOException {
+        OggPacketReader packets = new OggPacketReader(channel, start);
+        if (!packets.nextPacket()) {
+            return null;
+        }
+        byte[] identification = packets.read(8);
+        int commentPrefix;
+        if (regionMatches(identification, 1, "vorbis")) {
+            commentPrefix = 7; // packet type, "vorbis"
+        } else if (regionMatches(identification, 0, "OpusHead")) {
+            commentPrefix = 8; // "OpusTags"
+        } else {
+            throw new UnsupportedFormatException("Ogg stream that is not Vorbis or Opus");
+        }
+        if (!packets.nextPacket()) {
+            return null;
+        }
+        packets.skip(commentPrefix);
+        packets.skip(uint32le(packets.read(4))); // vendor
+        long count = uint32le(packets.read(4));
+        Picture picture = null;
+        for (long i = 0; i < count; i++) {
+            long length = uint32le(packets.read(4));
+            long valueStart = packets.position();
+            if (length > OGG_PICTURE_KEY.length()) {
+                byte[] key = packets.read(OGG_PICTURE_KEY.length());
+                if (new String(key, StandardCharsets.US_ASCII).equalsIgnoreCase(OGG_PICTURE_KEY)) {
+                    picture = better(picture, oggPicture(start, packets,
+                            valueStart + key.length, length - key.length));
+                    if (picture != null && picture.pictureType == FRONT_COVER) {
+                        return picture;
+                    }
+                }
+            }
+            packets.skip(valueStart + length - packets.position());
+        }
+        return picture;
+    }
+
+    // A base64 FLAC PICTURE block at the given position of the comment packet. Only enough
+    // of it is decoded to learn the type; the image is decoded when read.
+    @Nullable
+    private static Picture oggPicture(long start, OggPacketReader packets, long position, long length)
+            throws IOException {
+        if (length > MAX_PICTURE_BYTES / 3 * 4) {
+            return null;
+        }
+        int prefixLength = (int) Math.min(length, PICTURE_HEADER_BYTES / 3 * 4);
+        FlacPictureHeader header = parseFlacPictureHeader(Base64.decode(packets.read(prefixLength)));
+        if (header == null) {
+            return null;
+        }
+        return new Picture(header.mimeType, header.pictureType, -1, -1, ch -> {
+            OggPacketReader comments = new OggPacketReader(ch, start);
+            comments.nextPacket();
+            comments.nextPacket();
+            comments.skip(position);
+            byte[] block = Base64.decode(comments.read((int) length));
+            if (header.headerLength + header.dataLength > block.length) {
+                throw new EOFException("Truncated Ogg picture");
+            }
+            return copyOfRange(block, header.headerLength, header.headerLength + header.dataLength);
+        });
+    }
+
+    /**
+     * Reads one packet at a time of the logical stream the first page belongs to, across
+     * page boundaries, reading page headers as it goes and seeking over skipped bytes.
+     */
+    private static final class OggPacketReader {
+        private final FileChannel channel;
+        private long pagePosition;
+        private int serial;
+        private boolean started;
+
+        // Segment table of the current page, the segment being read and where it starts
+        private byte[] segments = new byte[0];
+        private int segment;
+        private long segmentData;
+        private int segmentOffset;
+
+        private boolean packetDone = true;
+        private boolean streamEnded;
+        private long packetPosition;
+
+        OggPacketReader(FileChannel channel, long start) {
+            this.channel = channel;
+            this.pagePosition = start;
+        }
+
+        // Move past the rest of the current packet to the start of the next; false at the
+        // end of the stream
+        boolean nextPacket() throws IOException {
+            while (more()) {
+                segmentOffset = segments[segment] & 0xFF;
+            }
+            if (streamEnded) {
+                return false;
+            }
+            packetDone = false;
+            packetPosition = 0;
+            return true;
+        }
+
+        // Bytes read or skipped so far in the current packet
+        long position() {
+            return packetPosition;
+        }
+
+        byte[] read(int count) throws IOException {
+            byte[] out = new byte[count];
+            int n = 0;
+            while (n < count) {
+                if (!more()) {
+                    throw new EOFException("Ogg packet ends early");
+                }
+                int take = Math.min(count - n, (segments[segment] & 0xFF) - segmentOffset);
+                readFully(channel, ByteBuffer.wrap(out, n, take), segmentData + segmentOffset);
+                segmentOffset += take;
+                n += take;
+            }
+            packetPosition += count;
+            return out;
+        }
+
+        void skip(long count) throws IOException {
+            long left = count;
+            while (left > 0) {
+                if (!more()) {
+                    throw new EOFException("Ogg packet ends early");
+                }
+                int take = (int) Math.min(left, (segments[segment] & 0xFF) - segmentOffset);
+                segmentOffset += take;
+                left -= take;
+            }
+            packetPosition += count;
+        }
+
+        // Whether the current packet has another byte, moving on to the next segment or page
+        // as needed; a segment shorter than 255 bytes ends the packet
+        private boolean more() throws IOException {
+            while (!packetDone) {
+                if (segment >= segments.length) {
+                    if (!nextPage()) {
+                        streamEnded = true;
+                        packetDone = true;
+                    }
+                    continue;
+                }
+                int length = segments[segment] & 0xFF;
+                if (segmentOffset < length) {
+                    return true;
+                }
+                segmentData += length;
+                segment++;
+                segmentOffset = 0;
+                if (length < 255) {
+                    packetDone = true;
+                }
+            }
+            return false;
+        }
+
+        private boolean nextPage() throws IOException {
+            while (true) {
+                byte[] header = readAtMost(channel, pagePosition, 27);
+                if (header.length < 27 || !startsWith(header, "OggS")) {
+                    return false;
+                }
+                int pageSerial = int32le(header, 14);
+                byte[] table = readFully(channel, pagePosition + 27, header[26] & 0xFF);
+                long data = pagePosition + 27 + table.length;
+                long dataLength = 0;
+                for (byte b : table) {
+                    dataLength += b & 0xFF;
+                }
+                pagePosition = data + dataLength;
+                if (!started) {
+                    serial = pageSerial;
+                    started = true;
+                } else if (pageSerial != serial) {
+                    continue; // another multiplexed stream
+                }
+                segments = table;
+                segment = 0;
+                segmentData = data;
+                segmentOffset = 0;
+                return true;
+            }
+        }
+    }
+
+    // Base64 as Vorbis comments write it; java.util.Base64 needs API 26
+    static final class Base64 {
+        private static final int[] VALUES = new int[128];
+
+        static {
+            java.util.Arrays.fill(VALUES, -1);
+            String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+            for (int i = 0; i < alphabet.length(); i++) {
+                VALUES[alphabet.charAt(i)] = i;
+            }
+        }
+
+        private Base64() {
+        }
+
+        // Stops at padding or the first character outside the alphabet; a trailing partial
+        // group decodes to the bytes it completes
+        static byte[] decode(byte[] text) {
+            byte[] out = new byte[text.length / 4 * 3 + 3];
+            int n = 0;
+            int bits = 0;
+            int count = 0;
+            for (byte c : text) {
+                int value = c >= 0 ? VALUES[c] : -1;
+                if (value < 0) {
+                    break;
+                }
+                bits = bits << 6 | value;
+                if (++count == 4) {
+                    out[n++] = (byte) (bits >> 16);
+                    out[n++] = (byte) (bits >> 8);
+                    out[n++] = (byte) bits;
+                    bits = 0;
+                    count = 0;
+                }
+            }
+            if (count == 2) {
+                out[n++] = (byte) (bits >> 4);
+            } else if (count == 3) {
+                out[n++] = (byte) (bits >> 10);
+                out[n++] = (byte) (bits >> 2);
+            }
+            return copyOfRange(out, 0, n);
+        }
+    }
+
+    // ---- I/O and byte helpers ----
+
+    static byte[] readFully(FileChannel channel, long position, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        readFully(channel, ByteBuffer.wrap(bytes), position);
+        return bytes;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("Tag runs past the end of the file");
+            }
+            position += n;
+        }
+    }
+
+    // Up to length bytes, fewer at the end of the file
+    private static byte[] readAtMost(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                break;
+            }
+        }
+        return copyOfRange(buffer.array(), 0, buffer.position());
+    }
+
+    private static boolean startsWith(byte[] bytes, String prefix) {
+        return regionMatches(bytes, 0, prefix);
+    }
+
+    private static boolean regionMatches(byte[] bytes, int offset, String text) {
+        if (offset + text.length() > bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[offset + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int from, byte value) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] copyOfRange(byte[] bytes, int from, int to) {
+        return java.util.Arrays.copyOfRange(bytes, from, to);
+    }
+
+    private static int synchsafe(byte[] b, int i) {
+        return (b[i] & 0x7F) << 21 | (b[i + 1] & 0x7F) << 14 | (b[i + 2] & 0x7F) << 7 | (b[i + 3] & 0x7F);
+    }
+
+    private static int int24(byte[] b, int i) {
+        return (b[i] & 0xFF) << 16 | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF);
+    }
+
+    private static int int32(byte[] b, int i) {
+        return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+    }
+
+    private static long int64(byte[] b) {
+        return (int32(b, 0) & 0xFFFFFFFFL) << 32 | (int32(b, 4) & 0xFFFFFFFFL);
+    }
+
+    private static int int32le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static long uint32le(byte[] b) {
+        return int32le(b, 0) & 0xFFFFFFFFL;
+    }
+}
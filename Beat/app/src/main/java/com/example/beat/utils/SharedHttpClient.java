@@ -0,0 +1,35 @@
+package com.example.beat.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * The one OkHttpClient of the app. The Deezer API and Glide's cover downloads go through it,
+ * so they share a connection pool and dispatcher instead of each opening their own
+ * connections to the same hosts.
+ *
+ * There is no HTTP cache on it: API answers are not reused, and Glide keeps downloaded
+ * covers in its own disk cache.
+ */
+public final class SharedHttpClient {
+
+    private static volatile OkHttpClient instance;
+
+    private SharedHttpClient() {
+    }
+
+    public static OkHttpClient get() {
+        if (instance == null) {
+            synchronized (SharedHttpClient.class) {
+                if (instance == null) {
+                    instance = new OkHttpClient.Builder()
+                            .connectTimeout(15, TimeUnit.SECONDS)
+                            .readTimeout(20, TimeUnit.SECONDS)
+                            .build();
+                }
+            }
+        }
+        return instance;
+    }
+}
@@ -6,16 +6,12 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.example.beat.data.database.AppDatabase;
-import com.example.beat.data.dao.MusicDao;
-import com.example.beat.data.dao.PlaylistDao;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.LocalSong;
 import com.example.beat.data.entities.Playlist;
-import com.example.beat.data.entities.PlaylistSong;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel for LocalMusicPlayerActivity following MVVM architecture
@@ -24,9 +20,7 @@ import java.util.concurrent.Executors;
 public class LocalMusicViewModel extends AndroidViewModel {
     private static final String TAG = "LocalMusicViewModel";
     
-    private final MusicDao musicDao;
-    private final PlaylistDao playlistDao;
-    private final ExecutorService executor;
+    private final MusicRepository repository;
     
     // Playback state
     private final MutableLiveData<LocalSong> currentSong = new MutableLiveData<>();
@@ -42,10 +36,7 @@ public class LocalMusicViewModel extends AndroidViewModel {
     
     public LocalMusicViewModel(@NonNull Application application) {
         super(application);
-        AppDatabase database = AppDatabase.getInstance(application);
-        musicDao = database.musicDao();
-        playlistDao = database.playlistDao();
-        executor = Executors.newFixedThreadPool(2);
+        repository = MusicRepository.getInstance(application);
     }
     
     // Getters for LiveData
@@ -127,16 +118,17 @@ public class LocalMusicViewModel extends AndroidViewModel {
     public void addToPlaylist(int playlistId) {
         LocalSong song = currentSong.getValue();
         if (song != null) {
-            executor.execute(() -> {
-                try {
-                    PlaylistSong playlistSong = new PlaylistSong();
-                    playlistSong.setPlaylistId(playlistId);
-                    playlistSong.setSongId(song.getSongId());
-                    playlistDao.insertPlaylistSong(playlistSong);
-                } catch (Exception e) {
-                    errorMessage.postValue("Error adding song to playlist: " + e.getMessage());
-                }
-            });
+            repository.addSongsToPlaylist(playlistId, Collections.singletonList(song.getSongId()),
+                new MusicRepository.Callback<Integer>() {
+                    @Override
+                    public void onResult(Integer added) {
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        errorMessage.setValue("Error adding song to playlist: " + e.getMessage());
+                    }
+                });
         }
     }
     
@@ -145,22 +137,17 @@ public class LocalMusicViewModel extends AndroidViewModel {
      */
     public LiveData<List<Playlist>> getUserPlaylists(int userId) {
         MutableLiveData<List<Playlist>> playlistsLiveData = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                List<Playlist> playlists = playlistDao.getPlaylistsByUser(userId);
-                playlistsLiveData.postValue(playlists);
-            } catch (Exception e) {
-                errorMessage.postValue("Error loading playlists: " + e.getMessage());
+        repository.getPlaylists(userId, new MusicRepository.Callback<List<Playlist>>() {
+            @Override
+            public void onResult(List<Playlist> playlists) {
+                playlistsLiveData.setValue(playlists);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errorMessage.setValue("Error loading playlists: " + e.getMessage());
             }
         });
         return playlistsLiveData;
     }
-    
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
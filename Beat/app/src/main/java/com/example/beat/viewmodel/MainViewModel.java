@@ -6,14 +6,11 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.example.beat.data.database.AppDatabase;
-import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.MusicRepository;
 import com.example.beat.data.entities.LocalSong;
-import com.example.beat.scanner.MediaStoreScanner;
+import com.example.beat.scanner.MediaLibraryObserver;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * ViewModel for MainActivity following MVVM architecture
@@ -22,51 +19,44 @@ import java.util.concurrent.Executors;
 public class MainViewModel extends AndroidViewModel {
     private static final String TAG = "MainViewModel";
     
-    private final MusicDao musicDao;
-    private final ExecutorService executor;
+    private final MusicRepository repository;
+    private final MediaLibraryObserver libraryObserver;
     
     // LiveData for UI state
-    private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> hasPermissions = new MutableLiveData<>(false);
-    private final MutableLiveData<Integer> scanProgress = new MutableLiveData<>(0);
     
     public MainViewModel(@NonNull Application application) {
         super(application);
-        AppDatabase database = AppDatabase.getInstance(application);
-        musicDao = database.musicDao();
-        executor = Executors.newFixedThreadPool(2);
+        repository = MusicRepository.getInstance(application);
+        libraryObserver = MediaLibraryObserver.getInstance(application);
     }
     
     // Getters for LiveData
-    public LiveData<Boolean> getIsLoading() { return isLoading; }
     public LiveData<String> getErrorMessage() { return errorMessage; }
     public LiveData<Boolean> getHasPermissions() { return hasPermissions; }
-    public LiveData<Integer> getScanProgress() { return scanProgress; }
+
+    /**
+     * Percent done of the library sync that is running, or {@link MediaLibraryObserver#IDLE}
+     */
+    public LiveData<Integer> getScanProgress() { return libraryObserver.getScanProgress(); }
     
     /**
      * Start media scanning process
      */
     public void startMediaScan(int userId) {
-        isLoading.setValue(true);
-        executor.execute(() -> {
-            try {
-                MediaStoreScanner scanner = new MediaStoreScanner(
-                    getApplication(), 
-                    musicDao, 
-                    userId
-                );
-                scanner.scanMusicFiles();
-                
-                // Update UI on completion
-                isLoading.postValue(false);
-                scanProgress.postValue(100);
-                
-            } catch (Exception e) {
-                isLoading.postValue(false);
-                errorMessage.postValue("Error scanning music files: " + e.getMessage());
-            }
-        });
+        startMediaScan(userId, false);
+    }
+
+    /**
+     * Start media scanning process, optionally ignoring the incremental watermark. The scan
+     * runs on the library observer's sync thread, after any sync already running.
+     */
+    public void startMediaScan(int userId, boolean fullRescan) {
+        libraryObserver.start(userId);
+        if (fullRescan) {
+            libraryObserver.requestSync(true);
+        }
     }
     
     /**
@@ -81,22 +71,17 @@ public class MainViewModel extends AndroidViewModel {
      */
     public LiveData<List<LocalSong>> getUserSongs(int userId) {
         MutableLiveData<List<LocalSong>> songsLiveData = new MutableLiveData<>();
-        executor.execute(() -> {
-            try {
-                List<LocalSong> songs = musicDao.getSongsByUser(userId);
-                songsLiveData.postValue(songs);
-            } catch (Exception e) {
-                errorMessage.postValue("Error loading songs: " + e.getMessage());
+        repository.getSongsByUser(userId, new MusicRepository.Callback<List<LocalSong>>() {
+            @Override
+            public void onResult(List<LocalSong> songs) {
+                songsLiveData.setValue(songs);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errorMessage.setValue("Error loading songs: " + e.getMessage());
             }
         });
         return songsLiveData;
     }
-    
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-    }
 }
@@ -0,0 +1,226 @@
+package com.example.beat.data.database;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.beat.data.dao.MusicDao;
+import com.example.beat.data.dao.PlaylistDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs every DAO method against a one-song library, records the SQL Room issues and fails
+ * if EXPLAIN QUERY PLAN shows any of it reading a whole table. A new query without a
+ * supporting index, or an index dropped by a migration, shows up here.
+ *
+ * Methods taking an entity (@Insert, @Update, @Delete) only touch rows by primary key
+ * and are not run.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class QueryPlanTest {
+    // Reading every row is what these are for
+    private static final Set<String> FULL_SCAN_EXPECTED = new HashSet<>(Arrays.asList(
+            "getAllArtists",
+            "getAllAlbums",
+            // Joins every user on the device, and that table is tiny
+            "addSongsToAllUsers",
+            // Whole catalog into a new user's library
+            "addCatalogToUser",
+            "deleteScanCheckpoint"
+    ));
+
+    // "SCAN TABLE album AS own" on older SQLite, "SCAN album" on newer
+    private static final Pattern SCAN = Pattern.compile("^SCAN (?:TABLE )?(\\w+)(.*)$");
+
+    private AppDatabase database;
+    private final List<Statement> statements = new ArrayList<>();
+
+    private static final class Statement {
+        final String sql;
+        final Object[] args;
+
+        Statement(String sql, List<Object> args) {
+            this.sql = sql;
+            this.args = args.toArray();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryCallback((sql, args) -> statements.add(new Statement(sql, args)), Runnable::run)
+                .build();
+
+        // Relation queries (@Relation, @Junction) only run when there is a parent row
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        db.execSQL("INSERT INTO user (userId, username, email, password) VALUES (1, 'a', 'a', 'a')");
+        db.execSQL("INSERT INTO artist (artistId, name, songCount) VALUES (1, 'a', 0)");
+        db.execSQL("INSERT INTO album (albumId, name, artistId) VALUES (1, 'a', 1)");
+        db.execSQL("INSERT INTO local_song (songId, title, filePath, artistId, albumId, "
+                + "mediaStoreId, fileSize, duration) VALUES (1, 'a', 'a', 1, 1, 1, 1, 1)");
+        db.execSQL("INSERT INTO user_song (userId, songId) VALUES (1, 1)");
+        db.execSQL("INSERT INTO playlist (playlistId, name, userId) VALUES (1, 'a', 1)");
+        db.execSQL("INSERT INTO playlist_song (playlistId, songId) VALUES (1, 1)");
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void musicDaoQueriesUseIndexes() throws Exception {
+        assertNoFullScans(MusicDao.class, database.musicDao());
+    }
+
+    @Test
+    public void playlistDaoQueriesUseIndexes() throws Exception {
+        assertNoFullScans(PlaylistDao.class, database.playlistDao());
+    }
+
+    private void assertNoFullScans(Class<?> daoClass, Object dao) throws Exception {
+        Set<String> tables = tableNames();
+        List<String> failures = new ArrayList<>();
+        int checked = 0;
+
+        List<Method> methods = new ArrayList<>(Arrays.asList(daoClass.getDeclaredMethods()));
+        Collections.sort(methods, Comparator.comparing(Method::getName));
+        for (Method method : methods) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            Object[] args = sampleArguments(method);
+            if (args == null) {
+                continue;
+            }
+
+            statements.clear();
+            Object result = method.invoke(dao, args);
+            if (result instanceof Cursor) {
+                ((Cursor) result).close();
+            } else if (result instanceof Closeable) {
+                ((Closeable) result).close();
+            }
+            checked++;
+
+            if (FULL_SCAN_EXPECTED.contains(method.getName())) {
+                continue;
+            }
+            for (Statement statement : new ArrayList<>(statements)) {
+                if (!isPlannable(statement.sql)) {
+                    continue;
+                }
+                for (String step : queryPlan(statement)) {
+                    Matcher scan = SCAN.matcher(step);
+                    if (scan.matches() && tables.contains(scan.group(1))
+                            && !scan.group(2).contains("USING")) {
+                        failures.add(daoClass.getSimpleName() + "." + method.getName()
+                                + ": " + step + "\n    " + statement.sql);
+                    }
+                }
+            }
+        }
+
+        assertTrue("No " + daoClass.getSimpleName() + " methods were run", checked > 0);
+        if (!failures.isEmpty()) {
+            fail("Full table scans:\n" + String.join("\n", failures));
+        }
+    }
+
+    private static boolean isPlannable(String sql) {
+        String verb = sql.trim().split("\\s+", 2)[0].toUpperCase();
+        return verb.equals("SELECT") || verb.equals("WITH")
+                || verb.equals("UPDATE") || verb.equals("DELETE") || verb.equals("INSERT");
+    }
+
+    private List<String> queryPlan(Statement statement) {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        List<String> steps = new ArrayList<>();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + statement.sql, statement.args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(detail));
+            }
+        }
+        return steps;
+    }
+
+    // Ordinary tables of the schema; Room's own temp tables and virtual tables are not checked
+    private Set<String> tableNames() {
+        Set<String> tables = new HashSet<>();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        try (Cursor cursor = db.query("SELECT name FROM sqlite_master WHERE type = 'table' "
+                + "AND sql NOT LIKE 'CREATE VIRTUAL TABLE%'")) {
+            while (cursor.moveToNext()) {
+                tables.add(cursor.getString(0));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * @return arguments to call method with, or null if it takes an entity
+     */
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Type[] genericTypes = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            Object value = sampleValue(types[i]);
+            if (value == null && types[i] == List.class
+                    && genericTypes[i] instanceof ParameterizedType) {
+                Type element = ((ParameterizedType) genericTypes[i]).getActualTypeArguments()[0];
+                Object item = element instanceof Class ? sampleValue((Class<?>) element) : null;
+                value = item != null ? Collections.singletonList(item) : null;
+            }
+            if (value == null) {
+                return null;
+            }
+            args[i] = value;
+        }
+        return args;
+    }
+
+    private static Object sampleValue(Class<?> type) {
+        if (type == int.class || type == Integer.class) {
+            return 1;
+        } else if (type == long.class || type == Long.class) {
+            return 1L;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return false;
+        } else if (type == String.class) {
+            return "a";
+        }
+        return null;
+    }
+}
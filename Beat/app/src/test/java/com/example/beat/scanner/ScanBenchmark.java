@@ -0,0 +1,182 @@
+package com.example.beat.scanner;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.provider.MediaStore;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.beat.data.database.AppDatabase;
+import com.example.beat.data.entities.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of a full library scan against a synthetic MediaStore and an in-memory
+ * database. Not part of the normal unit test run; use {@code ./gradlew scanBenchmark}.
+ *
+ * Each size reports rows per second, SQL statements issued (transaction control
+ * included) and bytes allocated by all threads during the scan.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ScanBenchmark {
+    // Synthetic paths don't exist on disk; treat them as present and skip hashing
+    private static final MediaStoreScanner.FileInspector SYNTHETIC_FILES =
+            new MediaStoreScanner.FileInspector() {
+                @Override
+                public boolean exists(File file) {
+                    return true;
+                }
+
+                @Override
+                public String fingerprint(File file) {
+                    return Integer.toHexString(file.getPath().hashCode());
+                }
+            };
+
+    private Context context;
+    private SyntheticMediaProvider provider;
+    private AppDatabase database;
+    private final AtomicLong statements = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        provider = Robolectric.buildContentProvider(SyntheticMediaProvider.class)
+                .create(MediaStore.AUTHORITY)
+                .get();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .setQueryCallback((sql, args) -> statements.incrementAndGet(), Runnable::run)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void scan1k() {
+        runScan(1_000);
+    }
+
+    @Test
+    public void scan10k() {
+        runScan(10_000);
+    }
+
+    @Test
+    public void scan100k() {
+        runScan(100_000);
+    }
+
+    private void runScan(int trackCount) {
+        provider.setTrackCount(trackCount);
+
+        User user = new User();
+        user.username = "bench";
+        user.email = "bench@example.com";
+        user.password = "bench";
+        int userId = (int) database.musicDao().insertUser(user);
+
+        MediaStoreScanner scanner = new MediaStoreScanner(context, database, userId);
+        scanner.setFileInspector(SYNTHETIC_FILES);
+
+        statements.set(0);
+        AllocationSampler allocations = new AllocationSampler();
+        allocations.start();
+        long start = System.nanoTime();
+        scanner.rescanAllMusicFiles();
+        long elapsedNanos = System.nanoTime() - start;
+        long allocatedBytes = allocations.finish();
+        long statementCount = statements.get();
+
+        assertEquals(SyntheticMediaProvider.expectedSongs(trackCount),
+                database.musicDao().getSongsByUser(userId).size());
+
+        System.out.println(String.format(Locale.US,
+                "scan %,7d tracks: %,9.0f rows/s  %,7d statements  %,8.1f MB allocated  %,6d ms",
+                trackCount,
+                trackCount / (elapsedNanos / 1e9),
+                statementCount,
+                allocatedBytes / (1024.0 * 1024.0),
+                elapsedNanos / 1_000_000));
+    }
+
+    /**
+     * Sums the per-thread allocation counters of every thread alive during the scan.
+     * The scanner's pool threads end with it, so they are sampled every few ms and
+     * the last value seen is kept; the result is a slight undercount at worst.
+     */
+    private static final class AllocationSampler extends Thread {
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final Map<Long, Long> baseline = new HashMap<>();
+        private final Map<Long, Long> latest = new HashMap<>();
+        private volatile boolean running = true;
+
+        AllocationSampler() {
+            setDaemon(true);
+            for (long id : threads.getAllThreadIds()) {
+                baseline.put(id, threads.getThreadAllocatedBytes(id));
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void sample() {
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0) {
+                    latest.put(ids[i], bytes[i]);
+                }
+            }
+        }
+
+        long finish() {
+            running = false;
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sample();
+            synchronized (this) {
+                long total = 0;
+                for (Map.Entry<Long, Long> entry : latest.entrySet()) {
+                    Long before = baseline.get(entry.getKey());
+                    total += entry.getValue() - (before != null ? before : 0);
+                }
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.beat.scanner;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.database.AbstractCursor;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.MediaStore;
+
+/**
+ * Stands in for MediaStore in the scan benchmark. Rows are generated on demand from
+ * their position, so a 100k-track library costs no memory up front.
+ *
+ * The library has roughly the shape of a real one: about 10 tracks per album and 2-3
+ * albums per artist, ids in album order, and one track in 50 too short to be music.
+ */
+public class SyntheticMediaProvider extends ContentProvider {
+    static final int TRACKS_PER_ALBUM = 10;
+    static final int TRACKS_PER_ARTIST = 25;
+    static final int SHORT_TRACK_EVERY = 50;
+
+    private static final String[] ALL_COLUMNS = {
+        MediaStore.Audio.Media._ID,
+        MediaStore.Audio.Media.TITLE,
+        MediaStore.Audio.Media.DATA,
+        MediaStore.Audio.Media.ARTIST,
+        MediaStore.Audio.Media.ALBUM,
+        MediaStore.Audio.Media.DURATION,
+        MediaStore.Audio.Media.SIZE,
+        MediaStore.Audio.Media.ALBUM_ID,
+        MediaStore.Audio.Media.TRACK,
+        MediaStore.Audio.Media.YEAR,
+        MediaStore.Audio.Media.DATE_ADDED,
+        MediaStore.Audio.Media.IS_MUSIC
+    };
+
+    private volatile int trackCount;
+
+    void setTrackCount(int trackCount) {
+        this.trackCount = trackCount;
+    }
+
+    /**
+     * Tracks the scanner is expected to keep, i.e. all but the short ones.
+     */
+    static int expectedSongs(int trackCount) {
+        return trackCount - trackCount / SHORT_TRACK_EVERY;
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs,
+                        String sortOrder) {
+        // Selection is ignored: every benchmark run is a full scan, already in _ID order
+        return new SyntheticCursor(projection != null ? projection : ALL_COLUMNS, trackCount);
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        return null;
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        return 0;
+    }
+
+    private static final class SyntheticCursor extends AbstractCursor {
+        private final String[] columns;
+        private final int count;
+
+        SyntheticCursor(String[] columns, int count) {
+            this.columns = columns;
+            this.count = count;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String[] getColumnNames() {
+            return columns;
+        }
+
+        @Override
+        public String getString(int column) {
+            int row = getPosition();
+            int album = row / TRACKS_PER_ALBUM;
+            // Whole albums belong to one artist
+            int artist = album * TRACKS_PER_ALBUM / TRACKS_PER_ARTIST;
+            switch (columns[column]) {
+                case MediaStore.Audio.Media.TITLE:
+                    return "Track " + row;
+                case MediaStore.Audio.Media.DATA:
+                    return "/storage/emulated/0/Music/Artist " + artist + "/Album " + album
+                            + "/" + row + ".mp3";
+                case MediaStore.Audio.Media.ARTIST:
+                    return "Artist " + artist;
+                case MediaStore.Audio.Media.ALBUM:
+                    return "Album " + album;
+                default:
+                    return String.valueOf(getLong(column));
+            }
+        }
+
+        @Override
+        public long getLong(int column) {
+            int row = getPosition();
+            switch (columns[column]) {
+                case MediaStore.Audio.Media._ID:
+                    return row + 1;
+                case MediaStore.Audio.Media.DURATION:
+                    return duration(row);
+                case MediaStore.Audio.Media.SIZE:
+                    // 128 kbit/s
+                    return duration(row) * 16;
+                case MediaStore.Audio.Media.ALBUM_ID:
+                    return row / TRACKS_PER_ALBUM + 1;
+                case MediaStore.Audio.Media.TRACK:
+                    return row % TRACKS_PER_ALBUM + 1;
+                case MediaStore.Audio.Media.YEAR:
+                    return 1990 + (row / TRACKS_PER_ALBUM) % 30;
+                case MediaStore.Audio.Media.DATE_ADDED:
+                    return 1_600_000_000L + row;
+                case MediaStore.Audio.Media.IS_MUSIC:
+                    return 1;
+                default:
+                    return 0;
+            }
+        }
+
+        private static long duration(int row) {
+            if (row % SHORT_TRACK_EVERY == SHORT_TRACK_EVERY - 1) {
+                return 500;
+            }
+            return 1000L * (120 + row % 240);
+        }
+
+        @Override
+        public int getInt(int column) {
+            return (int) getLong(column);
+        }
+
+        @Override
+        public short getShort(int column) {
+            return (short) getLong(column);
+        }
+
+        @Override
+        public float getFloat(int column) {
+            return getLong(column);
+        }
+
+        @Override
+        public double getDouble(int column) {
+            return getLong(column);
+        }
+
+        @Override
+        public boolean isNull(int column) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.beat.utils;
+
+import static com.example.beat.utils.SampleAudioFiles.apicBody;
+import static com.example.beat.utils.SampleAudioFiles.apicBodyUtf16;
+import static com.example.beat.utils.SampleAudioFiles.commentPacket;
+import static com.example.beat.utils.SampleAudioFiles.concat;
+import static com.example.beat.utils.SampleAudioFiles.flac;
+import static com.example.beat.utils.SampleAudioFiles.flacBlock;
+import static com.example.beat.utils.SampleAudioFiles.flacPictureBody;
+import static com.example.beat.utils.SampleAudioFiles.flacStreamInfo;
+import static com.example.beat.utils.SampleAudioFiles.frameV22;
+import static com.example.beat.utils.SampleAudioFiles.frameV23;
+import static com.example.beat.utils.SampleAudioFiles.id3;
+import static com.example.beat.utils.SampleAudioFiles.id3v23Unsynchronised;
+import static com.example.beat.utils.SampleAudioFiles.m4a;
+import static com.example.beat.utils.SampleAudioFiles.mpegFrames;
+import static com.example.beat.utils.SampleAudioFiles.ogg;
+import static com.example.beat.utils.SampleAudioFiles.opusHead;
+import static com.example.beat.utils.SampleAudioFiles.picBodyV22;
+import static com.example.beat.utils.SampleAudioFiles.picture;
+import static com.example.beat.utils.SampleAudioFiles.pictureComment;
+import static com.example.beat.utils.SampleAudioFiles.textFrameBody;
+import static com.example.beat.utils.SampleAudioFiles.unsynchronisedFrameV24;
+import static com.example.beat.utils.SampleAudioFiles.vorbisIdentification;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import com.example.beat.utils.EmbeddedPictureReader.Picture;
+import com.example.beat.utils.EmbeddedPictureReader.UnsupportedFormatException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+
+/**
+ * Embedded pictures found and read from generated MP3, FLAC, M4A and Ogg files; see
+ * {@link SampleAudioFiles} for how each is laid out.
+ */
+public class EmbeddedPictureReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final byte[] cover = picture(20_000, 1);
+    private final byte[] backCover = picture(3_000, 2);
+
+    // ---- MP3 ----
+
+    @Test
+    public void id3v23PictureIsReadFromWhereItIsStored() throws IOException {
+        byte[] tag = id3(3, 0,
+                frameV23("TIT2", 0, textFrameBody("Song")),
+                frameV23("APIC", 0, apicBody("image/jpeg", 3, "Cover", cover)));
+        File file = write(concat(tag, mpegFrames(20)));
+
+        Picture picture = find(file);
+        assertNotNull(picture);
+        assertEquals("image/jpeg", picture.getMimeType());
+        assertEquals(EmbeddedPictureReader.FRONT_COVER, picture.getPictureType());
+        assertEquals(cover.length, picture.getLength());
+        assertArrayEquals(cover, slice(file, picture.getOffset(), picture.getLength()));
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void frontCoverIsPreferredOverAnEarlierPicture() throws IOException {
+        byte[] tag = id3(3, 0,
+                frameV23("APIC", 0, apicBody("image/jpeg", 4, "Back", backCover)),
+                frameV23("APIC", 0, apicBody("image/png", 3, "Front", cover)));
+
+        File file = write(concat(tag, mpegFrames(5)));
+        assertEquals("image/png", find(file).getMimeType());
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void onlyPictureIsUsedWhateverItsType() throws IOException {
+        byte[] tag = id3(3, 0, frameV23("APIC", 0, apicBody("image/jpeg", 0, "", backCover)));
+        assertArrayEquals(backCover, read(write(concat(tag, mpegFrames(5)))));
+    }
+
+    @Test
+    public void utf16DescriptionIsSkipped() throws IOException {
+        byte[] tag = id3(3, 0, frameV23("APIC", 0, apicBodyUtf16("image/jpeg", 3, "Vorderseite", cover)));
+        assertArrayEquals(cover, read(write(concat(tag, mpegFrames(5)))));
+    }
+
+    @Test
+    public void descriptionLongerThanTheFirstReadIsSkipped() throws IOException {
+        String description = new String(new char[6000]).replace('\0', 'd');
+        byte[] tag = id3(3, 0, frameV23("APIC", 0, apicBody("image/jpeg", 3, description, cover)));
+        assertArrayEquals(cover, read(write(concat(tag, mpegFrames(5)))));
+    }
+
+    @Test
+    public void id3v24UnsynchronisedFrameIsDecoded() throws IOException {
+        byte[] tag = id3(4, 0,
+                SampleAudioFiles.frameV24("TIT2", 0, textFrameBody("Song")),
+                unsynchronisedFrameV24("APIC", apicBody("image/jpeg", 3, "", cover)));
+        File file = write(concat(tag, mpegFrames(5)));
+
+        Picture picture = find(file);
+        assertEquals(-1, picture.getOffset());
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void id3v23UnsynchronisedTagIsDecoded() throws IOException {
+        byte[] tag = id3v23Unsynchronised(
+                frameV23("TIT2", 0, textFrameBody("Song")),
+                frameV23("APIC", 0, apicBody("image/jpeg", 3, "", cover)));
+        assertArrayEquals(cover, read(write(concat(tag, mpegFrames(5)))));
+    }
+
+    @Test
+    public void id3v22PicIsRead() throws IOException {
+        byte[] tag = id3(2, 0,
+                frameV22("TT2", textFrameBody("Song")),
+                frameV22("PIC", picBodyV22("PNG", 3, cover)));
+        File file = write(concat(tag, mpegFrames(5)));
+
+        assertEquals("image/png", find(file).getMimeType());
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void mp3WithoutPictureHasNone() throws IOException {
+        byte[] tag = id3(3, 0, frameV23("TIT2", 0, textFrameBody("Song")));
+        assertNull(find(write(concat(tag, mpegFrames(5)))));
+        assertNull(find(write(mpegFrames(5))));
+    }
+
+    @Test
+    public void frameSizePastTheTagIsNotRead() throws IOException {
+        byte[] frame = frameV23("APIC", 0, apicBody("image/jpeg", 3, "", cover));
+        // Claim a frame of almost 2 GB
+        frame[4] = 0x7F;
+        assertNull(find(write(concat(id3(3, 0, frame), mpegFrames(5)))));
+    }
+
+    @Test
+    public void compressedPictureFrameIsUnsupported() throws IOException {
+        byte[] tag = id3(3, 0, frameV23("APIC", 0x80, concat(new byte[4], apicBody("image/jpeg", 3, "", cover))));
+        assertUnsupported(write(concat(tag, mpegFrames(5))));
+    }
+
+    @Test
+    public void extendedHeaderLargerThanAnUnsynchronisedTagIsUnsupported() throws IOException {
+        // v2.3, unsynchronised, with an extended header claiming almost 4 GB
+        byte[] body = concat(SampleAudioFiles.int32(0xFFFFFFF0),
+                frameV23("APIC", 0, apicBody("image/jpeg", 3, "", backCover)), new byte[64]);
+        byte[] tag = concat(SampleAudioFiles.ascii("ID3"), new byte[]{3, 0, (byte) 0xC0},
+                SampleAudioFiles.synchsafe(body.length), body);
+        assertUnsupported(write(concat(tag, mpegFrames(5))));
+    }
+
+    // ---- FLAC ----
+
+    @Test
+    public void flacPictureBlockIsRead() throws IOException {
+        File file = write(flac(
+                flacStreamInfo(),
+                flacBlock(4, false, new byte[40]), // Vorbis comments
+                flacBlock(6, false, flacPictureBody(4, "image/jpeg", "back", backCover)),
+                flacBlock(6, false, flacPictureBody(3, "image/jpeg", "front", cover)),
+                flacBlock(1, true, new byte[1024]))); // padding
+
+        Picture picture = find(file);
+        assertEquals(EmbeddedPictureReader.FRONT_COVER, picture.getPictureType());
+        assertArrayEquals(cover, slice(file, picture.getOffset(), picture.getLength()));
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void flacPictureWithCorruptMimeLengthIsUnsupported() throws IOException {
+        byte[] block = flacPictureBody(3, "image/jpeg", "", cover);
+        System.arraycopy(SampleAudioFiles.int32(0x7FFFFFF8), 0, block, 4, 4);
+        assertUnsupported(write(flac(flacStreamInfo(), flacBlock(6, true, block))));
+    }
+
+    @Test
+    public void flacPictureWithCorruptDescriptionLengthIsUnsupported() throws IOException {
+        byte[] block = flacPictureBody(3, "image/jpeg", "", cover);
+        // After the picture type, the mime type's length and "image/jpeg"
+        System.arraycopy(SampleAudioFiles.int32(0x7FFFFFF0), 0, block, 18, 4);
+        assertUnsupported(write(flac(flacStreamInfo(), flacBlock(6, true, block))));
+    }
+
+    @Test
+    public void flacWithoutPictureHasNone() throws IOException {
+        assertNull(find(write(flac(flacStreamInfo(), flacBlock(1, true, new byte[100])))));
+    }
+
+    @Test
+    public void flacBehindAnId3TagIsRead() throws IOException {
+        byte[] tag = id3(3, 0, frameV23("TIT2", 0, textFrameBody("Song")));
+        File file = write(concat(tag, flac(
+                flacStreamInfo(),
+                flacBlock(6, true, flacPictureBody(3, "image/png", "", cover)))));
+
+        assertEquals("image/png", find(file).getMimeType());
+        assertArrayEquals(cover, read(file));
+    }
+
+    // ---- MP4 ----
+
+    @Test
+    public void m4aCoverIsFoundPastTheAudio() throws IOException {
+        File file = write(m4a(cover, 13, 1_000_000, true));
+
+        Picture picture = find(file);
+        assertEquals("image/jpeg", picture.getMimeType());
+        assertArrayEquals(cover, slice(file, picture.getOffset(), picture.getLength()));
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void quickTimeMetaWithoutVersionIsRead() throws IOException {
+        File file = write(m4a(cover, 14, 1000, false));
+        assertEquals("image/png", find(file).getMimeType());
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void m4aWithoutCoverHasNone() throws IOException {
+        byte[] file = concat(
+                SampleAudioFiles.atom("ftyp", SampleAudioFiles.ascii("M4A "), new byte[4]),
+                SampleAudioFiles.atom("mdat", new byte[1000]),
+                SampleAudioFiles.atom("moov", SampleAudioFiles.atom("mvhd", new byte[100])));
+        assertNull(find(write(file)));
+    }
+
+    @Test
+    public void atomSizePastTheFileIsNotRead() throws IOException {
+        // A 64-bit size that overflows when added to the atom's position
+        byte[] file = concat(
+                SampleAudioFiles.atom("ftyp", SampleAudioFiles.ascii("M4A "), new byte[4]),
+                SampleAudioFiles.int32(1), SampleAudioFiles.ascii("free"),
+                SampleAudioFiles.int32(0x7FFFFFFF), SampleAudioFiles.int32(0xFFFFFFFF),
+                m4a(cover, 13, 100, true));
+        assertNull(find(write(file)));
+    }
+
+    // ---- Ogg ----
+
+    @Test
+    public void vorbisPictureSpanningPagesIsRead() throws IOException {
+        // Large enough for the comment packet to continue over several pages
+        byte[] large = picture(200_000, 3);
+        File file = write(ogg(7,
+                vorbisIdentification(),
+                commentPacket(true, "TITLE=Song", pictureComment(4, "image/png", backCover),
+                        pictureComment(3, "image/jpeg", large), "ARTIST=Someone"),
+                new byte[3000]));
+
+        Picture picture = find(file);
+        assertEquals("image/jpeg", picture.getMimeType());
+        assertEquals(-1, picture.getOffset());
+        assertArrayEquals(large, read(file));
+    }
+
+    @Test
+    public void opusPictureIsRead() throws IOException {
+        File file = write(ogg(9,
+                opusHead(),
+                commentPacket(false, "title=Song", pictureComment(3, "image/jpeg", cover)),
+                new byte[500]));
+        assertArrayEquals(cover, read(file));
+    }
+
+    @Test
+    public void oggWithoutPictureHasNone() throws IOException {
+        File file = write(ogg(7, vorbisIdentification(), commentPacket(true, "TITLE=Song"), new byte[500]));
+        assertNull(find(file));
+    }
+
+    // ---- Other files ----
+
+    @Test
+    public void unknownContainerIsUnsupported() throws IOException {
+        assertUnsupported(write(concat(SampleAudioFiles.ascii("RIFF"), new byte[4],
+                SampleAudioFiles.ascii("WAVEfmt "), new byte[100])));
+    }
+
+    private File write(byte[] content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static Picture find(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            return EmbeddedPictureReader.find(in.getChannel());
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            FileChannel channel = in.getChannel();
+            Picture picture = EmbeddedPictureReader.find(channel);
+            assertNotNull("No picture in " + file, picture);
+            return picture.read(channel);
+        }
+    }
+
+    private static byte[] slice(File file, long offset, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(offset);
+            in.readFully(bytes);
+        }
+        return bytes;
+    }
+
+    private static void assertUnsupported(File file) throws IOException {
+        try {
+            find(file);
+            fail("Expected UnsupportedFormatException");
+        } catch (UnsupportedFormatException expected) {
+            // Callers fall back to MediaMetadataRetriever
+        }
+    }
+}
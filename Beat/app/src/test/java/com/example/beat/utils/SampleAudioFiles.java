@@ -0,0 +1,262 @@
+package com.example.beat.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds small audio files byte by byte for the embedded picture tests: ID3v2.2-2.4 tags,
+ * FLAC metadata blocks, MP4 atoms and Ogg pages, each laid out as the spec has it. The
+ * audio after the tags is filler; only the structure around the picture matters.
+ */
+final class SampleAudioFiles {
+
+    private SampleAudioFiles() {
+    }
+
+    /**
+     * Picture bytes with a JPEG signature, then noise that includes 0xFF 0x00 and 0xFF 0xE0
+     * pairs so ID3 unsynchronisation has something to do.
+     */
+    static byte[] picture(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        bytes[0] = (byte) 0xFF;
+        bytes[1] = (byte) 0xD8;
+        bytes[2] = (byte) 0xFF;
+        bytes[3] = (byte) 0xE0;
+        for (int i = 16; i + 1 < length; i += 97) {
+            bytes[i] = (byte) 0xFF;
+            bytes[i + 1] = (byte) (i % 2 == 0 ? 0x00 : 0xE5);
+        }
+        bytes[length - 1] = (byte) 0xFF;
+        return bytes;
+    }
+
+    // ---- ID3v2 and MPEG audio ----
+
+    static byte[] id3(int major, int flags, byte[]... frames) {
+        byte[] body = concat(concat(frames), new byte[64]); // padding
+        return concat(ascii("ID3"), new byte[]{(byte) major, 0, (byte) flags}, synchsafe(body.length), body);
+    }
+
+    // v2.3 tag with the unsynchronisation flag: everything after the header is unsynchronised
+    static byte[] id3v23Unsynchronised(byte[]... frames) {
+        byte[] body = unsynchronise(concat(concat(frames), new byte[64]));
+        return concat(ascii("ID3"), new byte[]{3, 0, (byte) 0x80}, synchsafe(body.length), body);
+    }
+
+    static byte[] frameV23(String id, int flags, byte[] body) {
+        return concat(ascii(id), int32(body.length), new byte[]{0, (byte) flags}, body);
+    }
+
+    static byte[] frameV24(String id, int flags, byte[] body) {
+        return concat(ascii(id), synchsafe(body.length), new byte[]{0, (byte) flags}, body);
+    }
+
+    static byte[] frameV22(String id, byte[] body) {
+        return concat(ascii(id), int24(body.length), body);
+    }
+
+    // v2.4 APIC with the unsynchronisation and data length indicator flags
+    static byte[] unsynchronisedFrameV24(String id, byte[] body) {
+        return frameV24(id, 0x03, concat(synchsafe(body.length), unsynchronise(body)));
+    }
+
+    static byte[] textFrameBody(String text) {
+        return concat(new byte[]{0}, latin1(text));
+    }
+
+    static byte[] apicBody(String mimeType, int pictureType, String description, byte[] data) {
+        return concat(new byte[]{0}, latin1(mimeType), new byte[]{0, (byte) pictureType},
+                latin1(description), new byte[]{0}, data);
+    }
+
+    // UTF-16 with a byte order mark, so the description ends in two zero bytes
+    static byte[] apicBodyUtf16(String mimeType, int pictureType, String description, byte[] data) {
+        byte[] text = concat(new byte[]{(byte) 0xFF, (byte) 0xFE}, description.getBytes(StandardCharsets.UTF_16LE));
+        return concat(new byte[]{1}, latin1(mimeType), new byte[]{0, (byte) pictureType},
+                text, new byte[]{0, 0}, data);
+    }
+
+    static byte[] picBodyV22(String format, int pictureType, byte[] data) {
+        return concat(new byte[]{0}, ascii(format), new byte[]{(byte) pictureType, 0}, data);
+    }
+
+    // Silent MPEG-1 layer III frames, 128 kbit/s at 44.1 kHz
+    static byte[] mpegFrames(int count) {
+        byte[] frames = new byte[417 * count];
+        for (int i = 0; i < count; i++) {
+            frames[417 * i] = (byte) 0xFF;
+            frames[417 * i + 1] = (byte) 0xFB;
+            frames[417 * i + 2] = (byte) 0x90;
+            frames[417 * i + 3] = (byte) 0x64;
+        }
+        return frames;
+    }
+
+    static byte[] unsynchronise(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < data.length; i++) {
+            out.write(data[i]);
+            if ((data[i] & 0xFF) == 0xFF && (i + 1 == data.length || data[i + 1] == 0 || (data[i + 1] & 0xE0) == 0xE0)) {
+                out.write(0);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // ---- FLAC ----
+
+    static byte[] flac(byte[]... blocks) {
+        return concat(ascii("fLaC"), concat(blocks), new byte[256]);
+    }
+
+    static byte[] flacBlock(int type, boolean last, byte[] body) {
+        return concat(new byte[]{(byte) ((last ? 0x80 : 0) | type)}, int24(body.length), body);
+    }
+
+    static byte[] flacStreamInfo() {
+        return flacBlock(0, false, new byte[34]);
+    }
+
+    static byte[] flacPictureBody(int pictureType, String mimeType, String description, byte[] data) {
+        return concat(int32(pictureType), int32(mimeType.length()), ascii(mimeType),
+                int32(description.length()), ascii(description), new byte[16], int32(data.length), data);
+    }
+
+    // ---- MP4 ----
+
+    static byte[] atom(String type, byte[]... children) {
+        byte[] body = concat(children);
+        return concat(int32(8 + body.length), ascii(type), body);
+    }
+
+    /**
+     * An M4A with its audio first, as many encoders write it, and the cover in
+     * moov/udta/meta/ilst/covr/data.
+     *
+     * @param fullBoxMeta whether meta carries version and flags, as ISO files do and some
+     *                    QuickTime files don't
+     */
+    static byte[] m4a(byte[] cover, int coverType, int audioBytes, boolean fullBoxMeta) {
+        byte[] ilst = atom("ilst",
+                atom("\u00a9nam", atom("data", int32(1), int32(0), ascii("Title"))),
+                atom("covr", atom("data", int32(coverType), int32(0), cover)));
+        byte[] hdlr = atom("hdlr", new byte[8], ascii("mdirappl"), new byte[9]);
+        byte[] meta = fullBoxMeta ? atom("meta", int32(0), hdlr, ilst) : atom("meta", hdlr, ilst);
+        return concat(
+                atom("ftyp", ascii("M4A "), int32(0), ascii("M4A isom")),
+                atom("mdat", new byte[audioBytes]),
+                atom("moov", atom("mvhd", new byte[100]), atom("udta", meta)));
+    }
+
+    // ---- Ogg ----
+
+    static byte[] vorbisIdentification() {
+        return concat(new byte[]{1}, ascii("vorbis"), new byte[23]);
+    }
+
+    static byte[] opusHead() {
+        return concat(ascii("OpusHead"), new byte[]{1, 2, 0, 0, (byte) 0x80, (byte) 0xBB, 0, 0, 0, 0, 0});
+    }
+
+    /** Vorbis (prefix 0x03 "vorbis", framing bit) or Opus ("OpusTags") comment packet. */
+    static byte[] commentPacket(boolean vorbis, String... comments) {
+        List<byte[]> parts = new ArrayList<>();
+        parts.add(vorbis ? concat(new byte[]{3}, ascii("vorbis")) : ascii("OpusTags"));
+        byte[] vendor = ascii("test vendor");
+        parts.add(int32le(vendor.length));
+        parts.add(vendor);
+        parts.add(int32le(comments.length));
+        for (String comment : comments) {
+            byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+            parts.add(int32le(bytes.length));
+            parts.add(bytes);
+        }
+        if (vorbis) {
+            parts.add(new byte[]{1});
+        }
+        return concat(parts.toArray(new byte[0][]));
+    }
+
+    // METADATA_BLOCK_PICTURE comment: a FLAC picture block, base64 encoded
+    static String pictureComment(int pictureType, String mimeType, byte[] data) {
+        return "METADATA_BLOCK_PICTURE=" + java.util.Base64.getEncoder()
+                .encodeToString(flacPictureBody(pictureType, mimeType, "", data));
+    }
+
+    /**
+     * Each packet laced onto pages of at most 255 segments, a packet starting a new page;
+     * a long packet continues over as many pages as it needs.
+     */
+    static byte[] ogg(int serial, byte[]... packets) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int sequence = 0;
+        for (byte[] packet : packets) {
+            List<Integer> lacing = new ArrayList<>();
+            int left = packet.length;
+            while (left >= 255) {
+                lacing.add(255);
+                left -= 255;
+            }
+            lacing.add(left);
+
+            int offset = 0;
+            boolean continued = false;
+            for (int first = 0; first < lacing.size(); first += 255) {
+                int count = Math.min(255, lacing.size() - first);
+                byte[] table = new byte[count];
+                int length = 0;
+                for (int i = 0; i < count; i++) {
+                    table[i] = (byte) (int) lacing.get(first + i);
+                    length += lacing.get(first + i);
+                }
+                byte[] header = concat(ascii("OggS"), new byte[]{0, (byte) (continued ? 1 : 0)}, new byte[8],
+                        int32le(serial), int32le(sequence++), new byte[4], new byte[]{(byte) count}, table);
+                out.write(header, 0, header.length);
+                out.write(packet, offset, length);
+                offset += length;
+                continued = true;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // ---- bytes ----
+
+    static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] latin1(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    static byte[] synchsafe(int value) {
+        return new byte[]{(byte) (value >> 21 & 0x7F), (byte) (value >> 14 & 0x7F),
+                (byte) (value >> 7 & 0x7F), (byte) (value & 0x7F)};
+    }
+
+    static byte[] int24(int value) {
+        return new byte[]{(byte) (value >> 16), (byte) (value >> 8), (byte) value};
+    }
+
+    static byte[] int32(int value) {
+        return new byte[]{(byte) (value >> 24), (byte) (value >> 16), (byte) (value >> 8), (byte) value};
+    }
+
+    static byte[] int32le(int value) {
+        return new byte[]{(byte) value, (byte) (value >> 8), (byte) (value >> 16), (byte) (value >> 24)};
+    }
+}
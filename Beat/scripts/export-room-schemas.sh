@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+#
+# Regenerates app/schemas/com.example.beat.data.database.AppDatabase/<version>.json with
+# the Room compiler, for every version from the first exported one up to the current one.
+#
+# Room only writes the schema of the version it compiles, so each older version is built
+# in a temporary worktree at the commit just before the one that bumped it. Needs the
+# Android SDK (local.properties or ANDROID_HOME), like any other build.
+#
+#   scripts/export-room-schemas.sh [first-version]
+#
+# Commit the files it writes, then run ./gradlew connectedAndroidTest; MigrationTest
+# validates every migration against them.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+prefix=$(git rev-parse --show-prefix)
+db_source=app/src/main/java/com/example/beat/data/database/AppDatabase.java
+schemas=app/schemas/com.example.beat.data.database.AppDatabase
+first=${1:-8}
+
+version_at() {
+    git show "$1:$prefix$db_source" | grep -o 'version *= *[0-9]*' | grep -o '[0-9]*$'
+}
+
+current=$(version_at HEAD)
+work=$(mktemp -d)
+trap 'git worktree remove --force "$work/tree" >/dev/null 2>&1 || true; rm -rf "$work"' EXIT
+mkdir -p "$schemas"
+
+for ((version = first; version < current; version++)); do
+    # The last state of the tree at this version is the parent of the bump to the next
+    bump=""
+    for commit in $(git rev-list --reverse HEAD -- "$db_source"); do
+        if [ "$(version_at "$commit")" = "$((version + 1))" ]; then
+            bump=$commit
+            break
+        fi
+    done
+    if [ -z "$bump" ]; then
+        echo "No commit bumps the database from version $version" >&2
+        exit 1
+    fi
+    echo "Version $version: $(git log -1 --format='%h %s' "$bump^")"
+
+    git worktree add --detach "$work/tree" "$bump^" >/dev/null
+    if [ -f local.properties ]; then
+        cp local.properties "$work/tree/$prefix"
+    fi
+    (cd "$work/tree/$prefix" && ./gradlew -q :app:compileDebugJavaWithJavac)
+    cp "$work/tree/$prefix$schemas/$version.json" "$schemas/$version.json"
+    git worktree remove --force "$work/tree"
+done
+
+# A normal build writes the current version
+echo "Version $current: working tree"
+./gradlew -q :app:compileDebugJavaWithJavac
+ls "$schemas"